@@ -0,0 +1,34 @@
+plugins {
+    java
+    id("org.springframework.boot") apply false
+    id("io.spring.dependency-management")
+    id("me.champeau.jmh")
+}
+
+dependencyManagement {
+    imports {
+        mavenBom(org.springframework.boot.gradle.plugin.SpringBootPlugin.BOM_COORDINATES)
+    }
+}
+
+dependencies {
+    jmhImplementation(project(":common"))
+    jmhImplementation(project(":ingest-service"))
+    jmhImplementation(project(":projector-service"))
+    jmhImplementation(project(":query-service"))
+
+    jmhImplementation("org.springframework.kafka:spring-kafka")
+    jmhImplementation("org.springframework.boot:spring-boot-starter-data-redis")
+    jmhImplementation("io.micrometer:micrometer-core")
+    jmhImplementation("com.fasterxml.jackson.core:jackson-databind")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    // Reports gc.alloc.rate.norm (bytes per operation) next to each score
+    profilers.set(listOf("gc"))
+}
@@ -0,0 +1,154 @@
+package com.wcd.benchmarks;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-memory stand-in for a Redis connection. Commands return canned replies without any I/O, so
+ * benchmarks measure the template, serialization and projection code rather than the network.
+ */
+final class FakeRedis {
+
+    private FakeRedis() {
+    }
+
+    static StringRedisTemplate template() {
+        return template(Set.of());
+    }
+
+    /**
+     * @param rangeReply returned for every ZREVRANGE ... WITHSCORES
+     */
+    static StringRedisTemplate template(Set<Tuple> rangeReply) {
+        RedisConnectionFactory factory = (RedisConnectionFactory) Proxy.newProxyInstance(
+            FakeRedis.class.getClassLoader(),
+            new Class<?>[] {RedisConnectionFactory.class},
+            new ConnectionFactoryHandler(rangeReply)
+        );
+        return new StringRedisTemplate(factory);
+    }
+
+    static Set<Tuple> leaderboard(int size) {
+        Set<Tuple> tuples = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            tuples.add(new DefaultTuple(("user-" + i).getBytes(StandardCharsets.UTF_8), (double) (size - i)));
+        }
+        return tuples;
+    }
+
+    private static Object objectMethod(Object proxy, Method method, Object[] args, String name) {
+        return switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> name;
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    private static final class ConnectionFactoryHandler implements InvocationHandler {
+
+        private final Set<Tuple> rangeReply;
+
+        private ConnectionFactoryHandler(Set<Tuple> rangeReply) {
+            this.rangeReply = rangeReply;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "getConnection" -> Proxy.newProxyInstance(
+                    FakeRedis.class.getClassLoader(),
+                    new Class<?>[] {RedisConnection.class},
+                    new ConnectionHandler(rangeReply)
+                );
+                case "getConvertPipelineAndTxResults" -> true;
+                case "translateExceptionIfPossible" -> null;
+                default -> objectMethod(proxy, method, args, "FakeRedisConnectionFactory");
+            };
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Set<Tuple> rangeReply;
+        private List<Object> pipelineReplies;
+
+        private ConnectionHandler(Set<Tuple> rangeReply) {
+            this.rangeReply = rangeReply;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "openPipeline":
+                    pipelineReplies = new ArrayList<>();
+                    return null;
+                case "closePipeline":
+                    List<Object> replies = pipelineReplies != null ? pipelineReplies : List.of();
+                    pipelineReplies = null;
+                    return replies;
+                case "isPipelined":
+                    return pipelineReplies != null;
+                case "isQueueing":
+                case "isClosed":
+                    return false;
+                case "close":
+                case "getNativeConnection":
+                    return null;
+                case "hashCode":
+                case "equals":
+                case "toString":
+                    return objectMethod(proxy, method, args, "FakeRedisConnection");
+                default:
+                    break;
+            }
+
+            Class<?> returnType = method.getReturnType();
+            // zSetCommands(), keyCommands() and friends: the connection implements them all itself.
+            if (method.getParameterCount() == 0 && returnType.isInterface() && returnType.isInstance(proxy)) {
+                return proxy;
+            }
+
+            Object reply = "zRevRangeWithScores".equals(method.getName()) ? rangeReply : reply(returnType);
+            if (pipelineReplies != null) {
+                pipelineReplies.add(reply);
+                return null;
+            }
+            return reply;
+        }
+
+        private static Object reply(Class<?> returnType) {
+            if (returnType == Boolean.class || returnType == boolean.class) {
+                return true;
+            }
+            if (returnType == Long.class || returnType == long.class) {
+                return 1L;
+            }
+            if (returnType == Double.class || returnType == double.class) {
+                return 1.0;
+            }
+            if (returnType == Integer.class || returnType == int.class) {
+                return 1;
+            }
+            if (returnType == Set.class) {
+                return Set.of();
+            }
+            if (returnType == List.class) {
+                return List.of();
+            }
+            return null;
+        }
+    }
+}
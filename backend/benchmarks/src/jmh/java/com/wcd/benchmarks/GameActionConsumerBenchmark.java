@@ -0,0 +1,50 @@
+package com.wcd.benchmarks;
+
+import com.wcd.common.events.GameActionV1;
+import com.wcd.projector.consumer.GameActionConsumer;
+import com.wcd.projector.service.ProjectionService;
+import com.wcd.projector.service.RetryPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record dispatch in {@link GameActionConsumer#consume}, including the Redis template calls it
+ * triggers but not the network round-trips.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class GameActionConsumerBenchmark {
+
+    @Param({"HEARTBEAT", "DRINK"})
+    public String action;
+
+    private GameActionConsumer consumer;
+    private ConsumerRecord<String, GameActionV1> record;
+
+    @Setup
+    public void setUp() {
+        ProjectionService projectionService = new ProjectionService(FakeRedis.template(), 30, 1, 180, 48, 240);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // FakeRedis never fails, so the retry path and its KafkaTemplate are never reached.
+        RetryPublisher retryPublisher = new RetryPublisher(null, meterRegistry, "game.actions.retry");
+        consumer = new GameActionConsumer(projectionService, retryPublisher, meterRegistry);
+        GameActionV1 event = new GameActionV1("user-12345", "EU", "match-1", action, 2, System.currentTimeMillis());
+        record = new ConsumerRecord<>("game.actions", 0, 0L, event.getUserId(), event);
+    }
+
+    @Benchmark
+    public void consume() {
+        consumer.consume(record);
+    }
+}
@@ -0,0 +1,71 @@
+package com.wcd.benchmarks;
+
+import com.wcd.common.events.GameActionV1;
+import com.wcd.common.serialization.GameActionV1BinaryDeserializer;
+import com.wcd.common.serialization.GameActionV1BinarySerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Record (de)serialization on {@code game.actions}, configured as ingest and projector configure it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class GameActionSerializationBenchmark {
+
+    private static final String TOPIC = "game.actions";
+
+    private JsonSerializer<GameActionV1> jsonSerializer;
+    private JsonDeserializer<GameActionV1> jsonDeserializer;
+    private GameActionV1BinarySerializer binarySerializer;
+    private GameActionV1BinaryDeserializer binaryDeserializer;
+    private GameActionV1 event;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new JsonSerializer<>();
+        jsonSerializer.setAddTypeInfo(false);
+        jsonDeserializer = new JsonDeserializer<>(GameActionV1.class);
+        jsonDeserializer.setRemoveTypeHeaders(false);
+        jsonDeserializer.addTrustedPackages("com.wcd.common.events");
+        jsonDeserializer.setUseTypeMapperForKey(false);
+        binarySerializer = new GameActionV1BinarySerializer();
+        binaryDeserializer = new GameActionV1BinaryDeserializer();
+
+        event = new GameActionV1("user-12345", "EU", "match-1", "DRINK", 2, System.currentTimeMillis());
+        json = jsonSerializer.serialize(TOPIC, event);
+        binary = binarySerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public GameActionV1 jsonDeserialize() {
+        return jsonDeserializer.deserialize(TOPIC, json);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public GameActionV1 binaryDeserialize() {
+        return binaryDeserializer.deserialize(TOPIC, binary);
+    }
+}
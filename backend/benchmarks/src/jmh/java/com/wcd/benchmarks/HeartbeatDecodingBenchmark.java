@@ -0,0 +1,49 @@
+package com.wcd.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wcd.common.events.GameActionV1;
+import com.wcd.ingest.config.GameActionV1MessageConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heartbeat request body decoding: databind (the default converter) versus the streaming
+ * {@link GameActionV1MessageConverter}. Compare gc.alloc.rate.norm as well as the score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class HeartbeatDecodingBenchmark {
+
+    private ObjectMapper objectMapper;
+    private GameActionV1MessageConverter converter;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        converter = new GameActionV1MessageConverter(objectMapper.getFactory());
+        body = "{\"userId\":\"user-12345\",\"region\":\"EU\",\"matchId\":\"match-1\",\"amount\":0}"
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public GameActionV1 databind() throws IOException {
+        return objectMapper.readValue(new ByteArrayInputStream(body), GameActionV1.class);
+    }
+
+    @Benchmark
+    public GameActionV1 streaming() throws IOException {
+        return converter.decode(new ByteArrayInputStream(body));
+    }
+}
@@ -0,0 +1,51 @@
+package com.wcd.benchmarks;
+
+import com.wcd.query.dto.LeaderboardEntry;
+import com.wcd.query.service.LeaderboardService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Top-N reads in {@link LeaderboardService}: mapping Redis tuples to {@link LeaderboardEntry}
+ * on every call versus serving from the short-lived cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LeaderboardServiceBenchmark {
+
+    @Param({"10", "100"})
+    public int limit;
+
+    private LeaderboardService uncached;
+    private LeaderboardService cached;
+
+    @Setup
+    public void setUp() {
+        // A zero TTL expires every entry on read, so each call reloads and re-maps.
+        uncached = new LeaderboardService(FakeRedis.template(FakeRedis.leaderboard(limit)),
+            new SimpleMeterRegistry(), 0, 1000, 1);
+        cached = new LeaderboardService(FakeRedis.template(FakeRedis.leaderboard(limit)),
+            new SimpleMeterRegistry(), 60_000, 1000, 1);
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> mapTopPlayers() {
+        return uncached.getTopPlayers("match-1", limit);
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> cachedTopPlayers() {
+        return cached.getTopPlayers("match-1", limit);
+    }
+}
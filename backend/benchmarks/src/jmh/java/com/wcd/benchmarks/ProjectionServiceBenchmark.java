@@ -0,0 +1,64 @@
+package com.wcd.benchmarks;
+
+import com.wcd.common.events.GameActionV1;
+import com.wcd.projector.service.ProjectionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProjectionService} command building, per event and per pipelined batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ProjectionServiceBenchmark {
+
+    @Param({"100", "500"})
+    public int batchSize;
+
+    private ProjectionService projectionService;
+    private GameActionV1 heartbeat;
+    private GameActionV1 drink;
+    private List<GameActionV1> batch;
+
+    @Setup
+    public void setUp() {
+        projectionService = new ProjectionService(FakeRedis.template(), 30, 1, 180, 48, 240);
+        long now = System.currentTimeMillis();
+        heartbeat = new GameActionV1("user-1", "EU", "match-1", "HEARTBEAT", 0, now);
+        drink = new GameActionV1("user-1", "EU", "match-1", "DRINK", 2, now);
+
+        String[] regions = {"EU", "NA", "SA", "AS"};
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            String action = i % 4 == 0 ? "DRINK" : "HEARTBEAT";
+            batch.add(new GameActionV1("user-" + (i % 200), regions[i % regions.length], "match-" + (i % 3),
+                action, i % 4 == 0 ? 1 : 0, now));
+        }
+    }
+
+    @Benchmark
+    public void updatePresence() {
+        projectionService.updatePresence(heartbeat);
+    }
+
+    @Benchmark
+    public void updateDrink() {
+        projectionService.updateDrink(drink);
+    }
+
+    @Benchmark
+    public void projectBatch() {
+        projectionService.projectBatch(batch);
+    }
+}
@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.2.5" apply false
     id("io.spring.dependency-management") version "1.1.4" apply false
+    id("me.champeau.jmh") version "0.7.2" apply false
     id("org.owasp.dependencycheck") version "9.0.9"
     id("org.sonarqube") version "5.0.0.4638"
 }
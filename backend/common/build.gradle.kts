@@ -13,6 +13,8 @@ dependencyManagement {
 dependencies {
     implementation("com.fasterxml.jackson.core:jackson-annotations")
     implementation("com.fasterxml.jackson.core:jackson-databind")
+    implementation("org.apache.kafka:kafka-clients")
+    implementation("io.micrometer:micrometer-core")
 
     testImplementation("org.junit.jupiter:junit-jupiter-api")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine")
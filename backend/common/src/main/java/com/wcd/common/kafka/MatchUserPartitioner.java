@@ -0,0 +1,76 @@
+package com.wcd.common.kafka;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Places all of a match's records on a small, fixed run of consecutive partitions and each user
+ * of the match on one partition within it.
+ *
+ * <p>Keys built by {@link #key(String, String)} look like {@code {matchId}userId}. The match
+ * picks the first partition of the run from the murmur2 hash of the tag, and the user picks one
+ * of the next {@code match-spread} partitions from there. A projector that owns a partition then
+ * sees whole users of a handful of matches instead of a slice of every match, while a hot match
+ * still spreads over more than one consumer.
+ *
+ * <p>Keys without a tag are hashed exactly like Kafka's default partitioner, so the partitioner
+ * can also be installed on producers that write plain userId or matchId keys, e.g. dead-letter
+ * replays back onto the source topic.
+ */
+public class MatchUserPartitioner implements Partitioner {
+
+    public static final String MATCH_SPREAD_CONFIG = "wcd.partitioner.match-spread";
+
+    private static final int DEFAULT_MATCH_SPREAD = 4;
+
+    private int matchSpread = DEFAULT_MATCH_SPREAD;
+
+    public static String key(String matchId, String userId) {
+        return "{" + matchId + "}" + userId;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object spread = configs.get(MATCH_SPREAD_CONFIG);
+        if (spread != null) {
+            matchSpread = Integer.parseInt(spread.toString());
+        }
+        if (matchSpread < 1) {
+            throw new IllegalArgumentException(MATCH_SPREAD_CONFIG + " must be at least 1");
+        }
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int partitions = cluster.partitionsForTopic(topic).size();
+        return partition(key, keyBytes, partitions);
+    }
+
+    int partition(Object key, byte[] keyBytes, int partitions) {
+        if (keyBytes == null) {
+            return ThreadLocalRandom.current().nextInt(partitions);
+        }
+        if (key instanceof String text && text.startsWith("{")) {
+            int close = text.indexOf('}');
+            if (close > 0) {
+                int first = hash(text.substring(1, close)) % partitions;
+                int offset = hash(text.substring(close + 1)) % Math.min(matchSpread, partitions);
+                return (first + offset) % partitions;
+            }
+        }
+        return Utils.toPositive(Utils.murmur2(keyBytes)) % partitions;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static int hash(String value) {
+        return Utils.toPositive(Utils.murmur2(value.getBytes(StandardCharsets.UTF_8)));
+    }
+}
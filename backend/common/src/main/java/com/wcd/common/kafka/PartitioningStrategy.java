@@ -0,0 +1,41 @@
+package com.wcd.common.kafka;
+
+import com.wcd.common.events.GameActionV1;
+
+/**
+ * How published events are keyed, and so which partition, and which projector, receives them.
+ * Ingest keys every event with it; dead-letter replays re-key with it so a replayed event lands
+ * where ingest would have put it.
+ */
+public enum PartitioningStrategy {
+
+    /** One user's events on one partition; every partition carries every match. */
+    USER("user"),
+    /** A whole match on one partition; a hot match is limited to one consumer. */
+    MATCH("match"),
+    /** A match on a few consecutive partitions, each user on one of them; see {@link MatchUserPartitioner}. */
+    MATCH_USER("match-user");
+
+    private final String property;
+
+    PartitioningStrategy(String property) {
+        this.property = property;
+    }
+
+    public static PartitioningStrategy fromProperty(String value) {
+        for (PartitioningStrategy strategy : values()) {
+            if (strategy.property.equals(value)) {
+                return strategy;
+            }
+        }
+        throw new IllegalStateException("Unknown wcd.kafka.partitioning: " + value);
+    }
+
+    public String key(GameActionV1 event) {
+        return switch (this) {
+            case USER -> event.getUserId();
+            case MATCH -> event.getMatchId();
+            case MATCH_USER -> MatchUserPartitioner.key(event.getMatchId(), event.getUserId());
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.wcd.common.leaderboard;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis key layout for match leaderboards, shared by the projector (writes) and the query service
+ * (reads). With one shard a match lives in {@code leaderboard:{matchId}}; with N shards each user is
+ * assigned to one of {@code leaderboard:{matchId}:s0 .. s(N-1)} by a stable hash of the userId. The
+ * shard keys carry no hash tag, so Redis Cluster spreads a hot match across slots.
+ *
+ * <p>Windowed leaderboards keep one sorted set per match and minute,
+ * {@code leaderboard:window:{matchId}:{yyyyMMddHHmm}}. Here the braces are a real hash tag: all
+ * buckets of a match and their unions share a slot, so ZUNIONSTORE works on Redis Cluster.
+ */
+public final class LeaderboardKeys {
+
+    public static final String PREFIX = "leaderboard:";
+    public static final String WINDOW_PREFIX = PREFIX + "window:";
+
+    private static final DateTimeFormatter MINUTE_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyyMMddHHmm").withZone(ZoneOffset.UTC);
+
+    private LeaderboardKeys() {
+    }
+
+    public static String key(String matchId, String userId, int shards) {
+        if (shards <= 1) {
+            return PREFIX + matchId;
+        }
+        return shardKey(matchId, shardOf(userId, shards));
+    }
+
+    public static List<String> keys(String matchId, int shards) {
+        if (shards <= 1) {
+            return List.of(PREFIX + matchId);
+        }
+        List<String> keys = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            keys.add(shardKey(matchId, shard));
+        }
+        return keys;
+    }
+
+    /**
+     * String.hashCode is fixed by the language spec, so every service and JVM picks the same shard.
+     * The high bits are folded in because sequential ids differ mostly in the low ones.
+     */
+    public static int shardOf(String userId, int shards) {
+        int hash = userId.hashCode();
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shards);
+    }
+
+    public static String windowBucketKey(String matchId, Instant timestamp) {
+        return windowPrefix(matchId) + MINUTE_FORMATTER.format(timestamp);
+    }
+
+    /**
+     * Minute buckets from the one containing {@code from} to the one containing {@code to}, inclusive.
+     */
+    public static List<String> windowBucketKeys(String matchId, Instant from, Instant to) {
+        List<String> keys = new ArrayList<>();
+        Instant last = to.truncatedTo(ChronoUnit.MINUTES);
+        for (Instant minute = from.truncatedTo(ChronoUnit.MINUTES); !minute.isAfter(last); minute = minute.plus(1, ChronoUnit.MINUTES)) {
+            keys.add(windowBucketKey(matchId, minute));
+        }
+        return keys;
+    }
+
+    public static String windowUnionKey(String matchId, Instant from, Instant to) {
+        return windowPrefix(matchId) + "union:" + MINUTE_FORMATTER.format(from) + "-" + MINUTE_FORMATTER.format(to);
+    }
+
+    private static String windowPrefix(String matchId) {
+        return WINDOW_PREFIX + "{" + matchId + "}:";
+    }
+
+    private static String shardKey(String matchId, int shard) {
+        return PREFIX + matchId + ":s" + shard;
+    }
+}
@@ -0,0 +1,34 @@
+package com.wcd.common.serialization;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wcd.common.events.GameActionV1;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+
+/**
+ * Kafka deserializer for {@link GameActionV1} that reads the {@link GameActionV1Codec} binary layout
+ * and falls back to JSON for records starting with '{', so consumers can switch before producers do.
+ */
+public class GameActionV1BinaryDeserializer implements Deserializer<GameActionV1> {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Override
+    public GameActionV1 deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            if (GameActionV1Codec.isJson(data)) {
+                return objectMapper.readValue(data, GameActionV1.class);
+            }
+            return GameActionV1Codec.decode(data);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException("Cannot deserialize GameActionV1 from topic " + topic, e);
+        }
+    }
+}
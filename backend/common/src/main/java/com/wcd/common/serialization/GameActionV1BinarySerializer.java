@@ -0,0 +1,15 @@
+package com.wcd.common.serialization;
+
+import com.wcd.common.events.GameActionV1;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link GameActionV1} in the {@link GameActionV1Codec} binary layout.
+ */
+public class GameActionV1BinarySerializer implements Serializer<GameActionV1> {
+
+    @Override
+    public byte[] serialize(String topic, GameActionV1 data) {
+        return data == null ? null : GameActionV1Codec.encode(data);
+    }
+}
@@ -0,0 +1,205 @@
+package com.wcd.common.serialization;
+
+import com.wcd.common.events.GameActionV1;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary layout for {@link GameActionV1}.
+ *
+ * <pre>
+ * byte     version (currently 1)
+ * string   userId
+ * string   region
+ * string   matchId
+ * byte     action code (0 = null, 1 = HEARTBEAT, 2 = DRINK, 3 = string follows)
+ * [string] action, only for code 3
+ * varint   amount (zigzag)
+ * varint   timestamp (zigzag)
+ * </pre>
+ *
+ * Strings are a varint of (UTF-8 length + 1) followed by the bytes; 0 encodes null.
+ * Readers ignore bytes after the fields they know, so later versions may only append fields.
+ */
+public final class GameActionV1Codec {
+
+    public static final byte VERSION = 1;
+
+    private static final byte JSON_OBJECT_START = '{';
+    private static final int ACTION_NULL = 0;
+    private static final int ACTION_HEARTBEAT = 1;
+    private static final int ACTION_DRINK = 2;
+    private static final int ACTION_OTHER = 3;
+
+    private GameActionV1Codec() {
+    }
+
+    public static boolean isJson(byte[] data) {
+        return data.length > 0 && data[0] == JSON_OBJECT_START;
+    }
+
+    public static byte[] encode(GameActionV1 event) {
+        byte[] userId = utf8(event.getUserId());
+        byte[] region = utf8(event.getRegion());
+        byte[] matchId = utf8(event.getMatchId());
+        int actionCode = actionCode(event.getAction());
+        byte[] action = actionCode == ACTION_OTHER ? utf8(event.getAction()) : null;
+        long amount = zigzag(event.getAmount());
+        long timestamp = zigzag(event.getTimestamp());
+
+        int size = 1
+            + stringSize(userId) + stringSize(region) + stringSize(matchId)
+            + 1 + (action != null ? stringSize(action) : 0)
+            + varintSize(amount) + varintSize(timestamp);
+
+        Writer writer = new Writer(size);
+        writer.writeByte(VERSION);
+        writer.writeString(userId);
+        writer.writeString(region);
+        writer.writeString(matchId);
+        writer.writeByte(actionCode);
+        if (action != null) {
+            writer.writeString(action);
+        }
+        writer.writeVarint(amount);
+        writer.writeVarint(timestamp);
+        return writer.buffer;
+    }
+
+    public static GameActionV1 decode(byte[] data) {
+        Reader reader = new Reader(data);
+        int version = reader.readByte();
+        if (version < 1 || version == JSON_OBJECT_START) {
+            throw new IllegalArgumentException("Unsupported GameActionV1 binary version: " + version);
+        }
+
+        GameActionV1 event = new GameActionV1();
+        event.setUserId(reader.readString());
+        event.setRegion(reader.readString());
+        event.setMatchId(reader.readString());
+        int actionCode = reader.readByte();
+        event.setAction(switch (actionCode) {
+            case ACTION_NULL -> null;
+            case ACTION_HEARTBEAT -> "HEARTBEAT";
+            case ACTION_DRINK -> "DRINK";
+            case ACTION_OTHER -> reader.readString();
+            default -> throw new IllegalArgumentException("Unknown action code: " + actionCode);
+        });
+        event.setAmount((int) unzigzag(reader.readVarint()));
+        event.setTimestamp(unzigzag(reader.readVarint()));
+        return event;
+    }
+
+    private static int actionCode(String action) {
+        if (action == null) {
+            return ACTION_NULL;
+        }
+        return switch (action) {
+            case "HEARTBEAT" -> ACTION_HEARTBEAT;
+            case "DRINK" -> ACTION_DRINK;
+            default -> ACTION_OTHER;
+        };
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int stringSize(byte[] value) {
+        return value == null ? 1 : varintSize(value.length + 1L) + value.length;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Writer {
+        private final byte[] buffer;
+        private int position;
+
+        private Writer(int size) {
+            this.buffer = new byte[size];
+        }
+
+        private void writeByte(int value) {
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeString(byte[] value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            writeVarint(value.length + 1L);
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        private Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        private int readByte() {
+            ensureAvailable(1);
+            return buffer[position++] & 0xFF;
+        }
+
+        private long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        private String readString() {
+            long encodedLength = readVarint();
+            if (encodedLength == 0) {
+                return null;
+            }
+            if (encodedLength - 1 > buffer.length - position) {
+                throw new IllegalArgumentException("String length exceeds record size");
+            }
+            int length = (int) (encodedLength - 1);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private void ensureAvailable(int bytes) {
+            if (buffer.length - position < bytes) {
+                throw new IllegalArgumentException("Truncated GameActionV1 record");
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.wcd.common.uniques;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis key layout for unique-drinker HyperLogLogs. The projector adds every drinker to a minute
+ * bucket {@code <scope>{yyyyMMddHHmm}} and an hourly rollup {@code <scope>hour:{yyyyMMddHH}}, so
+ * a range query only touches minute keys at its ragged edges. The scope prefix is one of
+ *
+ * <pre>
+ * uniques:                                 all drinkers
+ * uniques:match:{matchId}:                 one match
+ * uniques:region:{region}:                 one region
+ * uniques:match-region:{matchId}:{region}: one match in one region
+ * </pre>
+ *
+ * HyperLogLogs merge losslessly, so a union over several scopes is one PFCOUNT over their keys.
+ * The keys carry no hash tag, so that PFCOUNT needs a single-node Redis: on Redis Cluster a range
+ * spanning several buckets fails with CROSSSLOT.
+ */
+public final class UniquesKeys {
+
+    public static final String PREFIX = "uniques:";
+
+    private static final DateTimeFormatter MINUTE_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyyMMddHHmm").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter HOUR_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyyMMddHH").withZone(ZoneOffset.UTC);
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    private UniquesKeys() {
+    }
+
+    /**
+     * Scope prefix for the given dimensions; either may be null to leave that dimension open.
+     */
+    public static String scope(String matchId, String region) {
+        if (matchId != null && region != null) {
+            return PREFIX + "match-region:" + matchId + ":" + region + ":";
+        }
+        if (matchId != null) {
+            return PREFIX + "match:" + matchId + ":";
+        }
+        if (region != null) {
+            return PREFIX + "region:" + region + ":";
+        }
+        return PREFIX;
+    }
+
+    /**
+     * Every scope a drink by a player in {@code matchId} and {@code region} counts towards.
+     */
+    public static List<String> scopesFor(String matchId, String region) {
+        List<String> scopes = new ArrayList<>(4);
+        scopes.add(PREFIX);
+        if (matchId != null) {
+            scopes.add(scope(matchId, null));
+        }
+        if (region != null) {
+            scopes.add(scope(null, region));
+        }
+        if (matchId != null && region != null) {
+            scopes.add(scope(matchId, region));
+        }
+        return scopes;
+    }
+
+    public static String minuteKey(Instant timestamp) {
+        return minuteKey(PREFIX, timestamp);
+    }
+
+    public static String hourKey(Instant timestamp) {
+        return hourKey(PREFIX, timestamp);
+    }
+
+    public static String minuteKey(String scope, Instant timestamp) {
+        return scope + MINUTE_FORMATTER.format(timestamp);
+    }
+
+    public static String hourKey(String scope, Instant timestamp) {
+        return scope + "hour:" + HOUR_FORMATTER.format(timestamp);
+    }
+
+    /**
+     * Keys covering every minute from the one containing {@code from} to the one containing
+     * {@code to}, inclusive. Whole hours inside the range use the hourly rollup.
+     */
+    public static List<String> rangeKeys(Instant from, Instant to) {
+        return rangeKeys(PREFIX, from, to);
+    }
+
+    public static List<String> rangeKeys(String scope, Instant from, Instant to) {
+        return rangeKeys(scope, from, to, Instant.MIN);
+    }
+
+    /**
+     * As {@link #rangeKeys(String, Instant, Instant)}, but a minute before {@code minuteHorizon}
+     * is read from its hourly rollup, since its own bucket may have expired. That widens such an
+     * edge to its whole hour: a slight overcount instead of silently dropping the partial hour.
+     */
+    public static List<String> rangeKeys(String scope, Instant from, Instant to, Instant minuteHorizon) {
+        Instant minute = from.truncatedTo(ChronoUnit.MINUTES);
+        Instant last = to.truncatedTo(ChronoUnit.MINUTES);
+        List<String> keys = new ArrayList<>();
+        while (!minute.isAfter(last)) {
+            Instant hour = minute.truncatedTo(ChronoUnit.HOURS);
+            Instant hourEnd = hour.plus(HOUR).minus(MINUTE);
+            if ((minute.equals(hour) && !hourEnd.isAfter(last)) || minute.isBefore(minuteHorizon)) {
+                keys.add(hourKey(scope, minute));
+                minute = hour.plus(HOUR);
+            } else {
+                keys.add(minuteKey(scope, minute));
+                minute = minute.plus(MINUTE);
+            }
+        }
+        return keys;
+    }
+}
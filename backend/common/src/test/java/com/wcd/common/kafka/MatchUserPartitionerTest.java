@@ -0,0 +1,78 @@
+package com.wcd.common.kafka;
+
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchUserPartitionerTest {
+
+    private static final int PARTITIONS = 12;
+
+    @Test
+    void matchKeys_StayWithinSpreadOfConsecutivePartitions() {
+        MatchUserPartitioner partitioner = partitioner(3);
+
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            used.add(partition(partitioner, MatchUserPartitioner.key("match-1", "user-" + i)));
+        }
+
+        assertEquals(3, used.size());
+        int first = Utils.toPositive(Utils.murmur2("match-1".getBytes(StandardCharsets.UTF_8))) % PARTITIONS;
+        for (int partition : used) {
+            assertTrue(Math.floorMod(partition - first, PARTITIONS) < 3);
+        }
+    }
+
+    @Test
+    void sameMatchAndUser_AlwaysLandOnSamePartition() {
+        MatchUserPartitioner partitioner = partitioner(4);
+
+        String key = MatchUserPartitioner.key("match-7", "user-42");
+
+        assertEquals(partition(partitioner, key), partition(partitioner, key));
+    }
+
+    @Test
+    void spreadOfOne_PutsWholeMatchOnOnePartition() {
+        MatchUserPartitioner partitioner = partitioner(1);
+
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            used.add(partition(partitioner, MatchUserPartitioner.key("match-1", "user-" + i)));
+        }
+
+        assertEquals(1, used.size());
+    }
+
+    @Test
+    void untaggedKeys_MatchKafkaDefaultPartitioning() {
+        MatchUserPartitioner partitioner = partitioner(4);
+        byte[] keyBytes = "user-42".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(Utils.toPositive(Utils.murmur2(keyBytes)) % PARTITIONS,
+            partitioner.partition("user-42", keyBytes, PARTITIONS));
+    }
+
+    @Test
+    void configure_RejectsSpreadBelowOne() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new MatchUserPartitioner().configure(Map.of(MatchUserPartitioner.MATCH_SPREAD_CONFIG, "0")));
+    }
+
+    private static MatchUserPartitioner partitioner(int spread) {
+        MatchUserPartitioner partitioner = new MatchUserPartitioner();
+        partitioner.configure(Map.of(MatchUserPartitioner.MATCH_SPREAD_CONFIG, String.valueOf(spread)));
+        return partitioner;
+    }
+
+    private static int partition(MatchUserPartitioner partitioner, String key) {
+        return partitioner.partition(key, key.getBytes(StandardCharsets.UTF_8), PARTITIONS);
+    }
+}
@@ -0,0 +1,24 @@
+package com.wcd.common.kafka;
+
+import com.wcd.common.events.GameActionV1;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitioningStrategyTest {
+
+    private final GameActionV1 event = new GameActionV1("user-1", "EU", "match-1", "DRINK", 1, 0L);
+
+    @Test
+    void key_FollowsStrategy() {
+        assertEquals("user-1", PartitioningStrategy.fromProperty("user").key(event));
+        assertEquals("match-1", PartitioningStrategy.fromProperty("match").key(event));
+        assertEquals(MatchUserPartitioner.key("match-1", "user-1"),
+            PartitioningStrategy.fromProperty("match-user").key(event));
+    }
+
+    @Test
+    void fromProperty_UnknownValue_Throws() {
+        assertThrows(IllegalStateException.class, () -> PartitioningStrategy.fromProperty("region"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.wcd.common.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardKeysTest {
+
+    @Test
+    void testSingleShardKeepsUnshardedKey() {
+        assertEquals("leaderboard:match-1", LeaderboardKeys.key("match-1", "user-1", 1));
+        assertEquals(List.of("leaderboard:match-1"), LeaderboardKeys.keys("match-1", 1));
+    }
+
+    @Test
+    void testUserMapsToOneOfTheShardKeys() {
+        List<String> keys = LeaderboardKeys.keys("match-1", 8);
+
+        assertEquals(8, keys.size());
+        assertEquals("leaderboard:match-1:s0", keys.get(0));
+        for (int i = 0; i < 100; i++) {
+            String key = LeaderboardKeys.key("match-1", "user-" + i, 8);
+            assertTrue(keys.contains(key));
+            assertEquals(key, LeaderboardKeys.key("match-1", "user-" + i, 8));
+        }
+    }
+
+    @Test
+    void testSequentialUsersSpreadAcrossShards() {
+        int[] counts = new int[4];
+        for (int i = 0; i < 4000; i++) {
+            counts[LeaderboardKeys.shardOf("user-" + i, 4)]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > 500, "shard too small: " + count);
+        }
+    }
+
+    @Test
+    void testWindowBucketsShareTheMatchHashTag() {
+        List<String> keys = LeaderboardKeys.windowBucketKeys("match-1",
+            Instant.parse("2026-06-14T18:03:30Z"), Instant.parse("2026-06-14T18:05:00Z"));
+
+        assertEquals(List.of(
+            "leaderboard:window:{match-1}:202606141803",
+            "leaderboard:window:{match-1}:202606141804",
+            "leaderboard:window:{match-1}:202606141805"
+        ), keys);
+        assertEquals("leaderboard:window:{match-1}:union:202606141803-202606141805", LeaderboardKeys.windowUnionKey(
+            "match-1", Instant.parse("2026-06-14T18:03:00Z"), Instant.parse("2026-06-14T18:05:00Z")));
+    }
+}
@@ -0,0 +1,32 @@
+package com.wcd.common.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMetricsTest {
+
+    @Test
+    void testRegistersPinningMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        try (VirtualThreadPinningMetrics metrics = new VirtualThreadPinningMetrics(Duration.ofMillis(20))) {
+            metrics.bindTo(registry);
+
+            assertNotNull(registry.find("jvm.threads.virtual.pinned").timer());
+            assertNotNull(registry.find("jvm.threads.virtual.submit.failed").counter());
+        }
+    }
+
+    @Test
+    void testCloseIsIdempotent() {
+        VirtualThreadPinningMetrics metrics = new VirtualThreadPinningMetrics(Duration.ofMillis(20));
+        metrics.bindTo(new SimpleMeterRegistry());
+
+        metrics.close();
+        assertDoesNotThrow(metrics::close);
+    }
+}
@@ -0,0 +1,84 @@
+package com.wcd.common.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wcd.common.events.GameActionV1;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameActionV1BinarySerializerTest {
+
+    private static final String TOPIC = "game.actions";
+
+    private final GameActionV1BinarySerializer serializer = new GameActionV1BinarySerializer();
+    private final GameActionV1BinaryDeserializer deserializer = new GameActionV1BinaryDeserializer();
+
+    @Test
+    void testRoundTrip() {
+        GameActionV1 event = new GameActionV1("user-123", "EU", "match-1", "DRINK", 2, 1_718_000_000_000L);
+
+        byte[] bytes = serializer.serialize(TOPIC, event);
+
+        assertEquals(GameActionV1Codec.VERSION, bytes[0]);
+        assertEquals(event, deserializer.deserialize(TOPIC, bytes));
+    }
+
+    @Test
+    void testRoundTripPreservesNullsNegativesAndCustomActions() {
+        GameActionV1 event = new GameActionV1("user-ü", null, null, "SHOT", -5, 0L);
+
+        assertEquals(event, deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, event)));
+
+        GameActionV1 noAction = new GameActionV1("user-1", "NA", "match-2", null, Integer.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(noAction, deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, noAction)));
+    }
+
+    @Test
+    void testBinaryIsSmallerThanJson() throws Exception {
+        GameActionV1 event = new GameActionV1("user-123", "EU", "match-1", "HEARTBEAT", 0, System.currentTimeMillis());
+
+        byte[] json = new ObjectMapper().writeValueAsBytes(event);
+        byte[] binary = serializer.serialize(TOPIC, event);
+
+        assertTrue(binary.length * 3 < json.length, "binary=" + binary.length + " json=" + json.length);
+    }
+
+    @Test
+    void testFallsBackToJson() {
+        String json = "{\"userId\":\"user-1\",\"region\":\"EU\",\"matchId\":\"match-1\","
+            + "\"action\":\"HEARTBEAT\",\"amount\":0,\"timestamp\":42,\"extra\":true}";
+
+        GameActionV1 event = deserializer.deserialize(TOPIC, json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(new GameActionV1("user-1", "EU", "match-1", "HEARTBEAT", 0, 42L), event);
+    }
+
+    @Test
+    void testIgnoresTrailingBytesFromNewerVersions() {
+        byte[] bytes = serializer.serialize(TOPIC, new GameActionV1("user-1", "EU", "match-1", "DRINK", 1, 42L));
+        byte[] extended = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, extended, 0, bytes.length);
+        extended[0] = 2;
+
+        GameActionV1 event = deserializer.deserialize(TOPIC, extended);
+
+        assertEquals("user-1", event.getUserId());
+        assertEquals(1, event.getAmount());
+    }
+
+    @Test
+    void testRejectsMalformedRecords() {
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, new byte[] {0}));
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, new byte[] {1, 10, 'u'}));
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, new byte[0]));
+    }
+
+    @Test
+    void testNullPassesThrough() {
+        assertNull(serializer.serialize(TOPIC, null));
+        assertNull(deserializer.deserialize(TOPIC, null));
+    }
+}
@@ -0,0 +1,87 @@
+package com.wcd.common.uniques;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UniquesKeysTest {
+
+    @Test
+    void testBucketKeysUseUtc() {
+        Instant timestamp = Instant.parse("2026-06-14T18:05:42Z");
+
+        assertEquals("uniques:202606141805", UniquesKeys.minuteKey(timestamp));
+        assertEquals("uniques:hour:2026061418", UniquesKeys.hourKey(timestamp));
+    }
+
+    @Test
+    void testRangeWithinOneHourUsesMinuteKeys() {
+        List<String> keys = UniquesKeys.rangeKeys(
+            Instant.parse("2026-06-14T18:05:42Z"), Instant.parse("2026-06-14T18:07:00Z"));
+
+        assertEquals(List.of("uniques:202606141805", "uniques:202606141806", "uniques:202606141807"), keys);
+    }
+
+    @Test
+    void testRangeUsesHourlyRollupsForWholeHours() {
+        List<String> keys = UniquesKeys.rangeKeys(
+            Instant.parse("2026-06-14T17:58:00Z"), Instant.parse("2026-06-14T20:01:30Z"));
+
+        assertEquals(List.of(
+            "uniques:202606141758",
+            "uniques:202606141759",
+            "uniques:hour:2026061418",
+            "uniques:hour:2026061419",
+            "uniques:202606142000",
+            "uniques:202606142001"
+        ), keys);
+    }
+
+    @Test
+    void testNinetyMinuteMatchNeedsFewKeys() {
+        List<String> keys = UniquesKeys.rangeKeys(
+            Instant.parse("2026-06-14T18:00:00Z"), Instant.parse("2026-06-14T19:29:59Z"));
+
+        assertEquals(31, keys.size());
+        assertEquals("uniques:hour:2026061418", keys.get(0));
+    }
+
+    @Test
+    void testMinutesBeforeHorizonUseTheirHourlyRollup() {
+        List<String> keys = UniquesKeys.rangeKeys(UniquesKeys.PREFIX,
+            Instant.parse("2026-06-14T17:40:00Z"), Instant.parse("2026-06-14T18:01:00Z"),
+            Instant.parse("2026-06-14T18:00:00Z"));
+
+        assertEquals(List.of("uniques:hour:2026061417", "uniques:202606141800", "uniques:202606141801"), keys);
+    }
+
+    @Test
+    void testEmptyWhenFromAfterTo() {
+        assertTrue(UniquesKeys.rangeKeys(Instant.parse("2026-06-14T18:05:00Z"), Instant.parse("2026-06-14T18:04:00Z")).isEmpty());
+    }
+
+    @Test
+    void testScopesForDrinkCoverAllDimensions() {
+        assertEquals(List.of(
+            "uniques:",
+            "uniques:match:match-1:",
+            "uniques:region:EU:",
+            "uniques:match-region:match-1:EU:"
+        ), UniquesKeys.scopesFor("match-1", "EU"));
+        assertEquals(List.of("uniques:", "uniques:match:match-1:"), UniquesKeys.scopesFor("match-1", null));
+    }
+
+    @Test
+    void testScopedKeysAndRanges() {
+        String scope = UniquesKeys.scope("match-2", null);
+        Instant timestamp = Instant.parse("2026-06-14T18:05:42Z");
+
+        assertEquals("uniques:match:match-2:202606141805", UniquesKeys.minuteKey(scope, timestamp));
+        assertEquals("uniques:match:match-2:hour:2026061418", UniquesKeys.hourKey(scope, timestamp));
+        assertEquals(List.of("uniques:region:NA:hour:2026061418"), UniquesKeys.rangeKeys(
+            UniquesKeys.scope(null, "NA"), Instant.parse("2026-06-14T18:00:00Z"), Instant.parse("2026-06-14T18:59:00Z")));
+    }
+}
@@ -0,0 +1,122 @@
+package com.wcd.ingest.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.wcd.common.events.GameActionV1;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads single-event request bodies (heartbeat, drink) with a streaming parser straight into
+ * {@link GameActionV1}, skipping databind's token buffering and bean introspection on the busiest
+ * endpoints. Unknown fields are ignored, as with the default mapper. Read-only: responses still
+ * go through the regular converters.
+ */
+public class GameActionV1MessageConverter extends AbstractHttpMessageConverter<GameActionV1> {
+
+    private final JsonFactory jsonFactory;
+
+    public GameActionV1MessageConverter(JsonFactory jsonFactory) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.jsonFactory = jsonFactory;
+    }
+
+    public GameActionV1 decode(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            GameActionV1 event = new GameActionV1();
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "userId" -> event.setUserId(text(parser, token));
+                    case "region" -> event.setRegion(text(parser, token));
+                    case "matchId" -> event.setMatchId(text(parser, token));
+                    case "action" -> event.setAction(text(parser, token));
+                    case "amount" -> event.setAmount(intNumber(parser, token));
+                    case "timestamp" -> event.setTimestamp(number(parser, token));
+                    default -> parser.skipChildren();
+                }
+            }
+            return event;
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return GameActionV1.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected GameActionV1 readInternal(Class<? extends GameActionV1> clazz, HttpInputMessage inputMessage)
+        throws IOException {
+        try {
+            return decode(inputMessage.getBody());
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(GameActionV1 event, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("GameActionV1MessageConverter is read-only");
+    }
+
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a string for " + parser.currentName());
+        }
+        return parser.getText();
+    }
+
+    private static int intNumber(JsonParser parser, JsonToken token) throws IOException {
+        long value = number(parser, token);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JsonParseException(parser, "Numeric value out of range of int for " + parser.currentName());
+        }
+        return (int) value;
+    }
+
+    private static long number(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_NUMBER_INT -> parser.getLongValue();
+            case VALUE_NUMBER_FLOAT -> {
+                // Truncated toward zero, like the default mapper's ACCEPT_FLOAT_AS_INT.
+                double value = parser.getDoubleValue();
+                if (!(value >= -0x1p63 && value < 0x1p63)) {
+                    throw new JsonParseException(parser, "Numeric value out of range of long for " + parser.currentName());
+                }
+                yield (long) value;
+            }
+            case VALUE_NULL -> 0;
+            case VALUE_STRING -> {
+                try {
+                    yield Long.parseLong(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw new JsonParseException(parser, "Expected a number for " + parser.currentName());
+                }
+            }
+            default -> throw new JsonParseException(parser, "Expected a number for " + parser.currentName());
+        };
+    }
+}
@@ -1,16 +1,58 @@
 package com.wcd.ingest.config;
 
 import com.wcd.common.events.GameActionV1;
+import com.wcd.common.kafka.MatchUserPartitioner;
+import com.wcd.common.serialization.GameActionV1BinarySerializer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
 
 @Configuration
 public class KafkaProducerConfig {
 
+    @Bean
+    public ProducerFactory<String, GameActionV1> producerFactory(
+        KafkaProperties kafkaProperties,
+        @Value("${wcd.kafka.wire-format:json}") String wireFormat,
+        @Value("${wcd.kafka.partitioning:user}") String partitioning,
+        @Value("${wcd.kafka.match-spread:4}") int matchSpread
+    ) {
+        Map<String, Object> properties = kafkaProperties.buildProducerProperties(null);
+        if ("match-user".equals(partitioning)) {
+            properties.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, MatchUserPartitioner.class);
+            properties.put(MatchUserPartitioner.MATCH_SPREAD_CONFIG, matchSpread);
+        }
+        return new DefaultKafkaProducerFactory<>(
+            properties,
+            new StringSerializer(),
+            valueSerializer(wireFormat)
+        );
+    }
+
     @Bean
     public KafkaTemplate<String, GameActionV1> kafkaTemplate(ProducerFactory<String, GameActionV1> producerFactory) {
         return new KafkaTemplate<>(producerFactory);
     }
+
+    private static Serializer<GameActionV1> valueSerializer(String wireFormat) {
+        return switch (wireFormat) {
+            case "binary" -> new GameActionV1BinarySerializer();
+            case "json" -> {
+                JsonSerializer<GameActionV1> serializer = new JsonSerializer<>();
+                serializer.setAddTypeInfo(false);
+                yield serializer;
+            }
+            default -> throw new IllegalStateException("Unknown wcd.kafka.wire-format: " + wireFormat);
+        };
+    }
 }
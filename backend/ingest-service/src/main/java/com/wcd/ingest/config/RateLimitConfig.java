@@ -1,9 +1,12 @@
 package com.wcd.ingest.config;
 
+import com.wcd.ingest.service.DistributedRateLimiter;
+import com.wcd.ingest.service.KeyedRateLimiter;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Refill;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -21,6 +24,15 @@ public class RateLimitConfig {
     @Value("${wcd.rate-limit.refill-duration-seconds:1}")
     private long refillDurationSeconds;
 
+    @Value("${wcd.rate-limit.local.expire-after-access-seconds:300}")
+    private long localExpireAfterAccessSeconds;
+
+    @Value("${wcd.rate-limit.local.max-keys:100000}")
+    private long localMaxKeys;
+
+    /**
+     * Pod-wide ceiling shared by all callers; the keyed limits below keep one caller from using it up.
+     */
     @Bean
     public Bucket rateLimitBucket() {
         Bandwidth limit = Bandwidth.classic(
@@ -31,4 +43,47 @@ public class RateLimitConfig {
             .addLimit(limit)
             .build();
     }
+
+    @Bean
+    public KeyedRateLimiter apiKeyRateLimiter(
+        @Value("${wcd.rate-limit.api-key.capacity:2000}") long apiKeyCapacity,
+        @Value("${wcd.rate-limit.api-key.refill-tokens:2000}") long apiKeyRefillTokens,
+        @Value("${wcd.rate-limit.api-key.refill-duration-seconds:1}") long apiKeyRefillSeconds
+    ) {
+        return keyedRateLimiter(apiKeyCapacity, apiKeyRefillTokens, apiKeyRefillSeconds);
+    }
+
+    @Bean
+    public KeyedRateLimiter userRateLimiter(
+        @Value("${wcd.rate-limit.user.capacity:100}") long userCapacity,
+        @Value("${wcd.rate-limit.user.refill-tokens:20}") long userRefillTokens,
+        @Value("${wcd.rate-limit.user.refill-duration-seconds:1}") long userRefillSeconds
+    ) {
+        return keyedRateLimiter(userCapacity, userRefillTokens, userRefillSeconds);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "wcd.rate-limit.distributed.enabled", havingValue = "true")
+    public DistributedRateLimiter distributedRateLimiter(
+        @Value("${wcd.rate-limit.distributed.redis-uri}") String redisUri,
+        @Value("${wcd.rate-limit.distributed.capacity:10000}") long clusterCapacity,
+        @Value("${wcd.rate-limit.distributed.refill-tokens:10000}") long clusterRefillTokens,
+        @Value("${wcd.rate-limit.distributed.refill-duration-seconds:1}") long clusterRefillSeconds
+    ) {
+        Bandwidth limit = Bandwidth.classic(
+            clusterCapacity,
+            Refill.greedy(clusterRefillTokens, Duration.ofSeconds(clusterRefillSeconds))
+        );
+        return new DistributedRateLimiter(
+            redisUri, limit, Duration.ofSeconds(localExpireAfterAccessSeconds), localMaxKeys);
+    }
+
+    private KeyedRateLimiter keyedRateLimiter(long bucketCapacity, long bucketRefillTokens, long refillSeconds) {
+        // Greedy refill spreads tokens over the period instead of granting them all at its end.
+        Bandwidth limit = Bandwidth.classic(
+            bucketCapacity,
+            Refill.greedy(bucketRefillTokens, Duration.ofSeconds(refillSeconds))
+        );
+        return new KeyedRateLimiter(limit, Duration.ofSeconds(localExpireAfterAccessSeconds), localMaxKeys);
+    }
 }
@@ -0,0 +1,41 @@
+package com.wcd.ingest.config;
+
+import com.wcd.common.metrics.VirtualThreadPinningMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * With {@code spring.threads.virtual.enabled=true} Tomcat serves requests on virtual threads and
+ * Kafka send callbacks move off the producer's network thread onto virtual threads as well.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    @Bean("kafkaCallbackExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualKafkaCallbackExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("kafka-callback-", 0).factory());
+    }
+
+    @Bean("kafkaCallbackExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor inlineKafkaCallbackExecutor() {
+        // Run callbacks inline on the producer I/O thread, as before.
+        return Runnable::run;
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public VirtualThreadPinningMetrics virtualThreadPinningMetrics(
+        @Value("${wcd.threads.pinning-threshold-ms:20}") long thresholdMs
+    ) {
+        return new VirtualThreadPinningMetrics(Duration.ofMillis(thresholdMs));
+    }
+}
@@ -1,37 +1,57 @@
 package com.wcd.ingest.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wcd.common.events.GameActionV1;
 import com.wcd.ingest.service.EventPublisher;
-import io.github.bucket4j.Bucket;
+import com.wcd.ingest.service.RateLimiter;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/events")
 public class EventController {
 
+    private static final String HEARTBEAT = "HEARTBEAT";
+    private static final String DRINK = "DRINK";
+    // Built once: single-event endpoints answer with the same bytes on every request.
+    private static final ResponseEntity<byte[]> ACCEPTED = ResponseEntity.accepted()
+        .contentType(MediaType.APPLICATION_JSON)
+        .body("{\"status\":\"accepted\"}".getBytes(StandardCharsets.UTF_8));
+
     private final EventPublisher eventPublisher;
-    private final Bucket rateLimitBucket;
+    private final RateLimiter rateLimiter;
     private final String apiKey;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
     private final Counter heartbeatCounter;
     private final Counter drinkCounter;
     private final Counter rejectedCounter;
+    private final Counter batchCounter;
 
     public EventController(
         EventPublisher eventPublisher,
-        Bucket rateLimitBucket,
+        RateLimiter rateLimiter,
         @Value("${wcd.api-key}") String apiKey,
-        MeterRegistry meterRegistry
+        MeterRegistry meterRegistry,
+        ObjectMapper objectMapper,
+        @Value("${wcd.batch.max-size:100}") int maxBatchSize
     ) {
         this.eventPublisher = eventPublisher;
-        this.rateLimitBucket = rateLimitBucket;
+        this.rateLimiter = rateLimiter;
         this.apiKey = apiKey;
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
         this.heartbeatCounter = Counter.builder("wcd.events.heartbeat")
             .description("Total heartbeat events received")
             .register(meterRegistry);
@@ -41,6 +61,9 @@ public class EventController {
         this.rejectedCounter = Counter.builder("wcd.events.rejected")
             .description("Total events rejected")
             .register(meterRegistry);
+        this.batchCounter = Counter.builder("wcd.events.batch")
+            .description("Total event batches received")
+            .register(meterRegistry);
     }
 
     @PostMapping("/heartbeat")
@@ -53,17 +76,20 @@ public class EventController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid API key"));
         }
 
-        if (!rateLimitBucket.tryConsume(1)) {
+        if (!rateLimiter.tryAcquire(providedApiKey, event.getUserId())) {
             rejectedCounter.increment();
             return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", "Rate limit exceeded"));
         }
 
-        event.setAction("HEARTBEAT");
+        event.setAction(HEARTBEAT);
         event.setTimestamp(System.currentTimeMillis());
-        eventPublisher.publish(event);
+        if (!eventPublisher.publish(event)) {
+            rejectedCounter.increment();
+            return publishUnavailable();
+        }
         heartbeatCounter.increment();
 
-        return ResponseEntity.accepted().body(Map.of("status", "accepted"));
+        return ACCEPTED;
     }
 
     @PostMapping("/drink")
@@ -76,16 +102,126 @@ public class EventController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid API key"));
         }
 
-        if (!rateLimitBucket.tryConsume(1)) {
+        if (!rateLimiter.tryAcquire(providedApiKey, event.getUserId())) {
             rejectedCounter.increment();
             return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", "Rate limit exceeded"));
         }
 
-        event.setAction("DRINK");
+        event.setAction(DRINK);
         event.setTimestamp(System.currentTimeMillis());
-        eventPublisher.publish(event);
+        if (!eventPublisher.publish(event)) {
+            rejectedCounter.increment();
+            return publishUnavailable();
+        }
         drinkCounter.increment();
 
-        return ResponseEntity.accepted().body(Map.of("status", "accepted"));
+        return ACCEPTED;
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> batch(
+        @RequestHeader("X-API-KEY") String providedApiKey,
+        @RequestBody List<GameActionV1> events
+    ) {
+        if (!apiKey.equals(providedApiKey)) {
+            rejectedCounter.increment();
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid API key"));
+        }
+
+        return acceptBatch(providedApiKey, events);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> batchNdjson(
+        @RequestHeader("X-API-KEY") String providedApiKey,
+        @RequestBody String body
+    ) {
+        if (!apiKey.equals(providedApiKey)) {
+            rejectedCounter.increment();
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid API key"));
+        }
+
+        List<GameActionV1> events;
+        try {
+            events = objectMapper.readerFor(GameActionV1.class).<GameActionV1>readValues(body).readAll();
+        } catch (IOException e) {
+            rejectedCounter.increment();
+            return ResponseEntity.badRequest().body(Map.of("error", "Malformed NDJSON body"));
+        }
+
+        return acceptBatch(providedApiKey, events);
+    }
+
+    private ResponseEntity<?> acceptBatch(String providedApiKey, List<GameActionV1> events) {
+        if (events == null || events.isEmpty()) {
+            rejectedCounter.increment();
+            return ResponseEntity.badRequest().body(Map.of("error", "Batch is empty"));
+        }
+
+        if (events.size() > maxBatchSize) {
+            rejectedCounter.increment(events.size());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of("error", "Batch exceeds " + maxBatchSize + " events"));
+        }
+
+        for (int i = 0; i < events.size(); i++) {
+            GameActionV1 event = events.get(i);
+            if (event == null) {
+                rejectedCounter.increment(events.size());
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Null event at index " + i));
+            }
+            if (isBlank(event.getUserId()) || isBlank(event.getMatchId())) {
+                rejectedCounter.increment(events.size());
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Missing userId or matchId at index " + i));
+            }
+            String action = event.getAction();
+            if (!HEARTBEAT.equals(action) && !DRINK.equals(action)) {
+                rejectedCounter.increment(events.size());
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Unsupported action at index " + i));
+            }
+        }
+
+        if (!rateLimiter.tryAcquire(providedApiKey, events)) {
+            rejectedCounter.increment(events.size());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", "Rate limit exceeded"));
+        }
+
+        long now = System.currentTimeMillis();
+        for (GameActionV1 event : events) {
+            event.setTimestamp(now);
+        }
+        int published = eventPublisher.publishAll(events);
+        if (published < events.size()) {
+            rateLimiter.refund(providedApiKey, events.subList(published, events.size()));
+            rejectedCounter.increment(events.size() - published);
+        }
+        if (published == 0) {
+            return publishUnavailable();
+        }
+        for (GameActionV1 event : events.subList(0, published)) {
+            (HEARTBEAT.equals(event.getAction()) ? heartbeatCounter : drinkCounter).increment();
+        }
+        batchCounter.increment();
+        if (published < events.size()) {
+            // The first events already went to Kafka; the client must resend only the rest.
+            return ResponseEntity.status(HttpStatus.MULTI_STATUS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("status", "partial", "count", published, "remaining", events.size() - published));
+        }
+
+        return ResponseEntity.accepted().body(Map.of("status", "accepted", "count", events.size()));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private ResponseEntity<?> publishUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of("error", "Event pipeline is saturated"));
     }
 }
@@ -0,0 +1,76 @@
+package com.wcd.ingest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Token buckets kept in Redis, so one quota is shared by every ingest replica. Each call costs a
+ * Redis round-trip, which is why {@link RateLimiter} only consults it after the local buckets pass.
+ */
+public class DistributedRateLimiter implements AutoCloseable {
+
+    private static final String KEY_PREFIX = "rate-limit:";
+
+    private final RedisClient redisClient;
+    private final StatefulRedisConnection<byte[], byte[]> connection;
+    private final ProxyManager<byte[]> proxyManager;
+    private final BucketConfiguration configuration;
+    private final Cache<String, BucketProxy> buckets;
+
+    public DistributedRateLimiter(String redisUri, Bandwidth limit, Duration expireAfterAccess, long maxKeys) {
+        this.redisClient = RedisClient.create(redisUri);
+        this.connection = redisClient.connect(ByteArrayCodec.INSTANCE);
+        this.proxyManager = LettuceBasedProxyManager.builderFor(connection)
+            .withExpirationStrategy(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(Duration.ofSeconds(10)))
+            .build();
+        this.configuration = BucketConfiguration.builder().addLimit(limit).build();
+        this.buckets = Caffeine.newBuilder()
+            .expireAfterAccess(expireAfterAccess)
+            .maximumSize(maxKeys)
+            .build();
+    }
+
+    public boolean tryConsume(String key, long tokens) {
+        return buckets.get(key, this::createBucket).tryConsume(tokens);
+    }
+
+    public void refund(String key, long tokens) {
+        buckets.get(key, this::createBucket).addTokens(tokens);
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+        redisClient.shutdown();
+    }
+
+    private BucketProxy createBucket(String key) {
+        // Keys are API keys, so only a digest of them goes to Redis.
+        byte[] redisKey = (KEY_PREFIX + sha256(key)).getBytes(StandardCharsets.UTF_8);
+        return proxyManager.builder().build(redisKey, () -> configuration);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,12 +1,28 @@
 package com.wcd.ingest.service;
 
 import com.wcd.common.events.GameActionV1;
+import com.wcd.common.kafka.PartitioningStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes events to Kafka with a bounded number of unacknowledged sends. Each record holds a
+ * permit from send until the broker acknowledges it; when none are left, publish returns false
+ * immediately instead of queueing more work behind a slow broker.
+ */
 @Service
 public class EventPublisher {
 
@@ -14,24 +30,106 @@ public class EventPublisher {
 
     private final KafkaTemplate<String, GameActionV1> kafkaTemplate;
     private final String topicName;
+    private final PartitioningStrategy partitioning;
+    private final Executor callbackExecutor;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Timer sendLatency;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
 
     public EventPublisher(
         KafkaTemplate<String, GameActionV1> kafkaTemplate,
-        @Value("${wcd.topic.game-actions}") String topicName
+        @Value("${wcd.topic.game-actions}") String topicName,
+        @Qualifier("kafkaCallbackExecutor") Executor callbackExecutor,
+        MeterRegistry meterRegistry,
+        @Value("${wcd.publish.max-in-flight:10000}") int maxInFlight,
+        @Value("${wcd.kafka.partitioning:user}") String partitioning
     ) {
         this.kafkaTemplate = kafkaTemplate;
         this.topicName = topicName;
+        this.partitioning = PartitioningStrategy.fromProperty(partitioning);
+        this.callbackExecutor = callbackExecutor;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.sendLatency = Timer.builder("wcd.publish.latency")
+            .description("Time from send to broker acknowledgement")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("wcd.publish.rejected")
+            .description("Events refused because too many sends were in flight")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("wcd.publish.failed")
+            .description("Events the producer failed to deliver")
+            .register(meterRegistry);
+        Gauge.builder("wcd.publish.in-flight", this, EventPublisher::inFlightCount)
+            .description("Events sent but not yet acknowledged")
+            .register(meterRegistry);
+    }
+
+    /**
+     * @return false if the event was not accepted because too many sends are in flight or the
+     *     producer refused it
+     */
+    public boolean publish(GameActionV1 event) {
+        if (!inFlight.tryAcquire()) {
+            rejectedCounter.increment();
+            return false;
+        }
+        return send(event);
+    }
+
+    /**
+     * Reserves room for the whole batch up front, so a batch is never cut short by a full window.
+     * The producer can still refuse an event partway through, e.g. when metadata for its partition
+     * is unavailable; the events before it have been sent and cannot be taken back.
+     *
+     * @return how many leading events were handed to the producer: {@code events.size()} when all
+     *     were, 0 when the window was full or the first send was refused
+     */
+    public int publishAll(List<GameActionV1> events) {
+        if (!inFlight.tryAcquire(events.size())) {
+            rejectedCounter.increment(events.size());
+            return 0;
+        }
+        for (int i = 0; i < events.size(); i++) {
+            if (!send(events.get(i))) {
+                // Permits of the events that were never handed to the producer.
+                inFlight.release(events.size() - i - 1);
+                return i;
+            }
+        }
+        return events.size();
+    }
+
+    public int inFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
     }
 
-    public void publish(GameActionV1 event) {
-        String key = event.getUserId();
-        kafkaTemplate.send(topicName, key, event)
-            .whenComplete((result, ex) -> {
-                if (ex != null) {
-                    logger.error("Failed to publish event: {}", event, ex);
-                } else {
-                    logger.debug("Published event: {} to partition {}", event, result.getRecordMetadata().partition());
-                }
-            });
+    private boolean send(GameActionV1 event) {
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(topicName, partitioning.key(event), event)
+                .whenCompleteAsync((result, ex) -> {
+                    inFlight.release();
+                    if (ex != null) {
+                        failedCounter.increment();
+                        logger.error("Failed to publish event: {}", event, ex);
+                    } else {
+                        sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("Published event: {} to partition {}", event, result.getRecordMetadata().partition());
+                        }
+                    }
+                }, callbackExecutor);
+            return true;
+        } catch (RuntimeException e) {
+            // The producer refused the record outright, e.g. max.block.ms elapsed waiting for metadata.
+            inFlight.release();
+            failedCounter.increment();
+            logger.error("Failed to publish event: {}", event, e);
+            return false;
+        }
     }
 }
@@ -0,0 +1,43 @@
+package com.wcd.ingest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+
+import java.time.Duration;
+
+/**
+ * One in-memory token bucket per key. Buckets live in a Caffeine cache and are dropped after
+ * sitting idle, which only forgets keys that would have refilled to full capacity anyway.
+ * Lookups and bucket4j's default local buckets are both lock-free on the hot path.
+ */
+public class KeyedRateLimiter {
+
+    private final Bandwidth limit;
+    private final Cache<String, Bucket> buckets;
+
+    public KeyedRateLimiter(Bandwidth limit, Duration expireAfterAccess, long maxKeys) {
+        this.limit = limit;
+        this.buckets = Caffeine.newBuilder()
+            .expireAfterAccess(expireAfterAccess)
+            .maximumSize(maxKeys)
+            .build();
+    }
+
+    public boolean tryConsume(String key, long tokens) {
+        return bucket(key).tryConsume(tokens);
+    }
+
+    public void refund(String key, long tokens) {
+        bucket(key).addTokens(tokens);
+    }
+
+    public long trackedKeys() {
+        return buckets.estimatedSize();
+    }
+
+    private Bucket bucket(String key) {
+        return buckets.get(key, k -> Bucket.builder().addLimit(limit).build());
+    }
+}
@@ -0,0 +1,162 @@
+package com.wcd.ingest.service;
+
+import com.wcd.common.events.GameActionV1;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Admits events against, in order: the pod-wide ceiling, the caller's API key, each event's user
+ * and, when enabled, the cluster-wide quota in Redis. Tokens taken from earlier limits are handed
+ * back when a later one rejects, so a rejected request costs nobody else quota.
+ */
+@Service
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+    private static final String ANONYMOUS_USER = "anonymous";
+
+    private final Bucket podBucket;
+    private final KeyedRateLimiter apiKeyLimiter;
+    private final KeyedRateLimiter userLimiter;
+    private final DistributedRateLimiter clusterLimiter;
+    private final Counter podRejections;
+    private final Counter apiKeyRejections;
+    private final Counter userRejections;
+    private final Counter clusterRejections;
+    private final Counter clusterErrors;
+
+    public RateLimiter(
+        Bucket rateLimitBucket,
+        @Qualifier("apiKeyRateLimiter") KeyedRateLimiter apiKeyLimiter,
+        @Qualifier("userRateLimiter") KeyedRateLimiter userLimiter,
+        Optional<DistributedRateLimiter> clusterLimiter,
+        MeterRegistry meterRegistry
+    ) {
+        this.podBucket = rateLimitBucket;
+        this.apiKeyLimiter = apiKeyLimiter;
+        this.userLimiter = userLimiter;
+        this.clusterLimiter = clusterLimiter.orElse(null);
+        this.podRejections = rejectionCounter(meterRegistry, "pod");
+        this.apiKeyRejections = rejectionCounter(meterRegistry, "api-key");
+        this.userRejections = rejectionCounter(meterRegistry, "user");
+        this.clusterRejections = rejectionCounter(meterRegistry, "cluster");
+        this.clusterErrors = Counter.builder("wcd.rate-limit.cluster.errors")
+            .description("Cluster quota checks that failed and were allowed through")
+            .register(meterRegistry);
+        Gauge.builder("wcd.rate-limit.keys", apiKeyLimiter, KeyedRateLimiter::trackedKeys)
+            .tag("scope", "api-key")
+            .description("Keys with a local rate-limit bucket")
+            .register(meterRegistry);
+        Gauge.builder("wcd.rate-limit.keys", userLimiter, KeyedRateLimiter::trackedKeys)
+            .tag("scope", "user")
+            .description("Keys with a local rate-limit bucket")
+            .register(meterRegistry);
+    }
+
+    public boolean tryAcquire(String apiKey, String userId) {
+        return tryAcquire(apiKey, Map.of(userKey(userId), 1L), 1);
+    }
+
+    public boolean tryAcquire(String apiKey, List<GameActionV1> events) {
+        return tryAcquire(apiKey, tokensByUser(events), events.size());
+    }
+
+    /**
+     * Hands back the tokens taken for {@code events} by an earlier {@link #tryAcquire(String, List)}
+     * when they were never published, so a retry of the same events is not charged twice.
+     */
+    public void refund(String apiKey, List<GameActionV1> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Map<String, Long> tokensByUser = tokensByUser(events);
+        refund(apiKey, List.copyOf(tokensByUser.entrySet()), events.size());
+        if (clusterLimiter != null) {
+            try {
+                clusterLimiter.refund(apiKey, events.size());
+            } catch (RuntimeException e) {
+                clusterErrors.increment();
+                logger.warn("Cluster rate limit refund failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private boolean tryAcquire(String apiKey, Map<String, Long> tokensByUser, long tokens) {
+        if (!podBucket.tryConsume(tokens)) {
+            podRejections.increment();
+            return false;
+        }
+        if (!apiKeyLimiter.tryConsume(apiKey, tokens)) {
+            podBucket.addTokens(tokens);
+            apiKeyRejections.increment();
+            return false;
+        }
+
+        List<Map.Entry<String, Long>> consumed = new ArrayList<>(tokensByUser.size());
+        for (Map.Entry<String, Long> entry : tokensByUser.entrySet()) {
+            if (!userLimiter.tryConsume(entry.getKey(), entry.getValue())) {
+                refund(apiKey, consumed, tokens);
+                userRejections.increment();
+                return false;
+            }
+            consumed.add(entry);
+        }
+
+        if (clusterLimiter != null && !tryConsumeCluster(apiKey, tokens)) {
+            refund(apiKey, consumed, tokens);
+            clusterRejections.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private boolean tryConsumeCluster(String apiKey, long tokens) {
+        try {
+            return clusterLimiter.tryConsume(apiKey, tokens);
+        } catch (RuntimeException e) {
+            // Fail open: losing Redis must not take ingestion down with it; local limits still apply.
+            clusterErrors.increment();
+            logger.warn("Cluster rate limit check failed, allowing request: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void refund(String apiKey, List<Map.Entry<String, Long>> consumedUsers, long tokens) {
+        for (Map.Entry<String, Long> entry : consumedUsers) {
+            userLimiter.refund(entry.getKey(), entry.getValue());
+        }
+        apiKeyLimiter.refund(apiKey, tokens);
+        podBucket.addTokens(tokens);
+    }
+
+    private static Map<String, Long> tokensByUser(List<GameActionV1> events) {
+        Map<String, Long> tokensByUser = new HashMap<>();
+        for (GameActionV1 event : events) {
+            tokensByUser.merge(userKey(event.getUserId()), 1L, Long::sum);
+        }
+        return tokensByUser;
+    }
+
+    private static String userKey(String userId) {
+        return userId != null ? userId : ANONYMOUS_USER;
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("wcd.rate-limit.rejected")
+            .tag("scope", scope)
+            .description("Requests rejected by a rate limit")
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,84 @@
+package com.wcd.ingest.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wcd.common.events.GameActionV1;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameActionV1MessageConverterTest {
+
+    private final GameActionV1MessageConverter converter =
+        new GameActionV1MessageConverter(new ObjectMapper().getFactory());
+
+    @Test
+    void read_ParsesAllFields() throws Exception {
+        GameActionV1 event = read("{\"userId\":\"user-1\",\"region\":\"EU\",\"matchId\":\"match-1\","
+            + "\"action\":\"DRINK\",\"amount\":2,\"timestamp\":42}");
+
+        assertEquals(new GameActionV1("user-1", "EU", "match-1", "DRINK", 2, 42L), event);
+    }
+
+    @Test
+    void read_IgnoresUnknownFieldsAndNestedValues() throws Exception {
+        GameActionV1 event = read("{\"userId\":\"user-1\",\"device\":{\"os\":\"ios\",\"tags\":[1,2]},"
+            + "\"region\":\"NA\",\"extra\":[{\"a\":1}]}");
+
+        assertEquals("user-1", event.getUserId());
+        assertEquals("NA", event.getRegion());
+        assertNull(event.getMatchId());
+    }
+
+    @Test
+    void read_CoercesLikeTheDefaultMapper() throws Exception {
+        GameActionV1 event = read("{\"userId\":123,\"amount\":\"3\",\"matchId\":null,\"timestamp\":null}");
+
+        assertEquals("123", event.getUserId());
+        assertEquals(3, event.getAmount());
+        assertNull(event.getMatchId());
+        assertEquals(0L, event.getTimestamp());
+    }
+
+    @Test
+    void read_TruncatesFloatsLikeTheDefaultMapper() throws Exception {
+        GameActionV1 event = read("{\"amount\":2.9,\"timestamp\":1.5e3}");
+
+        assertEquals(2, event.getAmount());
+        assertEquals(1500L, event.getTimestamp());
+    }
+
+    @Test
+    void read_RejectsNumbersOutOfRange() {
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"amount\":2147483648}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"amount\":\"-2147483649\"}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"timestamp\":1e30}"));
+    }
+
+    @Test
+    void read_RejectsMalformedBodies() {
+        assertThrows(HttpMessageNotReadableException.class, () -> read("[{\"userId\":\"user-1\"}]"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"userId\":{\"id\":1}}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"amount\":\"lots\"}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"userId\":"));
+    }
+
+    @Test
+    void supportsReadingSingleEventsOnly() {
+        assertTrue(converter.canRead(GameActionV1.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(List.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(GameActionV1.class, MediaType.TEXT_PLAIN));
+        assertFalse(converter.canWrite(GameActionV1.class, MediaType.APPLICATION_JSON));
+    }
+
+    private GameActionV1 read(String json) throws Exception {
+        MockHttpInputMessage message = new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8));
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return converter.read(GameActionV1.class, message);
+    }
+}
@@ -12,6 +12,8 @@ import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -165,4 +167,50 @@ class EventControllerIntegrationTest {
             .andExpect(status().isAccepted());
         // The action should be set to "DRINK" internally
     }
+
+    @Test
+    void batch_WithJsonArray_ReturnsAccepted() throws Exception {
+        GameActionV1 heartbeat = new GameActionV1("user-batch-1", "EU", "match-batch", "HEARTBEAT", 0, 0L);
+        GameActionV1 drink = new GameActionV1("user-batch-2", "NA", "match-batch", "DRINK", 2, 0L);
+
+        mockMvc.perform(post("/api/events/batch")
+                .header("X-API-KEY", apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(heartbeat, drink))))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.status").value("accepted"))
+            .andExpect(jsonPath("$.count").value(2));
+    }
+
+    @Test
+    void batch_WithNdjson_ReturnsAccepted() throws Exception {
+        GameActionV1 heartbeat = new GameActionV1("user-batch-3", "EU", "match-batch", "HEARTBEAT", 0, 0L);
+        GameActionV1 drink = new GameActionV1("user-batch-4", "APAC", "match-batch", "DRINK", 1, 0L);
+        String body = objectMapper.writeValueAsString(heartbeat) + "\n" + objectMapper.writeValueAsString(drink) + "\n";
+
+        mockMvc.perform(post("/api/events/batch")
+                .header("X-API-KEY", apiKey)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.count").value(2));
+    }
+
+    @Test
+    void batch_WithInvalidApiKey_ReturnsUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/events/batch")
+                .header("X-API-KEY", "wrong-api-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void batch_WithEmptyArray_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/events/batch")
+                .header("X-API-KEY", apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+            .andExpect(status().isBadRequest());
+    }
 }
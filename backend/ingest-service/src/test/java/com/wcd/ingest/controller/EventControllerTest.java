@@ -1,42 +1,54 @@
 package com.wcd.ingest.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wcd.common.events.GameActionV1;
 import com.wcd.ingest.service.EventPublisher;
-import io.github.bucket4j.Bucket;
+import com.wcd.ingest.service.RateLimiter;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.*;
 
 class EventControllerTest {
 
     private EventController controller;
     private EventPublisher eventPublisher;
-    private Bucket rateLimitBucket;
+    private RateLimiter rateLimiter;
     private final String validApiKey = "test-api-key";
 
     @BeforeEach
     void setUp() {
         eventPublisher = mock(EventPublisher.class);
-        rateLimitBucket = mock(Bucket.class);
+        when(eventPublisher.publish(any(GameActionV1.class))).thenReturn(true);
+        when(eventPublisher.publishAll(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        rateLimiter = mock(RateLimiter.class);
         SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
         controller = new EventController(
             eventPublisher,
-            rateLimitBucket,
+            rateLimiter,
             validApiKey,
-            meterRegistry
+            meterRegistry,
+            new ObjectMapper(),
+            3
         );
     }
 
     @Test
     void heartbeat_WithValidApiKey_ReturnsAccepted() {
-        when(rateLimitBucket.tryConsume(1)).thenReturn(true);
+        when(rateLimiter.tryAcquire(validApiKey, "user-1")).thenReturn(true);
 
         GameActionV1 event = new GameActionV1();
         event.setUserId("user-1");
@@ -46,6 +58,7 @@ class EventControllerTest {
         ResponseEntity<?> response = controller.heartbeat(validApiKey, event);
 
         assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("{\"status\":\"accepted\"}", new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
         verify(eventPublisher, times(1)).publish(any(GameActionV1.class));
     }
 
@@ -61,7 +74,7 @@ class EventControllerTest {
 
     @Test
     void drink_WithValidApiKey_ReturnsAccepted() {
-        when(rateLimitBucket.tryConsume(1)).thenReturn(true);
+        when(rateLimiter.tryAcquire(validApiKey, "user-1")).thenReturn(true);
 
         GameActionV1 event = new GameActionV1();
         event.setUserId("user-1");
@@ -77,7 +90,7 @@ class EventControllerTest {
 
     @Test
     void drink_WhenRateLimitExceeded_ReturnsTooManyRequests() {
-        when(rateLimitBucket.tryConsume(1)).thenReturn(false);
+        when(rateLimiter.tryAcquire(eq(validApiKey), nullable(String.class))).thenReturn(false);
 
         GameActionV1 event = new GameActionV1();
 
@@ -86,4 +99,170 @@ class EventControllerTest {
         assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
         verify(eventPublisher, never()).publish(any());
     }
+
+    @Test
+    void heartbeat_WhenPublisherSaturated_ReturnsServiceUnavailable() {
+        when(rateLimiter.tryAcquire(validApiKey, "user-1")).thenReturn(true);
+        when(eventPublisher.publish(any(GameActionV1.class))).thenReturn(false);
+
+        ResponseEntity<?> response = controller.heartbeat(validApiKey, createEvent("user-1", null, 0));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    void batch_WhenPublisherSaturated_ReturnsServiceUnavailable() {
+        List<GameActionV1> events = List.of(createEvent("user-1", "DRINK", 1));
+        when(rateLimiter.tryAcquire(validApiKey, events)).thenReturn(true);
+        when(eventPublisher.publishAll(events)).thenReturn(0);
+
+        ResponseEntity<?> response = controller.batch(validApiKey, events);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        verify(rateLimiter).refund(validApiKey, events);
+    }
+
+    @Test
+    void batch_WhenProducerRefusesPartway_ReportsAcceptedPrefixAndRefundsRest() {
+        List<GameActionV1> events = List.of(
+            createEvent("user-1", "DRINK", 1),
+            createEvent("user-2", "DRINK", 1),
+            createEvent("user-3", "DRINK", 1)
+        );
+        when(rateLimiter.tryAcquire(validApiKey, events)).thenReturn(true);
+        when(eventPublisher.publishAll(events)).thenReturn(1);
+
+        ResponseEntity<?> response = controller.batch(validApiKey, events);
+
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        assertEquals(java.util.Map.of("status", "partial", "count", 1, "remaining", 2), response.getBody());
+        verify(rateLimiter).refund(validApiKey, events.subList(1, 3));
+    }
+
+    @Test
+    void batch_WithValidEvents_PublishesOnceAndConsumesTokensOnce() {
+        List<GameActionV1> events = List.of(
+            createEvent("user-1", "HEARTBEAT", 0),
+            createEvent("user-2", "DRINK", 1)
+        );
+        when(rateLimiter.tryAcquire(validApiKey, events)).thenReturn(true);
+
+        ResponseEntity<?> response = controller.batch(validApiKey, events);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(rateLimiter, times(1)).tryAcquire(validApiKey, events);
+        verify(eventPublisher, times(1)).publishAll(events);
+    }
+
+    @Test
+    void batch_WithInvalidApiKey_ReturnsUnauthorized() {
+        ResponseEntity<?> response = controller.batch("wrong-key", List.of(createEvent("user-1", "DRINK", 1)));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(eventPublisher, never()).publishAll(anyList());
+    }
+
+    @Test
+    void batch_WhenRateLimitExceeded_ReturnsTooManyRequests() {
+        when(rateLimiter.tryAcquire(eq(validApiKey), anyList())).thenReturn(false);
+
+        ResponseEntity<?> response = controller.batch(validApiKey, List.of(createEvent("user-1", "DRINK", 1)));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        verify(eventPublisher, never()).publishAll(anyList());
+    }
+
+    @Test
+    void batch_WithUnknownAction_ReturnsBadRequest() {
+        List<GameActionV1> events = List.of(
+            createEvent("user-1", "DRINK", 1),
+            createEvent("user-2", "UNKNOWN", 0)
+        );
+
+        ResponseEntity<?> response = controller.batch(validApiKey, events);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(rateLimiter, never()).tryAcquire(anyString(), anyList());
+        verify(eventPublisher, never()).publishAll(anyList());
+    }
+
+    @Test
+    void batch_WithNullElement_ReturnsBadRequestNamingIndex() {
+        List<GameActionV1> events = new java.util.ArrayList<>();
+        events.add(createEvent("user-1", "DRINK", 1));
+        events.add(null);
+
+        ResponseEntity<?> response = controller.batch(validApiKey, events);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(java.util.Map.of("error", "Null event at index 1"), response.getBody());
+        verify(eventPublisher, never()).publishAll(anyList());
+    }
+
+    @Test
+    void batch_WithMissingUserId_ReturnsBadRequest() {
+        List<GameActionV1> events = List.of(createEvent(null, "DRINK", 1));
+
+        ResponseEntity<?> response = controller.batch(validApiKey, events);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(rateLimiter, never()).tryAcquire(anyString(), anyList());
+        verify(eventPublisher, never()).publishAll(anyList());
+    }
+
+    @Test
+    void batchNdjson_WithNullLine_ReturnsBadRequest() {
+        String body = "{\"userId\":\"user-1\",\"matchId\":\"match-1\",\"action\":\"DRINK\"}\nnull\n";
+
+        ResponseEntity<?> response = controller.batchNdjson(validApiKey, body);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(eventPublisher, never()).publishAll(anyList());
+    }
+
+    @Test
+    void batch_OverMaxSize_ReturnsPayloadTooLarge() {
+        List<GameActionV1> events = List.of(
+            createEvent("user-1", "DRINK", 1),
+            createEvent("user-2", "DRINK", 1),
+            createEvent("user-3", "DRINK", 1),
+            createEvent("user-4", "DRINK", 1)
+        );
+
+        ResponseEntity<?> response = controller.batch(validApiKey, events);
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+        verify(eventPublisher, never()).publishAll(anyList());
+    }
+
+    @Test
+    void batchNdjson_ParsesOneEventPerLine() {
+        when(rateLimiter.tryAcquire(eq(validApiKey), anyList())).thenReturn(true);
+        String body = "{\"userId\":\"user-1\",\"matchId\":\"match-1\",\"action\":\"HEARTBEAT\"}\n"
+            + "{\"userId\":\"user-2\",\"matchId\":\"match-1\",\"action\":\"DRINK\",\"amount\":2}\n";
+
+        ResponseEntity<?> response = controller.batchNdjson(validApiKey, body);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(eventPublisher, times(1)).publishAll(anyList());
+    }
+
+    @Test
+    void batchNdjson_WithMalformedLine_ReturnsBadRequest() {
+        ResponseEntity<?> response = controller.batchNdjson(validApiKey, "{\"userId\":\"user-1\"}\n{ invalid");
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(eventPublisher, never()).publishAll(anyList());
+    }
+
+    private GameActionV1 createEvent(String userId, String action, int amount) {
+        GameActionV1 event = new GameActionV1();
+        event.setUserId(userId);
+        event.setRegion("EU");
+        event.setMatchId("match-1");
+        event.setAction(action);
+        event.setAmount(amount);
+        return event;
+    }
 }
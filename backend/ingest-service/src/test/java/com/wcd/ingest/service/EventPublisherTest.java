@@ -1,6 +1,7 @@
 package com.wcd.ingest.service;
 
 import com.wcd.common.events.GameActionV1;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.TopicPartition;
@@ -13,6 +14,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,11 +30,13 @@ class EventPublisherTest {
     private KafkaTemplate<String, GameActionV1> kafkaTemplate;
 
     private EventPublisher eventPublisher;
+    private SimpleMeterRegistry meterRegistry;
     private static final String TOPIC_NAME = "game-actions";
 
     @BeforeEach
     void setUp() {
-        eventPublisher = new EventPublisher(kafkaTemplate, TOPIC_NAME);
+        meterRegistry = new SimpleMeterRegistry();
+        eventPublisher = new EventPublisher(kafkaTemplate, TOPIC_NAME, Runnable::run, meterRegistry, 10, "user");
     }
 
     @Test
@@ -59,6 +64,34 @@ class EventPublisherTest {
         assertEquals(userId, keyCaptor.getValue());
     }
 
+    @Test
+    void publish_MatchPartitioning_UsesMatchIdAsKey() {
+        eventPublisher = new EventPublisher(kafkaTemplate, TOPIC_NAME, Runnable::run, meterRegistry, 10, "match");
+        GameActionV1 event = createTestEvent("user-456", "NA", "match-2", "DRINK");
+        when(kafkaTemplate.send(eq(TOPIC_NAME), eq("match-2"), eq(event))).thenReturn(new CompletableFuture<>());
+
+        eventPublisher.publish(event);
+
+        verify(kafkaTemplate).send(TOPIC_NAME, "match-2", event);
+    }
+
+    @Test
+    void publish_MatchUserPartitioning_TagsMatchInKey() {
+        eventPublisher = new EventPublisher(kafkaTemplate, TOPIC_NAME, Runnable::run, meterRegistry, 10, "match-user");
+        GameActionV1 event = createTestEvent("user-456", "NA", "match-2", "DRINK");
+        when(kafkaTemplate.send(eq(TOPIC_NAME), eq("{match-2}user-456"), eq(event))).thenReturn(new CompletableFuture<>());
+
+        eventPublisher.publish(event);
+
+        verify(kafkaTemplate).send(TOPIC_NAME, "{match-2}user-456", event);
+    }
+
+    @Test
+    void constructor_RejectsUnknownPartitioning() {
+        assertThrows(IllegalStateException.class,
+            () -> new EventPublisher(kafkaTemplate, TOPIC_NAME, Runnable::run, meterRegistry, 10, "region"));
+    }
+
     @Test
     void publish_HandlesSuccessfulSend() {
         GameActionV1 event = createTestEvent("user-789", "APAC", "match-3", "HEARTBEAT");
@@ -121,6 +154,118 @@ class EventPublisherTest {
         verify(kafkaTemplate, times(3)).send(eq(TOPIC_NAME), anyString(), any(GameActionV1.class));
     }
 
+    @Test
+    void publishAll_SendsEveryEventKeyedByUserId() {
+        GameActionV1 event1 = createTestEvent("user-1", "EU", "match-1", "HEARTBEAT");
+        GameActionV1 event2 = createTestEvent("user-2", "NA", "match-1", "DRINK");
+
+        CompletableFuture<SendResult<String, GameActionV1>> future = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq(TOPIC_NAME), anyString(), any(GameActionV1.class))).thenReturn(future);
+
+        eventPublisher.publishAll(List.of(event1, event2));
+
+        verify(kafkaTemplate).send(TOPIC_NAME, "user-1", event1);
+        verify(kafkaTemplate).send(TOPIC_NAME, "user-2", event2);
+    }
+
+    @Test
+    void publish_RunsCallbackOnCallbackExecutor() {
+        List<Runnable> callbacks = new ArrayList<>();
+        eventPublisher = new EventPublisher(kafkaTemplate, TOPIC_NAME, callbacks::add, meterRegistry, 10, "user");
+        GameActionV1 event = createTestEvent("user-1", "EU", "match-1", "HEARTBEAT");
+        CompletableFuture<SendResult<String, GameActionV1>> future = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq(TOPIC_NAME), eq("user-1"), eq(event))).thenReturn(future);
+
+        eventPublisher.publish(event);
+        future.completeExceptionally(new RuntimeException("Kafka unavailable"));
+
+        assertEquals(1, callbacks.size());
+    }
+
+    @Test
+    void publish_RejectsWhenTooManySendsInFlight() {
+        eventPublisher = new EventPublisher(kafkaTemplate, TOPIC_NAME, Runnable::run, meterRegistry, 2, "user");
+        CompletableFuture<SendResult<String, GameActionV1>> future = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq(TOPIC_NAME), anyString(), any(GameActionV1.class))).thenReturn(future);
+
+        assertTrue(eventPublisher.publish(createTestEvent("user-1", "EU", "match-1", "HEARTBEAT")));
+        assertTrue(eventPublisher.publish(createTestEvent("user-2", "EU", "match-1", "HEARTBEAT")));
+        assertFalse(eventPublisher.publish(createTestEvent("user-3", "EU", "match-1", "HEARTBEAT")));
+
+        assertEquals(2, eventPublisher.inFlightCount());
+        assertEquals(1.0, meterRegistry.get("wcd.publish.rejected").counter().count());
+        verify(kafkaTemplate, times(2)).send(eq(TOPIC_NAME), anyString(), any(GameActionV1.class));
+    }
+
+    @Test
+    void publish_ReleasesCapacityWhenSendCompletes() {
+        eventPublisher = new EventPublisher(kafkaTemplate, TOPIC_NAME, Runnable::run, meterRegistry, 1, "user");
+        GameActionV1 event = createTestEvent("user-1", "EU", "match-1", "DRINK");
+        CompletableFuture<SendResult<String, GameActionV1>> future = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq(TOPIC_NAME), anyString(), any(GameActionV1.class))).thenReturn(future);
+
+        assertTrue(eventPublisher.publish(event));
+        future.complete(new SendResult<>(new ProducerRecord<>(TOPIC_NAME, "user-1", event),
+            new RecordMetadata(new TopicPartition(TOPIC_NAME, 0), 0, 0, 0, 0, 0)));
+
+        assertEquals(0, eventPublisher.inFlightCount());
+        assertEquals(1, meterRegistry.get("wcd.publish.latency").timer().count());
+        assertTrue(eventPublisher.publish(event));
+    }
+
+    @Test
+    void publish_CountsFailedSendsAndReleasesCapacity() {
+        GameActionV1 event = createTestEvent("user-1", "EU", "match-1", "DRINK");
+        CompletableFuture<SendResult<String, GameActionV1>> future = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq(TOPIC_NAME), anyString(), any(GameActionV1.class))).thenReturn(future);
+
+        eventPublisher.publish(event);
+        future.completeExceptionally(new RuntimeException("Kafka unavailable"));
+
+        assertEquals(0, eventPublisher.inFlightCount());
+        assertEquals(1.0, meterRegistry.get("wcd.publish.failed").counter().count());
+    }
+
+    @Test
+    void publish_ReturnsFalseWhenProducerRefusesRecord() {
+        when(kafkaTemplate.send(eq(TOPIC_NAME), anyString(), any(GameActionV1.class)))
+            .thenThrow(new RuntimeException("Topic not present in metadata after 500 ms"));
+
+        assertFalse(eventPublisher.publish(createTestEvent("user-1", "EU", "match-1", "DRINK")));
+        assertEquals(0, eventPublisher.inFlightCount());
+    }
+
+    @Test
+    void publishAll_RejectsWholeBatchWhenItDoesNotFit() {
+        eventPublisher = new EventPublisher(kafkaTemplate, TOPIC_NAME, Runnable::run, meterRegistry, 2, "user");
+        List<GameActionV1> events = List.of(
+            createTestEvent("user-1", "EU", "match-1", "DRINK"),
+            createTestEvent("user-2", "EU", "match-1", "DRINK"),
+            createTestEvent("user-3", "EU", "match-1", "DRINK")
+        );
+
+        assertEquals(0, eventPublisher.publishAll(events));
+
+        verifyNoInteractions(kafkaTemplate);
+        assertEquals(0, eventPublisher.inFlightCount());
+    }
+
+    @Test
+    void publishAll_ProducerRefusalPartway_ReturnsSentPrefixAndReleasesRest() {
+        eventPublisher = new EventPublisher(kafkaTemplate, TOPIC_NAME, Runnable::run, meterRegistry, 10, "user");
+        GameActionV1 sent = createTestEvent("user-1", "EU", "match-1", "DRINK");
+        GameActionV1 refused = createTestEvent("user-2", "EU", "match-1", "DRINK");
+        when(kafkaTemplate.send(TOPIC_NAME, "user-1", sent)).thenReturn(new CompletableFuture<>());
+        when(kafkaTemplate.send(TOPIC_NAME, "user-2", refused))
+            .thenThrow(new RuntimeException("Topic not present in metadata after 500 ms"));
+
+        int published = eventPublisher.publishAll(List.of(sent, refused, createTestEvent("user-3", "EU", "match-1", "DRINK")));
+
+        assertEquals(1, published);
+        assertEquals(1, eventPublisher.inFlightCount());
+        verify(kafkaTemplate, times(2)).send(eq(TOPIC_NAME), anyString(), any(GameActionV1.class));
+    }
+
     private GameActionV1 createTestEvent(String userId, String region, String matchId, String action) {
         GameActionV1 event = new GameActionV1();
         event.setUserId(userId);
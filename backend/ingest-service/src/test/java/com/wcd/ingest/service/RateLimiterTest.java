@@ -0,0 +1,147 @@
+package com.wcd.ingest.service;
+
+import com.wcd.common.events.GameActionV1;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RateLimiterTest {
+
+    private static final String API_KEY = "test-api-key";
+
+    private SimpleMeterRegistry meterRegistry;
+    private Bucket podBucket;
+    private KeyedRateLimiter apiKeyLimiter;
+    private KeyedRateLimiter userLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        podBucket = Bucket.builder().addLimit(limit(100)).build();
+        apiKeyLimiter = new KeyedRateLimiter(limit(10), Duration.ofMinutes(5), 1000);
+        userLimiter = new KeyedRateLimiter(limit(3), Duration.ofMinutes(5), 1000);
+    }
+
+    @Test
+    void tryAcquire_LimitsEachUserIndependently() {
+        RateLimiter rateLimiter = rateLimiter(Optional.empty());
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire(API_KEY, "noisy-user"));
+        }
+        assertFalse(rateLimiter.tryAcquire(API_KEY, "noisy-user"));
+        assertTrue(rateLimiter.tryAcquire(API_KEY, "quiet-user"));
+        assertEquals(1.0, meterRegistry.get("wcd.rate-limit.rejected").tag("scope", "user").counter().count());
+    }
+
+    @Test
+    void tryAcquire_LimitsEachApiKeyIndependently() {
+        RateLimiter rateLimiter = rateLimiter(Optional.empty());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(rateLimiter.tryAcquire("key-a", "user-" + i));
+        }
+        assertFalse(rateLimiter.tryAcquire("key-a", "user-10"));
+        assertTrue(rateLimiter.tryAcquire("key-b", "user-10"));
+    }
+
+    @Test
+    void tryAcquire_BatchChargesEachUserForTheirEvents() {
+        RateLimiter rateLimiter = rateLimiter(Optional.empty());
+        List<GameActionV1> batch = List.of(event("user-1"), event("user-1"), event("user-2"));
+
+        assertTrue(rateLimiter.tryAcquire(API_KEY, batch));
+        assertTrue(rateLimiter.tryAcquire(API_KEY, "user-1"));
+        assertFalse(rateLimiter.tryAcquire(API_KEY, "user-1"));
+    }
+
+    @Test
+    void tryAcquire_RefundsEarlierLimitsWhenUserRejects() {
+        RateLimiter rateLimiter = rateLimiter(Optional.empty());
+        List<GameActionV1> batch = List.of(event("user-1"), event("user-2"), event("user-2"),
+            event("user-2"), event("user-2"));
+
+        assertFalse(rateLimiter.tryAcquire(API_KEY, batch));
+
+        // Nothing from the rejected batch was kept: user-1 and the API key still have full quota.
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire(API_KEY, "user-1"));
+        }
+        assertEquals(97, podBucket.getAvailableTokens());
+    }
+
+    @Test
+    void tryAcquire_RejectsWhenClusterQuotaExhausted() {
+        DistributedRateLimiter clusterLimiter = mock(DistributedRateLimiter.class);
+        when(clusterLimiter.tryConsume(API_KEY, 1)).thenReturn(false);
+        RateLimiter rateLimiter = rateLimiter(Optional.of(clusterLimiter));
+
+        assertFalse(rateLimiter.tryAcquire(API_KEY, "user-1"));
+        assertEquals(100, podBucket.getAvailableTokens());
+        assertEquals(1.0, meterRegistry.get("wcd.rate-limit.rejected").tag("scope", "cluster").counter().count());
+    }
+
+    @Test
+    void tryAcquire_AllowsWhenClusterCheckFails() {
+        DistributedRateLimiter clusterLimiter = mock(DistributedRateLimiter.class);
+        when(clusterLimiter.tryConsume(anyString(), anyLong())).thenThrow(new RuntimeException("Redis down"));
+        RateLimiter rateLimiter = rateLimiter(Optional.of(clusterLimiter));
+
+        assertTrue(rateLimiter.tryAcquire(API_KEY, "user-1"));
+        assertEquals(1.0, meterRegistry.get("wcd.rate-limit.cluster.errors").counter().count());
+    }
+
+    @Test
+    void tryAcquire_SkipsClusterCheckWhenLocalLimitRejects() {
+        DistributedRateLimiter clusterLimiter = mock(DistributedRateLimiter.class);
+        RateLimiter rateLimiter = rateLimiter(Optional.of(clusterLimiter));
+        when(clusterLimiter.tryConsume(anyString(), anyLong())).thenReturn(true);
+
+        for (int i = 0; i < 4; i++) {
+            rateLimiter.tryAcquire(API_KEY, "user-1");
+        }
+
+        verify(clusterLimiter, times(3)).tryConsume(API_KEY, 1);
+    }
+
+    @Test
+    void refund_ReturnsTokensOfUnpublishedEvents() {
+        DistributedRateLimiter clusterLimiter = mock(DistributedRateLimiter.class);
+        when(clusterLimiter.tryConsume(anyString(), anyLong())).thenReturn(true);
+        RateLimiter rateLimiter = rateLimiter(Optional.of(clusterLimiter));
+        List<GameActionV1> batch = List.of(event("user-1"), event("user-1"), event("user-1"));
+        assertTrue(rateLimiter.tryAcquire(API_KEY, batch));
+
+        rateLimiter.refund(API_KEY, batch.subList(1, 3));
+
+        assertEquals(99, podBucket.getAvailableTokens());
+        assertTrue(rateLimiter.tryAcquire(API_KEY, "user-1"));
+        assertTrue(rateLimiter.tryAcquire(API_KEY, "user-1"));
+        assertFalse(rateLimiter.tryAcquire(API_KEY, "user-1"));
+        verify(clusterLimiter).refund(API_KEY, 2);
+    }
+
+    private RateLimiter rateLimiter(Optional<DistributedRateLimiter> clusterLimiter) {
+        return new RateLimiter(podBucket, apiKeyLimiter, userLimiter, clusterLimiter, meterRegistry);
+    }
+
+    private static Bandwidth limit(long capacity) {
+        return Bandwidth.classic(capacity, Refill.intervally(capacity, Duration.ofMinutes(1)));
+    }
+
+    private static GameActionV1 event(String userId) {
+        return new GameActionV1(userId, "EU", "match-1", "DRINK", 1, 0L);
+    }
+}
@@ -0,0 +1,32 @@
+package com.wcd.projector.actuator;
+
+import com.wcd.projector.service.DeadLetterReplayService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code POST /actuator/deadletters} with an optional {@code {"maxRecords": n}} body replays
+ * dead-lettered events into the main topic.
+ */
+@Component
+@Endpoint(id = "deadletters")
+public class DeadLetterEndpoint {
+
+    private static final int DEFAULT_MAX_RECORDS = 10_000;
+
+    private final DeadLetterReplayService replayService;
+
+    public DeadLetterEndpoint(DeadLetterReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(@Nullable Integer maxRecords) {
+        int limit = maxRecords != null ? maxRecords : DEFAULT_MAX_RECORDS;
+        return Map.of("replayed", replayService.replay(limit));
+    }
+}
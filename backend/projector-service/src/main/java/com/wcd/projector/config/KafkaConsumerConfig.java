@@ -1,8 +1,23 @@
 package com.wcd.projector.config;
 
 import com.wcd.common.events.GameActionV1;
+import com.wcd.common.serialization.GameActionV1BinaryDeserializer;
+import com.wcd.projector.service.IdempotentLeaderboardWriter;
+import com.wcd.projector.service.LeaderboardAggregator;
+import com.wcd.projector.service.LeaderboardEngine;
+import com.wcd.projector.service.RetryPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,35 +25,73 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @EnableKafka
 @Configuration
 public class KafkaConsumerConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(KafkaConsumerConfig.class);
+    private static final Duration PARTITION_LOOKUP_TIMEOUT = Duration.ofSeconds(5);
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${wcd.topic.game-actions}")
+    private String gameActionsTopic;
+
+    @Value("${wcd.projector.listener.concurrency:0}")
+    private int configuredConcurrency;
+
+    @Value("${wcd.projector.listener.threads-per-processor:2}")
+    private int threadsPerProcessor;
+
+    @Value("${wcd.projector.batch.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
+    @Value("${wcd.kafka.wire-format:json}")
+    private String wireFormat;
+
+    @Value("${wcd.projector.retry.initial-interval-ms:100}")
+    private long retryInitialIntervalMs;
+
+    @Value("${wcd.projector.retry.max-interval-ms:5000}")
+    private long retryMaxIntervalMs;
+
+    @Value("${wcd.projector.retry.max-elapsed-ms:300000}")
+    private long retryMaxElapsedMs;
+
+    private final MeterRegistry meterRegistry;
+    private Integer listenerConcurrency;
+
+    public KafkaConsumerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
     public ConsumerFactory<String, GameActionV1> consumerFactory() {
-        Map<String, Object> config = new HashMap<>();
-        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
-
-        JsonDeserializer<GameActionV1> deserializer = new JsonDeserializer<>(GameActionV1.class);
-        deserializer.setRemoveTypeHeaders(false);
-        deserializer.addTrustedPackages("com.wcd.common.events");
-        deserializer.setUseTypeMapperForKey(false);
+        return createConsumerFactory(consumerConfig());
+    }
 
-        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(), deserializer);
+    @Bean
+    public ConsumerFactory<String, GameActionV1> batchConsumerFactory() {
+        Map<String, Object> config = consumerConfig();
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxPollRecords);
+        return createConsumerFactory(config);
     }
 
     @Bean
@@ -46,7 +99,186 @@ public class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, GameActionV1> factory =
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
-        factory.setConcurrency(3);
+        factory.setConcurrency(listenerConcurrency());
+        return factory;
+    }
+
+    /**
+     * Record listener whose records finish on dispatcher lanes, out of order. Async acks let the
+     * container commit only the contiguous run of acknowledged offsets; it stops delivering new
+     * records until every record of the previous poll has been acknowledged, so it polls as many
+     * records as the batch listener to give the lanes enough distinct keys per poll.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, GameActionV1> parallelKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, GameActionV1> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setConcurrency(listenerConcurrency());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setAsyncAcks(true);
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, GameActionV1> batchKafkaListenerContainerFactory(
+        ObjectProvider<LeaderboardAggregator> aggregator,
+        ObjectProvider<IdempotentLeaderboardWriter> idempotentWriter,
+        ObjectProvider<LeaderboardEngine> engine,
+        RetryPublisher retryPublisher
+    ) {
+        ConcurrentKafkaListenerContainerFactory<String, GameActionV1> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setConcurrency(listenerConcurrency());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        boolean retryUntilApplied = idempotentWriter.getIfAvailable() != null || engine.getIfAvailable() != null;
+        factory.setCommonErrorHandler(batchErrorHandler(retryUntilApplied, retryPublisher));
+        aggregator.ifAvailable(leaderboardAggregator ->
+            factory.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+                @Override
+                public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                    leaderboardAggregator.flush();
+                }
+            }));
+        idempotentWriter.ifAvailable(writer ->
+            factory.getContainerProperties().setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+                @Override
+                public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                    Map<TopicPartition, Long> positions = new HashMap<>();
+                    for (TopicPartition partition : partitions) {
+                        positions.put(partition, consumer.position(partition));
+                    }
+                    writer.reconcile(positions);
+                }
+            }));
+        engine.ifAvailable(leaderboardEngine ->
+            factory.getContainerProperties().setConsumerRebalanceListener(engineRebalanceListener(leaderboardEngine)));
+        return factory;
+    }
+
+    /**
+     * The configured thread count, or one sized from the topic's partitions and the pod's
+     * processors; looked up once for both container factories.
+     */
+    private synchronized int listenerConcurrency() {
+        if (listenerConcurrency == null) {
+            listenerConcurrency = configuredConcurrency > 0
+                ? configuredConcurrency
+                : ListenerConcurrency.resolve(partitionCount(), Runtime.getRuntime().availableProcessors(), threadsPerProcessor);
+            logger.info("Using {} listener threads for {}", listenerConcurrency, gameActionsTopic);
+        }
+        return listenerConcurrency;
+    }
+
+    private int partitionCount() {
+        try (Consumer<String, GameActionV1> consumer = consumerFactory().createConsumer()) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(gameActionsTopic, PARTITION_LOOKUP_TIMEOUT);
+            return partitions != null ? partitions.size() : 0;
+        } catch (KafkaException e) {
+            logger.warn("Could not look up partitions of {}; sizing listener threads from processors only",
+                gameActionsTopic, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Hands revoked partitions' scores to Redis before the commit, and moves newly assigned
+     * partitions to the offset after the engine's checkpoint instead of the committed offset.
+     * Partitions without a checkpoint stay at the committed offset and are adopted there; seeking
+     * them to the beginning would replace the existing leaderboard totals with partial sums.
+     */
+    private ConsumerAwareRebalanceListener engineRebalanceListener(LeaderboardEngine engine) {
+        return new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                engine.release(partitions);
+            }
+
+            @Override
+            public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                engine.discard(partitions);
+            }
+
+            @Override
+            public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                Map<TopicPartition, Long> positions = engine.restore(partitions);
+                positions.forEach(consumer::seek);
+                Map<TopicPartition, Long> unseen = new HashMap<>();
+                for (TopicPartition partition : partitions) {
+                    if (!positions.containsKey(partition)) {
+                        unseen.put(partition, consumer.position(partition));
+                    }
+                }
+                if (!unseen.isEmpty()) {
+                    engine.adopt(unseen);
+                }
+            }
+        };
+    }
+
+    /**
+     * A batch that throws is sought back and redelivered with exponential backoff, e.g. while Redis
+     * is unavailable. Exceptions escape the listener in idempotent and engine leaderboard modes, and
+     * in the other modes only when a failed batch could not be forwarded to the retry topic.
+     *
+     * <p>Idempotent and engine modes retry until the batch is applied, so a long Redis outage
+     * shows up as consumer lag instead of lost increments. The other modes give up after
+     * {@code max-elapsed-ms} and dead-letter the batch's records, to be replayed once Redis is back;
+     * in direct mode the batch may have been partly applied, so a replay can count some drinks twice.
+     */
+    private DefaultErrorHandler batchErrorHandler(boolean retryUntilApplied, RetryPublisher retryPublisher) {
+        ExponentialBackOff backOff = new ExponentialBackOff(retryInitialIntervalMs, 2.0);
+        backOff.setMaxInterval(retryMaxIntervalMs);
+        if (retryUntilApplied) {
+            return new DefaultErrorHandler(backOff);
+        }
+        backOff.setMaxElapsedTime(retryMaxElapsedMs);
+        return new DefaultErrorHandler((record, e) -> {
+            if (record.value() instanceof GameActionV1 event) {
+                String key = record.key() instanceof String text ? text : null;
+                retryPublisher.deadLetter(
+                    new ConsumerRecord<>(record.topic(), record.partition(), record.offset(), key, event),
+                    "Projection failed after retries: " + e.getMessage());
+            }
+        }, backOff);
+    }
+
+    private Map<String, Object> consumerConfig() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // The listener container commits, and only after the Redis writes for the records succeeded.
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return config;
+    }
+
+    /**
+     * Every consumer's client metrics are bound to the registry, including
+     * {@code kafka.consumer.fetch.manager.records.lag} per topic and partition, which the
+     * autoscalers and dashboards read.
+     */
+    private ConsumerFactory<String, GameActionV1> createConsumerFactory(Map<String, Object> config) {
+        DefaultKafkaConsumerFactory<String, GameActionV1> factory =
+            new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(), valueDeserializer());
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
         return factory;
     }
+
+    private Deserializer<GameActionV1> valueDeserializer() {
+        return switch (wireFormat) {
+            // The binary deserializer still reads JSON records, so consumers can switch before producers.
+            case "binary" -> new GameActionV1BinaryDeserializer();
+            case "json" -> {
+                JsonDeserializer<GameActionV1> deserializer = new JsonDeserializer<>(GameActionV1.class);
+                deserializer.setRemoveTypeHeaders(false);
+                deserializer.addTrustedPackages("com.wcd.common.events");
+                deserializer.setUseTypeMapperForKey(false);
+                yield deserializer;
+            }
+            default -> throw new IllegalStateException("Unknown wcd.kafka.wire-format: " + wireFormat);
+        };
+    }
 }
@@ -0,0 +1,23 @@
+package com.wcd.projector.config;
+
+/**
+ * Listener threads per pod when {@code wcd.projector.listener.concurrency} is left at 0 (auto).
+ *
+ * <p>A listener thread is one group member, and each partition is consumed by only one member, so
+ * threads beyond the topic's partition count would sit idle. Below that, the pod's processors set
+ * the ceiling. The work is mostly waiting on Redis, so each processor gets
+ * {@code threads-per-processor} threads.
+ */
+final class ListenerConcurrency {
+
+    private ListenerConcurrency() {
+    }
+
+    /**
+     * @param partitions partitions of the consumed topic, or 0 if they could not be looked up
+     */
+    static int resolve(int partitions, int processors, int threadsPerProcessor) {
+        int ceiling = Math.max(1, processors * threadsPerProcessor);
+        return partitions > 0 ? Math.min(partitions, ceiling) : ceiling;
+    }
+}
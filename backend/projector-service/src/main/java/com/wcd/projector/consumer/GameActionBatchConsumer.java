@@ -0,0 +1,174 @@
+package com.wcd.projector.consumer;
+
+import com.wcd.common.events.GameActionV1;
+import com.wcd.projector.service.IdempotentLeaderboardWriter;
+import com.wcd.projector.service.LeaderboardAggregator;
+import com.wcd.projector.service.LeaderboardEngine;
+import com.wcd.projector.service.ProjectionService;
+import com.wcd.projector.service.RetryPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "wcd.projector.listener.mode", havingValue = "batch")
+public class GameActionBatchConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameActionBatchConsumer.class);
+
+    private final ProjectionService projectionService;
+    private final LeaderboardAggregator aggregator;
+    private final IdempotentLeaderboardWriter idempotentWriter;
+    private final LeaderboardEngine engine;
+    private final RetryPublisher retryPublisher;
+    private final Counter heartbeatCounter;
+    private final Counter drinkCounter;
+    private final DistributionSummary batchSize;
+
+    public GameActionBatchConsumer(
+        ProjectionService projectionService,
+        Optional<LeaderboardAggregator> aggregator,
+        Optional<IdempotentLeaderboardWriter> idempotentWriter,
+        Optional<LeaderboardEngine> engine,
+        RetryPublisher retryPublisher,
+        MeterRegistry meterRegistry
+    ) {
+        this.projectionService = projectionService;
+        this.aggregator = aggregator.orElse(null);
+        this.idempotentWriter = idempotentWriter.orElse(null);
+        this.engine = engine.orElse(null);
+        this.retryPublisher = retryPublisher;
+        this.heartbeatCounter = Counter.builder("wcd.projector.heartbeat")
+            .description("Total heartbeat events processed")
+            .register(meterRegistry);
+        this.drinkCounter = Counter.builder("wcd.projector.drink")
+            .description("Total drink events processed")
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("wcd.projector.batch.size")
+            .description("Number of events projected per Redis pipeline")
+            .register(meterRegistry);
+    }
+
+    @KafkaListener(
+        topics = "${wcd.topic.game-actions}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void consumeBatch(List<ConsumerRecord<String, GameActionV1>> records, Acknowledgment acknowledgment) {
+        List<GameActionV1> events = new ArrayList<>(records.size());
+        List<ConsumerRecord<String, GameActionV1>> known = new ArrayList<>(records.size());
+        List<ConsumerRecord<String, GameActionV1>> unknown = new ArrayList<>();
+        int heartbeats = 0;
+        int drinks = 0;
+        for (ConsumerRecord<String, GameActionV1> record : records) {
+            GameActionV1 event = record.value();
+            if (event == null) {
+                continue;
+            }
+            events.add(event);
+            if ("HEARTBEAT".equals(event.getAction())) {
+                heartbeats++;
+                known.add(record);
+            } else if ("DRINK".equals(event.getAction())) {
+                drinks++;
+                known.add(record);
+            } else {
+                logger.warn("Unknown action type: {}", event.getAction());
+                unknown.add(record);
+            }
+        }
+
+        // Unknown actions are dead-lettered only once the rest of the batch is handled, right before
+        // the acknowledgment: a batch the error handler redelivers would otherwise write them again.
+        if (idempotentWriter != null) {
+            // Failures propagate to the container's error handler, which seeks back and redelivers
+            // the batch; presence and uniques writes are idempotent and the leaderboard skips
+            // offsets it has already applied.
+            projectionService.projectBatch(events, false);
+            idempotentWriter.apply(records);
+            deadLetter(unknown);
+            acknowledgment.acknowledge();
+            recordMetrics(heartbeats, drinks, events.size());
+            return;
+        }
+
+        if (engine != null) {
+            // The engine applies the batch first, so a failing presence and uniques pipeline only
+            // redelivers that pipeline, and the engine skips the offsets it has already applied.
+            // Committed offsets only matter without a checkpoint; assigned partitions resume from
+            // the engine's own checkpoint.
+            engine.apply(records);
+            projectionService.projectBatch(events, false);
+            deadLetter(unknown);
+            acknowledgment.acknowledge();
+            recordMetrics(heartbeats, drinks, events.size());
+            return;
+        }
+
+        try {
+            if (aggregator != null) {
+                projectionService.projectBatch(events, false);
+                aggregator.add(events);
+            } else {
+                projectionService.projectBatch(events);
+            }
+            recordMetrics(heartbeats, drinks, events.size());
+        } catch (RuntimeException e) {
+            if (aggregator == null && !isConnectionFailure(e)) {
+                // The direct-mode pipeline carries the ZINCRBYs, and a pipeline that failed partway
+                // (a timeout, a reset connection) may have applied some of them. The retry consumer
+                // would apply all of them again, so the container's error handler redelivers the
+                // batch instead. The redelivery re-applies whatever had landed: direct mode accepts
+                // that double count, idempotent and engine modes do not have it.
+                throw e;
+            }
+            // Nothing reached the leaderboard: hand the batch to the retry topic so this partition
+            // keeps moving. If forwarding fails too, the exception reaches the container's error
+            // handler and the batch is redelivered instead of being dropped.
+            logger.warn("Error processing batch of {} events, forwarding to retry topic", known.size(), e);
+            retryPublisher.forwardAll(known);
+        }
+        deadLetter(unknown);
+        if (aggregator != null) {
+            aggregator.acknowledgeAfterFlush(acknowledgment);
+        } else {
+            acknowledgment.acknowledge();
+        }
+    }
+
+    private void deadLetter(List<ConsumerRecord<String, GameActionV1>> unknown) {
+        for (ConsumerRecord<String, GameActionV1> record : unknown) {
+            retryPublisher.deadLetter(record, "Unknown action: " + record.value().getAction());
+        }
+    }
+
+    /**
+     * No connection could be obtained, so no command of the pipeline was sent.
+     */
+    private static boolean isConnectionFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RedisConnectionFailureException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordMetrics(int heartbeats, int drinks, int size) {
+        heartbeatCounter.increment(heartbeats);
+        drinkCounter.increment(drinks);
+        batchSize.record(size);
+    }
+}
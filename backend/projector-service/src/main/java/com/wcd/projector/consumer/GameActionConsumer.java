@@ -2,24 +2,34 @@ package com.wcd.projector.consumer;
 
 import com.wcd.common.events.GameActionV1;
 import com.wcd.projector.service.ProjectionService;
+import com.wcd.projector.service.RetryPublisher;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnProperty(name = "wcd.projector.listener.mode", havingValue = "record", matchIfMissing = true)
 public class GameActionConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(GameActionConsumer.class);
 
     private final ProjectionService projectionService;
+    private final RetryPublisher retryPublisher;
     private final Counter heartbeatCounter;
     private final Counter drinkCounter;
 
-    public GameActionConsumer(ProjectionService projectionService, MeterRegistry meterRegistry) {
+    public GameActionConsumer(
+        ProjectionService projectionService,
+        RetryPublisher retryPublisher,
+        MeterRegistry meterRegistry
+    ) {
         this.projectionService = projectionService;
+        this.retryPublisher = retryPublisher;
         this.heartbeatCounter = Counter.builder("wcd.projector.heartbeat")
             .description("Total heartbeat events processed")
             .register(meterRegistry);
@@ -29,25 +39,27 @@ public class GameActionConsumer {
     }
 
     @KafkaListener(topics = "${wcd.topic.game-actions}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consume(GameActionV1 event) {
-        try {
-            logger.debug("Processing event: {}", event);
+    public void consume(ConsumerRecord<String, GameActionV1> record) {
+        GameActionV1 event = record.value();
+        logger.debug("Processing event: {}", event);
+        String action = event.getAction();
+        if (!"HEARTBEAT".equals(action) && !"DRINK".equals(action)) {
+            logger.warn("Unknown action type: {}", action);
+            retryPublisher.deadLetter(record, "Unknown action: " + action);
+            return;
+        }
 
-            switch (event.getAction()) {
-                case "HEARTBEAT":
-                    projectionService.updatePresence(event);
-                    heartbeatCounter.increment();
-                    break;
-                case "DRINK":
-                    projectionService.updateLeaderboard(event);
-                    projectionService.updateUniques(event);
-                    drinkCounter.increment();
-                    break;
-                default:
-                    logger.warn("Unknown action type: {}", event.getAction());
+        try {
+            if ("HEARTBEAT".equals(action)) {
+                projectionService.updatePresence(event);
+                heartbeatCounter.increment();
+            } else {
+                projectionService.updateDrink(event);
+                drinkCounter.increment();
             }
         } catch (Exception e) {
-            logger.error("Error processing event: {}", event, e);
+            logger.warn("Error processing event, forwarding to retry topic: {}", event, e);
+            retryPublisher.forward(record);
         }
     }
 }
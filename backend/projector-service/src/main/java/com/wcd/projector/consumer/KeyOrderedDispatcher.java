@@ -0,0 +1,116 @@
+package com.wcd.projector.consumer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks on a fixed set of single-threaded lanes chosen by a hash of the task's key, so tasks
+ * with the same key run one at a time in submission order while different keys run in parallel.
+ *
+ * <p>Lane queues are bounded: when a lane is full, {@link #dispatch} blocks the caller, which is
+ * the listener thread, so a slow Redis slows polling instead of growing the heap.
+ */
+@Component
+@ConditionalOnProperty(name = "wcd.projector.listener.mode", havingValue = "parallel")
+public class KeyOrderedDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyOrderedDispatcher.class);
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final List<Lane> lanes;
+
+    public KeyOrderedDispatcher(
+        MeterRegistry meterRegistry,
+        @Value("${wcd.projector.parallel.workers:16}") int workers,
+        @Value("${wcd.projector.parallel.queue-capacity:1000}") int queueCapacity
+    ) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("wcd.projector.parallel.workers must be at least 1");
+        }
+        this.lanes = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            Lane lane = new Lane(i, queueCapacity);
+            lanes.add(lane);
+            lane.thread.start();
+        }
+        Gauge.builder("wcd.projector.parallel.queued", lanes,
+                all -> all.stream().mapToInt(lane -> lane.queue.size()).sum())
+            .description("Records dispatched to a worker lane but not yet started")
+            .register(meterRegistry);
+    }
+
+    public void dispatch(String key, Runnable task) throws InterruptedException {
+        lanes.get(laneOf(key, lanes.size())).queue.put(task);
+    }
+
+    /**
+     * Same folding as the leaderboard shard hash, so sequential ids still spread over the lanes.
+     */
+    static int laneOf(String key, int lanes) {
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, lanes);
+    }
+
+    /**
+     * Lets queued tasks finish; their acknowledgments are dropped once the container has stopped,
+     * and the records are redelivered to whichever consumer owns the partition next.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        lanes.forEach(Lane::close);
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        for (Lane lane : lanes) {
+            lane.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+    }
+
+    private static final class Lane implements Runnable {
+        private final BlockingQueue<Runnable> queue;
+        private final Thread thread;
+        private volatile boolean closed;
+
+        private Lane(int index, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "projector-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!closed || !queue.isEmpty()) {
+                try {
+                    Runnable task = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (task != null) {
+                        task.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    // Tasks handle their own failures; anything escaping must not kill the lane.
+                    logger.error("Unhandled error in {}", thread.getName(), e);
+                }
+            }
+        }
+
+        private void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.wcd.projector.consumer;
+
+import com.wcd.common.events.GameActionV1;
+import com.wcd.projector.service.ProjectionService;
+import com.wcd.projector.service.RetryPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.backoff.BackOffExecution;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+/**
+ * Record listener that hands each record to a {@link KeyOrderedDispatcher} lane picked by the
+ * event's user id, so one partition is projected by many threads while each user's events stay in
+ * order. The record key is not used: under match partitioning it is the match id, which would
+ * project a hot match on a single lane. Records are acknowledged as they finish; the container's
+ * async acks commit only the contiguous run of finished offsets.
+ */
+@Component
+@ConditionalOnProperty(name = "wcd.projector.listener.mode", havingValue = "parallel")
+public class ParallelGameActionConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelGameActionConsumer.class);
+
+    private final ProjectionService projectionService;
+    private final RetryPublisher retryPublisher;
+    private final KeyOrderedDispatcher dispatcher;
+    private final ExponentialBackOff forwardBackOff;
+    private final Counter heartbeatCounter;
+    private final Counter drinkCounter;
+    private final Counter forwardFailuresCounter;
+
+    public ParallelGameActionConsumer(
+        ProjectionService projectionService,
+        RetryPublisher retryPublisher,
+        KeyOrderedDispatcher dispatcher,
+        MeterRegistry meterRegistry,
+        @Value("${wcd.projector.retry.initial-interval-ms:100}") long retryInitialIntervalMs,
+        @Value("${wcd.projector.retry.max-interval-ms:5000}") long retryMaxIntervalMs
+    ) {
+        this.projectionService = projectionService;
+        this.retryPublisher = retryPublisher;
+        this.dispatcher = dispatcher;
+        this.forwardBackOff = new ExponentialBackOff(retryInitialIntervalMs, 2.0);
+        this.forwardBackOff.setMaxInterval(retryMaxIntervalMs);
+        this.heartbeatCounter = Counter.builder("wcd.projector.heartbeat")
+            .description("Total heartbeat events processed")
+            .register(meterRegistry);
+        this.drinkCounter = Counter.builder("wcd.projector.drink")
+            .description("Total drink events processed")
+            .register(meterRegistry);
+        this.forwardFailuresCounter = Counter.builder("wcd.projector.parallel.forward.failures")
+            .description("Failed attempts to forward a record to the retry topic; the record is held and retried")
+            .register(meterRegistry);
+    }
+
+    @KafkaListener(
+        topics = "${wcd.topic.game-actions}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "parallelKafkaListenerContainerFactory"
+    )
+    public void consume(ConsumerRecord<String, GameActionV1> record, Acknowledgment acknowledgment) throws InterruptedException {
+        GameActionV1 event = record.value();
+        if (event == null) {
+            acknowledgment.acknowledge();
+            return;
+        }
+        dispatcher.dispatch(event.getUserId(), () -> {
+            if (project(record)) {
+                acknowledgment.acknowledge();
+            }
+        });
+    }
+
+    private boolean project(ConsumerRecord<String, GameActionV1> record) {
+        GameActionV1 event = record.value();
+        String action = event.getAction();
+        try {
+            if ("HEARTBEAT".equals(action)) {
+                projectionService.updatePresence(event);
+                heartbeatCounter.increment();
+            } else if ("DRINK".equals(action)) {
+                projectionService.updateDrink(event);
+                drinkCounter.increment();
+            } else {
+                logger.warn("Unknown action type: {}", action);
+                retryPublisher.deadLetter(record, "Unknown action: " + action);
+            }
+            return true;
+        } catch (Exception e) {
+            return forward(record, e);
+        }
+    }
+
+    /**
+     * Lanes run off the listener thread, so a failure here cannot reach the container's error
+     * handler, and with async acks the container cannot be nacked or sought back from another
+     * thread either. Until the forward goes through the record stays unacknowledged and the lane
+     * retries it with the retry backoff: commits for the partition stop at its offset, and the
+     * container stops polling once the rest of the poll is acknowledged. If the pod stops or the
+     * partition moves first, the uncommitted record is redelivered to the partition's next owner.
+     *
+     * @return whether the record was forwarded; false if the lane was interrupted first
+     */
+    private boolean forward(ConsumerRecord<String, GameActionV1> record, Exception cause) {
+        logger.warn("Error processing event, forwarding to retry topic: {}", record.value(), cause);
+        BackOffExecution backOff = forwardBackOff.start();
+        while (true) {
+            try {
+                retryPublisher.forward(record);
+                return true;
+            } catch (Exception e) {
+                forwardFailuresCounter.increment();
+                long delayMs = backOff.nextBackOff();
+                logger.error("Failed to forward event to retry topic, retrying in {} ms: {}", delayMs, record.value(), e);
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.wcd.projector.consumer;
+
+import com.wcd.common.events.GameActionV1;
+import com.wcd.projector.service.ProjectionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.DltHandler;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.stereotype.Component;
+
+/**
+ * Re-projects events that failed on the main topic. Each failed attempt is republished to the next
+ * delay topic ({@code game.actions.retry-0}, {@code -1}, ...) and consumed again once its backoff
+ * has elapsed, so a slow retry never holds up the main topic's partitions. Events that exhaust
+ * their attempts, or that are rejected as invalid, land on {@code game.actions.retry-dlt}.
+ */
+@Component
+public class ProjectionRetryConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectionRetryConsumer.class);
+
+    private final ProjectionService projectionService;
+    private final Counter retriedCounter;
+    private final Counter deadLetterCounter;
+
+    public ProjectionRetryConsumer(ProjectionService projectionService, MeterRegistry meterRegistry) {
+        this.projectionService = projectionService;
+        this.retriedCounter = Counter.builder("wcd.projector.retry.processed")
+            .description("Events projected successfully from a retry topic")
+            .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("wcd.projector.dlt.received")
+            .description("Events that reached the dead-letter topic")
+            .register(meterRegistry);
+    }
+
+    @RetryableTopic(
+        attempts = "${wcd.projector.retry-topic.attempts:5}",
+        backoff = @Backoff(
+            delayExpression = "${wcd.projector.retry-topic.delay-ms:1000}",
+            multiplierExpression = "${wcd.projector.retry-topic.multiplier:3}",
+            maxDelayExpression = "${wcd.projector.retry-topic.max-delay-ms:60000}"
+        ),
+        numPartitions = "${wcd.projector.retry-topic.partitions:3}",
+        retryTopicSuffix = "-",
+        topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+        exclude = IllegalArgumentException.class,
+        kafkaTemplate = "kafkaTemplate"
+    )
+    @KafkaListener(
+        topics = "${wcd.topic.game-actions-retry}",
+        groupId = "${spring.kafka.consumer.group-id}-retry"
+    )
+    public void retry(GameActionV1 event) {
+        if ("HEARTBEAT".equals(event.getAction())) {
+            projectionService.updatePresence(event);
+        } else if ("DRINK".equals(event.getAction())) {
+            projectionService.updateDrink(event);
+        } else {
+            throw new IllegalArgumentException("Unknown action: " + event.getAction());
+        }
+        retriedCounter.increment();
+    }
+
+    @DltHandler
+    public void deadLetter(
+        GameActionV1 event,
+        @Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error
+    ) {
+        deadLetterCounter.increment();
+        logger.error("Event moved to dead-letter topic: {} ({})", event, error);
+    }
+}
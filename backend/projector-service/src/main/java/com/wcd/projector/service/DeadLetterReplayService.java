@@ -0,0 +1,138 @@
+package com.wcd.projector.service;
+
+import com.wcd.common.events.GameActionV1;
+import com.wcd.common.kafka.PartitioningStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Re-injects dead-lettered events into the main topic in bulk, e.g. after the bug or outage that
+ * sent them there is fixed. Progress is tracked as committed offsets of a dedicated consumer group,
+ * so each dead-lettered record is replayed once and repeated calls continue where the last stopped.
+ *
+ * <p>Replayed records are keyed again with ingest's partitioning strategy rather than reusing the
+ * dead-lettered key, which may be a user id from before copies kept their source key, so every
+ * replayed event lands on the partition ingest would have chosen and its user keeps a single owner.
+ */
+@Service
+public class DeadLetterReplayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterReplayService.class);
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final ConsumerFactory<String, GameActionV1> consumerFactory;
+    private final KafkaTemplate<String, GameActionV1> kafkaTemplate;
+    private final String deadLetterTopic;
+    private final String targetTopic;
+    private final String replayGroupId;
+    private final PartitioningStrategy partitioning;
+    private final Counter replayedCounter;
+
+    public DeadLetterReplayService(
+        ConsumerFactory<String, GameActionV1> consumerFactory,
+        KafkaTemplate<String, GameActionV1> kafkaTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${wcd.topic.game-actions}") String targetTopic,
+        @Value("${wcd.topic.game-actions-retry}") String retryTopic,
+        @Value("${spring.kafka.consumer.group-id}") String groupId,
+        @Value("${wcd.kafka.partitioning:user}") String partitioning
+    ) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.targetTopic = targetTopic;
+        this.deadLetterTopic = RetryPublisher.deadLetterTopic(retryTopic);
+        this.replayGroupId = groupId + "-dlt-replay";
+        this.partitioning = PartitioningStrategy.fromProperty(partitioning);
+        this.replayedCounter = Counter.builder("wcd.projector.dlt.replayed")
+            .description("Dead-lettered events re-published to the main topic")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Replays up to {@code maxRecords} dead-lettered events and returns how many were sent. Offsets
+     * are committed only after the broker acknowledged every re-published record.
+     */
+    public synchronized int replay(int maxRecords) {
+        if (maxRecords <= 0) {
+            throw new IllegalArgumentException("maxRecords must be positive");
+        }
+        try (Consumer<String, GameActionV1> consumer = consumerFactory.createConsumer(replayGroupId, "-replay")) {
+            List<PartitionInfo> infos = consumer.partitionsFor(deadLetterTopic);
+            if (infos == null || infos.isEmpty()) {
+                // Nothing has been dead-lettered yet, so the topic was never created.
+                logger.info("{} does not exist; nothing to replay", deadLetterTopic);
+                return 0;
+            }
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : infos) {
+                partitions.add(new TopicPartition(info.topic(), info.partition()));
+            }
+            consumer.assign(partitions);
+
+            List<CompletableFuture<SendResult<String, GameActionV1>>> sends = new ArrayList<>();
+            Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+            int replayed = 0;
+            while (replayed < maxRecords) {
+                ConsumerRecords<String, GameActionV1> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<String, GameActionV1> record : records) {
+                    if (replayed == maxRecords) {
+                        break;
+                    }
+                    if (record.value() != null) {
+                        sends.add(kafkaTemplate.send(targetTopic, partitioning.key(record.value()), record.value()));
+                        replayed++;
+                    }
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                        new OffsetAndMetadata(record.offset() + 1));
+                }
+            }
+
+            awaitAll(sends);
+            if (!offsets.isEmpty()) {
+                consumer.commitSync(offsets);
+            }
+            replayedCounter.increment(replayed);
+            logger.info("Replayed {} events from {} to {}", replayed, deadLetterTopic, targetTopic);
+            return replayed;
+        }
+    }
+
+    private static void awaitAll(List<CompletableFuture<SendResult<String, GameActionV1>>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying dead-lettered events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to replay dead-lettered events; offsets not committed", e);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.wcd.projector.service;
+
+import com.wcd.common.events.GameActionV1;
+import com.wcd.common.leaderboard.LeaderboardKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies leaderboard increments together with the partition's last applied offset in one Lua
+ * script, so a batch redelivered after a failed commit or a rebalance is not counted twice.
+ *
+ * <p>Applied offsets are kept per consumer group, and {@link #reconcile} forgets a partition's
+ * offset when the group's position has moved far behind it, e.g. after an offset reset or a
+ * recreated topic, which would otherwise skip every record up to the old offset.
+ *
+ * <p>One script call touches the offsets hash and the leaderboard of every match in the batch.
+ * Those keys hash to different slots, so this mode needs a single-node Redis: it refuses to start
+ * with sharded leaderboards, which exist to spread a match across Redis Cluster slots.
+ */
+@Component
+@ConditionalOnProperty(name = "wcd.projector.leaderboard.mode", havingValue = "idempotent")
+public class IdempotentLeaderboardWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotentLeaderboardWriter.class);
+    private static final RedisScript<Long> APPLY_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/apply-leaderboard-increments.lua"), Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final int leaderboardShards;
+    private final String groupId;
+    private final int maxPollRecords;
+    private final Counter appliedCounter;
+    private final Counter skippedCounter;
+    private final Counter resetCounter;
+
+    public IdempotentLeaderboardWriter(
+        RedisTemplate<String, String> redisTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${wcd.projector.listener.mode:record}") String listenerMode,
+        @Value("${wcd.leaderboard.shards:1}") int leaderboardShards,
+        @Value("${spring.kafka.consumer.group-id}") String groupId,
+        @Value("${wcd.projector.batch.max-poll-records:500}") int maxPollRecords
+    ) {
+        if (!"batch".equals(listenerMode)) {
+            throw new IllegalStateException("Idempotent leaderboard mode requires wcd.projector.listener.mode=batch");
+        }
+        if (leaderboardShards > 1) {
+            throw new IllegalStateException("Idempotent leaderboard mode needs a single-node Redis and "
+                + "wcd.leaderboard.shards=1; its Lua script would fail with CROSSSLOT on Redis Cluster");
+        }
+        this.redisTemplate = redisTemplate;
+        this.leaderboardShards = leaderboardShards;
+        this.groupId = groupId;
+        this.maxPollRecords = maxPollRecords;
+        this.appliedCounter = Counter.builder("wcd.projector.idempotent.applied")
+            .description("Leaderboard increments applied by the idempotent writer")
+            .register(meterRegistry);
+        this.skippedCounter = Counter.builder("wcd.projector.idempotent.skipped")
+            .description("Redelivered leaderboard increments skipped because their offset was already applied")
+            .register(meterRegistry);
+        this.resetCounter = Counter.builder("wcd.projector.idempotent.resets")
+            .description("Partitions whose applied offset was forgotten because the group's position moved behind it")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Called with the group's position for each newly assigned partition. A redelivery after a
+     * failed commit never reaches back more than one poll, because the container commits each
+     * batch's acknowledgment before the next poll; an applied offset further ahead than that means
+     * the position was reset, and the offset is dropped so those records are applied again.
+     */
+    public void reconcile(Map<TopicPartition, Long> positions) {
+        positions.forEach((partition, position) -> {
+            String key = offsetsKey(partition.topic());
+            String field = String.valueOf(partition.partition());
+            Object applied = redisTemplate.opsForHash().get(key, field);
+            if (applied != null && Long.parseLong(applied.toString()) >= position + maxPollRecords) {
+                logger.warn("Position {} of {} is behind applied offset {}; assuming an offset reset and "
+                    + "applying its records again", position, partition, applied);
+                redisTemplate.opsForHash().delete(key, field);
+                resetCounter.increment();
+            }
+        });
+    }
+
+    public void apply(List<ConsumerRecord<String, GameActionV1>> records) {
+        Map<String, List<ConsumerRecord<String, GameActionV1>>> byPartition = new LinkedHashMap<>();
+        for (ConsumerRecord<String, GameActionV1> record : records) {
+            byPartition.computeIfAbsent(record.topic() + ":" + record.partition(), key -> new ArrayList<>())
+                .add(record);
+        }
+        byPartition.values().forEach(this::applyPartition);
+    }
+
+    private void applyPartition(List<ConsumerRecord<String, GameActionV1>> records) {
+        // Records of one partition arrive in offset order.
+        ConsumerRecord<String, GameActionV1> first = records.get(0);
+        ConsumerRecord<String, GameActionV1> last = records.get(records.size() - 1);
+        List<String> keys = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        keys.add(offsetsKey(first.topic()));
+        args.add(String.valueOf(first.partition()));
+        args.add(String.valueOf(last.offset()));
+
+        for (ConsumerRecord<String, GameActionV1> record : records) {
+            GameActionV1 event = record.value();
+            if (event != null && "DRINK".equals(event.getAction())) {
+                keys.add(LeaderboardKeys.key(event.getMatchId(), event.getUserId(), leaderboardShards));
+                args.add(String.valueOf(record.offset()));
+                args.add(event.getUserId());
+                args.add(String.valueOf(event.getAmount()));
+            }
+        }
+        if (keys.size() == 1) {
+            return;
+        }
+
+        Long applied = redisTemplate.execute(APPLY_SCRIPT, keys, args.toArray());
+        int total = keys.size() - 1;
+        int appliedCount = applied != null ? applied.intValue() : 0;
+        appliedCounter.increment(appliedCount);
+        skippedCounter.increment(total - appliedCount);
+        if (appliedCount < total) {
+            logger.info("Skipped {} already applied leaderboard increments on {}-{}",
+                total - appliedCount, first.topic(), first.partition());
+        }
+    }
+
+    private String offsetsKey(String topic) {
+        return "projector:offsets:leaderboard:" + groupId + ":" + topic;
+    }
+}
@@ -0,0 +1,59 @@
+package com.wcd.projector.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers which time-bucketed keys recently had their TTL set, so the projector sends one EXPIRE
+ * per key instead of one per event. An entry is forgotten after half the key's TTL: the next write
+ * then re-sends EXPIRE. That covers a key that expired in Redis and was re-created by a late event,
+ * and a restarted projector with an empty tracker simply sets each TTL once more.
+ */
+class KeyExpiryTracker {
+
+    private final ConcurrentHashMap<String, Long> expiresSetUntil = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    KeyExpiryTracker() {
+        this(System::currentTimeMillis);
+    }
+
+    KeyExpiryTracker(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns true if the caller should send EXPIRE for {@code key}; only one concurrent caller wins.
+     */
+    boolean claim(String key, Duration ttl) {
+        long now = clock.getAsLong();
+        long until = now + ttl.toMillis() / 2;
+        boolean[] claimed = new boolean[1];
+        expiresSetUntil.compute(key, (k, existing) -> {
+            if (existing != null && existing > now) {
+                return existing;
+            }
+            claimed[0] = true;
+            return until;
+        });
+        return claimed[0];
+    }
+
+    /**
+     * Forgets keys whose EXPIRE may not have reached Redis, e.g. because the pipeline failed.
+     */
+    void release(Collection<String> keys) {
+        keys.forEach(expiresSetUntil::remove);
+    }
+
+    void prune() {
+        long now = clock.getAsLong();
+        expiresSetUntil.values().removeIf(until -> until <= now);
+    }
+
+    int size() {
+        return expiresSetUntil.size();
+    }
+}
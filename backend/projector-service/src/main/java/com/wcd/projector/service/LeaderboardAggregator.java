@@ -0,0 +1,123 @@
+package com.wcd.projector.service;
+
+import com.wcd.common.events.GameActionV1;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Sums drink amounts per (matchId, userId) and writes one ZINCRBY per key on flush.
+ * Kafka acknowledgments are held back until the increments they cover are in Redis.
+ */
+@Component
+@ConditionalOnProperty(name = "wcd.projector.leaderboard.mode", havingValue = "aggregated")
+public class LeaderboardAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardAggregator.class);
+
+    private final ProjectionService projectionService;
+    private final int maxPendingKeys;
+    private final ConcurrentHashMap<ScoreKey, Long> pending = new ConcurrentHashMap<>();
+    private final Queue<Acknowledgment> pendingAcks = new ConcurrentLinkedQueue<>();
+    private final Counter eventsCounter;
+    private final Counter flushedKeysCounter;
+    private final Counter flushFailuresCounter;
+
+    public LeaderboardAggregator(
+        ProjectionService projectionService,
+        MeterRegistry meterRegistry,
+        @Value("${wcd.projector.aggregation.max-pending-keys:10000}") int maxPendingKeys,
+        @Value("${wcd.projector.listener.mode:record}") String listenerMode
+    ) {
+        if (!"batch".equals(listenerMode)) {
+            throw new IllegalStateException("Aggregated leaderboard mode requires wcd.projector.listener.mode=batch");
+        }
+        this.projectionService = projectionService;
+        this.maxPendingKeys = maxPendingKeys;
+        this.eventsCounter = Counter.builder("wcd.projector.aggregation.events")
+            .description("Drink events folded into the aggregation buffer")
+            .register(meterRegistry);
+        this.flushedKeysCounter = Counter.builder("wcd.projector.aggregation.flushed.keys")
+            .description("Leaderboard increments written to Redis after aggregation")
+            .register(meterRegistry);
+        this.flushFailuresCounter = Counter.builder("wcd.projector.aggregation.flush.failures")
+            .description("Aggregation flushes that failed and were retained for retry")
+            .register(meterRegistry);
+        Gauge.builder("wcd.projector.aggregation.pending.keys", pending, Map::size)
+            .description("Distinct (match, user) keys waiting to be flushed")
+            .register(meterRegistry);
+    }
+
+    public void add(List<GameActionV1> events) {
+        int drinks = 0;
+        for (GameActionV1 event : events) {
+            if ("DRINK".equals(event.getAction())) {
+                pending.merge(new ScoreKey(event.getMatchId(), event.getUserId()), (long) event.getAmount(), Long::sum);
+                drinks++;
+            }
+        }
+        eventsCounter.increment(drinks);
+    }
+
+    public void acknowledgeAfterFlush(Acknowledgment acknowledgment) {
+        pendingAcks.add(acknowledgment);
+        if (pending.size() >= maxPendingKeys) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wcd.projector.aggregation.flush-interval-ms:250}")
+    public synchronized void flush() {
+        // Drain acks before increments: every ack taken here was queued after its events were added,
+        // so those events are guaranteed to be part of the increments drained below.
+        List<Acknowledgment> acks = new ArrayList<>();
+        Acknowledgment ack;
+        while ((ack = pendingAcks.poll()) != null) {
+            acks.add(ack);
+        }
+
+        Map<ScoreKey, Long> increments = new HashMap<>();
+        for (ScoreKey key : pending.keySet()) {
+            Long amount = pending.remove(key);
+            if (amount != null) {
+                increments.put(key, amount);
+            }
+        }
+
+        if (increments.isEmpty() && acks.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (!increments.isEmpty()) {
+                projectionService.incrementLeaderboards(increments);
+            }
+        } catch (Exception e) {
+            increments.forEach((key, amount) -> pending.merge(key, amount, Long::sum));
+            pendingAcks.addAll(acks);
+            flushFailuresCounter.increment();
+            logger.error("Failed to flush {} aggregated leaderboard increments", increments.size(), e);
+            return;
+        }
+
+        flushedKeysCounter.increment(increments.size());
+        acks.forEach(Acknowledgment::acknowledge);
+        logger.debug("Flushed {} aggregated leaderboard increments, acknowledged {} batches",
+            increments.size(), acks.size());
+    }
+}
@@ -0,0 +1,463 @@
+package com.wcd.projector.service;
+
+import com.wcd.common.events.GameActionV1;
+import com.wcd.common.leaderboard.LeaderboardKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps each owned partition's leaderboard scores in memory and publishes absolute scores to
+ * Redis on a timer instead of sending one ZINCRBY per drink.
+ *
+ * <p>Every ingest partitioning strategy keeps a user's drinks in a match on one partition, so its
+ * owner is the only writer of that user's score. That makes ZADD of the absolute score safe from several
+ * projector instances at once, and idempotent when records are replayed. Every
+ * {@code top-k-interval-ms} the changed scores among each match's partition top K are written,
+ * which keeps the global top K fresh because it is contained in the union of the partitions' top
+ * K lists. Every {@code snapshot-interval-ms} all changed scores are written, followed by a
+ * checkpoint hash of the partition's scores and last applied offset, kept per consumer group.
+ *
+ * <p>A newly assigned partition is restored from its checkpoint and consumed from the offset after
+ * it. Until replay catches up the published scores can briefly step back to the checkpointed values.
+ * A partition without a checkpoint is adopted at the consumer group's committed offset, which
+ * becomes its first checkpoint; it is not rebuilt from the start of the topic.
+ *
+ * <p>ZADD replaces whatever a ZSET already holds. A rebuild from the retained topic would replace
+ * ZINCRBY-built totals with smaller partial sums, whether engine mode is enabled on an existing
+ * deployment or retention has dropped old segments. So the first drink the engine sees for a user
+ * starts from the user's current leaderboard score, which is written to the checkpoint before any
+ * engine score can be published. The totals must have been built by the same consumer group.
+ * Records that the previous mode applied but never committed are counted twice, as on any
+ * direct-mode redelivery.
+ *
+ * <p>Matches without a drink for {@code idle-eviction-minutes} are dropped from memory and from
+ * the checkpoint once they have been published. Their users are seeded again if they drink later.
+ *
+ * <p>Publications are serialized on the engine so two writers never race an older absolute score
+ * past a newer one.
+ */
+@Component
+@ConditionalOnProperty(name = "wcd.projector.leaderboard.mode", havingValue = "engine")
+public class LeaderboardEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardEngine.class);
+    private static final String CHECKPOINT_PREFIX = "projector:engine:leaderboard:";
+    private static final String OFFSET_FIELD = "offset";
+    // Separates matchId and userId in checkpoint fields; the offset field has none.
+    private static final char FIELD_SEPARATOR = '\u001f';
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String groupId;
+    private final int leaderboardShards;
+    private final int topK;
+    private final Duration idleEviction;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<TopicPartition, PartitionState> partitions = new ConcurrentHashMap<>();
+    private final Counter appliedCounter;
+    private final Counter skippedCounter;
+    private final Counter publishedCounter;
+    private final Counter publishFailuresCounter;
+    private final Counter seededCounter;
+    private final Counter evictedCounter;
+
+    @Autowired
+    public LeaderboardEngine(
+        RedisTemplate<String, String> redisTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${spring.kafka.consumer.group-id}") String groupId,
+        @Value("${wcd.projector.listener.mode:record}") String listenerMode,
+        @Value("${wcd.leaderboard.shards:1}") int leaderboardShards,
+        @Value("${wcd.projector.engine.top-k:100}") int topK,
+        @Value("${wcd.projector.engine.idle-eviction-minutes:30}") long idleEvictionMinutes
+    ) {
+        this(redisTemplate, meterRegistry, groupId, listenerMode, leaderboardShards, topK, idleEvictionMinutes,
+            System::currentTimeMillis);
+    }
+
+    LeaderboardEngine(
+        RedisTemplate<String, String> redisTemplate,
+        MeterRegistry meterRegistry,
+        String groupId,
+        String listenerMode,
+        int leaderboardShards,
+        int topK,
+        long idleEvictionMinutes,
+        LongSupplier clock
+    ) {
+        if (!"batch".equals(listenerMode)) {
+            throw new IllegalStateException("Engine leaderboard mode requires wcd.projector.listener.mode=batch");
+        }
+        this.redisTemplate = redisTemplate;
+        this.groupId = groupId;
+        this.leaderboardShards = leaderboardShards;
+        this.topK = topK;
+        this.idleEviction = Duration.ofMinutes(idleEvictionMinutes);
+        this.clock = clock;
+        this.appliedCounter = Counter.builder("wcd.projector.engine.applied")
+            .description("Drink events applied to the in-memory leaderboards")
+            .register(meterRegistry);
+        this.skippedCounter = Counter.builder("wcd.projector.engine.skipped")
+            .description("Redelivered records skipped because their offset was already applied")
+            .register(meterRegistry);
+        this.publishedCounter = Counter.builder("wcd.projector.engine.published")
+            .description("Absolute scores written to the leaderboard ZSETs")
+            .register(meterRegistry);
+        this.publishFailuresCounter = Counter.builder("wcd.projector.engine.publish.failures")
+            .description("Top-K or snapshot publications that failed and will be retried")
+            .register(meterRegistry);
+        this.seededCounter = Counter.builder("wcd.projector.engine.seeded")
+            .description("Users whose first engine score started from their leaderboard ZSET score")
+            .register(meterRegistry);
+        this.evictedCounter = Counter.builder("wcd.projector.engine.evicted")
+            .description("Idle match boards dropped from memory and from the checkpoint")
+            .register(meterRegistry);
+        Gauge.builder("wcd.projector.engine.users", partitions,
+                owned -> owned.values().stream().mapToInt(PartitionState::users).sum())
+            .description("Users held in memory across owned partitions")
+            .register(meterRegistry);
+    }
+
+    public void apply(List<ConsumerRecord<String, GameActionV1>> records) {
+        Map<TopicPartition, List<ConsumerRecord<String, GameActionV1>>> byPartition = new LinkedHashMap<>();
+        for (ConsumerRecord<String, GameActionV1> record : records) {
+            byPartition.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), key -> new ArrayList<>())
+                .add(record);
+        }
+        long now = clock.getAsLong();
+        int applied = 0;
+        int skipped = 0;
+        for (Map.Entry<TopicPartition, List<ConsumerRecord<String, GameActionV1>>> entry : byPartition.entrySet()) {
+            PartitionState state = partitions.computeIfAbsent(entry.getKey(), PartitionState::new);
+            synchronized (state) {
+                seed(state, entry.getValue());
+                for (ConsumerRecord<String, GameActionV1> record : entry.getValue()) {
+                    if (record.offset() <= state.appliedOffset) {
+                        skipped++;
+                        continue;
+                    }
+                    state.appliedOffset = record.offset();
+                    GameActionV1 event = record.value();
+                    if (event != null && "DRINK".equals(event.getAction())) {
+                        state.board(event.getMatchId()).add(event.getUserId(), event.getAmount());
+                        state.lastDrinkMillis.put(event.getMatchId(), now);
+                        applied++;
+                    }
+                }
+            }
+        }
+        appliedCounter.increment(applied);
+        skippedCounter.increment(skipped);
+    }
+
+    /**
+     * Starts every user about to get their first drink on this partition from their current
+     * leaderboard score. The seeds reach the checkpoint before the engine can publish on top of
+     * them, so a next owner replaying from the checkpoint starts these users from the same base
+     * rather than from a published score that may already include the replayed drinks. Called
+     * with the partition locked, so an eviction cannot drop a board between the read and the apply.
+     */
+    private void seed(PartitionState state, List<ConsumerRecord<String, GameActionV1>> records) {
+        Map<String, GameActionV1> firstDrinks = new LinkedHashMap<>();
+        for (ConsumerRecord<String, GameActionV1> record : records) {
+            GameActionV1 event = record.value();
+            if (record.offset() > state.appliedOffset && event != null && "DRINK".equals(event.getAction())
+                && !state.board(event.getMatchId()).contains(event.getUserId())) {
+                firstDrinks.putIfAbsent(field(event.getMatchId(), event.getUserId()), event);
+            }
+        }
+        if (firstDrinks.isEmpty()) {
+            return;
+        }
+
+        List<GameActionV1> users = new ArrayList<>(firstDrinks.values());
+        List<Object> scores = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (GameActionV1 user : users) {
+                    String key = LeaderboardKeys.key(user.getMatchId(), user.getUserId(), leaderboardShards);
+                    ops.opsForZSet().score(key, user.getUserId());
+                }
+                return null;
+            }
+        });
+        long[] seeds = new long[users.size()];
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            Object score = i < scores.size() ? scores.get(i) : null;
+            seeds[i] = score instanceof Number number ? Math.round(number.doubleValue()) : 0;
+            fields.put(field(users.get(i).getMatchId(), users.get(i).getUserId()), String.valueOf(seeds[i]));
+        }
+        redisTemplate.opsForHash().putAll(checkpointKey(state.partition), fields);
+        for (int i = 0; i < users.size(); i++) {
+            state.board(users.get(i).getMatchId()).restore(users.get(i).getUserId(), seeds[i]);
+        }
+        seededCounter.increment(users.size());
+    }
+
+    /**
+     * Loads the checkpoints of newly assigned partitions and returns the offset to resume each one
+     * from. Partitions missing from the result have no checkpoint and must be {@link #adopt adopted}.
+     */
+    public Map<TopicPartition, Long> restore(Collection<TopicPartition> assigned) {
+        Map<TopicPartition, Long> positions = new HashMap<>();
+        for (TopicPartition partition : assigned) {
+            PartitionState held = partitions.get(partition);
+            if (held != null) {
+                synchronized (held) {
+                    if (held.appliedOffset >= 0) {
+                        positions.put(partition, held.appliedOffset + 1);
+                    }
+                }
+                continue;
+            }
+            Map<Object, Object> checkpoint = redisTemplate.opsForHash().entries(checkpointKey(partition));
+            PartitionState state = new PartitionState(partition);
+            long now = clock.getAsLong();
+            checkpoint.forEach((field, value) -> {
+                String name = field.toString();
+                int separator = name.indexOf(FIELD_SEPARATOR);
+                if (separator >= 0) {
+                    String matchId = name.substring(0, separator);
+                    state.board(matchId).restore(name.substring(separator + 1), Long.parseLong(value.toString()));
+                    state.lastDrinkMillis.put(matchId, now);
+                }
+            });
+            Object offset = checkpoint.get(OFFSET_FIELD);
+            if (offset != null) {
+                state.appliedOffset = Long.parseLong(offset.toString());
+                state.checkpointedOffset = state.appliedOffset;
+                positions.put(partition, state.appliedOffset + 1);
+            }
+            partitions.put(partition, state);
+            logger.info("Restored {} leaderboard users for {} at offset {}",
+                state.users(), partition, state.appliedOffset);
+        }
+        return positions;
+    }
+
+    /**
+     * Takes over partitions without a checkpoint at the consumer's position, normally the group's
+     * committed offset, and records that as their first checkpoint. Acknowledgements run ahead of
+     * publication in engine mode, so a later owner must resume from this checkpoint rather than
+     * from whatever offset has been committed by then.
+     */
+    public void adopt(Map<TopicPartition, Long> positions) {
+        positions.forEach((partition, position) -> {
+            PartitionState state = partitions.computeIfAbsent(partition, PartitionState::new);
+            synchronized (state) {
+                redisTemplate.opsForHash().put(checkpointKey(partition), OFFSET_FIELD, String.valueOf(position - 1));
+                state.appliedOffset = position - 1;
+                state.checkpointedOffset = position - 1;
+            }
+            logger.info("Adopted {} without a checkpoint at offset {}", partition, position);
+        });
+    }
+
+    /**
+     * Publishes and checkpoints revoked partitions before another instance takes them over.
+     */
+    public synchronized void release(Collection<TopicPartition> revoked) {
+        for (TopicPartition partition : revoked) {
+            PartitionState state = partitions.remove(partition);
+            if (state != null) {
+                try {
+                    snapshot(state);
+                } catch (Exception e) {
+                    // The next owner replays from the previous checkpoint and converges on the same scores.
+                    logger.warn("Failed to checkpoint {} on revocation", partition, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops lost partitions without writing; their new owner may already be publishing them.
+     */
+    public void discard(Collection<TopicPartition> lost) {
+        lost.forEach(partitions::remove);
+    }
+
+    @Scheduled(fixedDelayString = "${wcd.projector.engine.top-k-interval-ms:250}")
+    public synchronized void publishTopK() {
+        for (PartitionState state : partitions.values()) {
+            List<ScoreWrite> writes = new ArrayList<>();
+            synchronized (state) {
+                state.boards.forEach((matchId, board) -> board.forEachTop(topK, id -> {
+                    if (!board.isPublished(id)) {
+                        writes.add(new ScoreWrite(matchId, board, id, board.userId(id), board.score(id)));
+                    }
+                }));
+            }
+            try {
+                publish(state, writes);
+            } catch (Exception e) {
+                publishFailuresCounter.increment();
+                logger.warn("Failed to publish top {} for {}", topK, state.partition, e);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wcd.projector.engine.snapshot-interval-ms:5000}")
+    public synchronized void publishSnapshots() {
+        for (PartitionState state : partitions.values()) {
+            try {
+                snapshot(state);
+                evictIdle(state);
+            } catch (Exception e) {
+                publishFailuresCounter.increment();
+                logger.warn("Failed to publish snapshot for {}", state.partition, e);
+            }
+        }
+    }
+
+    /**
+     * Drops the boards of matches without a drink for {@code idle-eviction-minutes}, and HDELs
+     * their checkpoint fields. Runs right after a successful snapshot, so every dropped score is
+     * already in its ZSET, where {@link #seed} finds it if the user drinks again. The partition
+     * stays locked throughout so no batch can add to a board between the HDEL and its removal.
+     */
+    private void evictIdle(PartitionState state) {
+        long cutoff = clock.getAsLong() - idleEviction.toMillis();
+        synchronized (state) {
+            List<String> idle = state.lastDrinkMillis.entrySet().stream()
+                .filter(entry -> entry.getValue() <= cutoff)
+                .map(Map.Entry::getKey)
+                .toList();
+            if (idle.isEmpty()) {
+                return;
+            }
+            List<Object> fields = new ArrayList<>();
+            for (String matchId : idle) {
+                MatchScoreboard board = state.boards.get(matchId);
+                if (board != null) {
+                    board.forEach(id -> fields.add(field(matchId, board.userId(id))));
+                }
+            }
+            if (!fields.isEmpty()) {
+                redisTemplate.opsForHash().delete(checkpointKey(state.partition), fields.toArray());
+            }
+            idle.forEach(matchId -> {
+                state.boards.remove(matchId);
+                state.lastDrinkMillis.remove(matchId);
+            });
+            evictedCounter.increment(idle.size());
+            logger.info("Evicted {} idle matches from {}", idle.size(), state.partition);
+        }
+    }
+
+    private void snapshot(PartitionState state) {
+        List<ScoreWrite> writes = new ArrayList<>();
+        List<ScoreWrite> changed = new ArrayList<>();
+        long offset;
+        long checkpointedOffset;
+        synchronized (state) {
+            offset = state.appliedOffset;
+            checkpointedOffset = state.checkpointedOffset;
+            state.boards.forEach((matchId, board) -> board.forEach(id -> {
+                if (!board.isPublished(id)) {
+                    writes.add(new ScoreWrite(matchId, board, id, board.userId(id), board.score(id)));
+                }
+                if (!board.isCheckpointed(id)) {
+                    changed.add(new ScoreWrite(matchId, board, id, board.userId(id), board.score(id)));
+                }
+            }));
+        }
+        if (changed.isEmpty() && offset == checkpointedOffset) {
+            return;
+        }
+
+        // Scores first: a checkpoint must never get ahead of what the leaderboard shows, or the
+        // next owner would restore users as published that never reached Redis.
+        publish(state, writes);
+        Map<String, String> fields = new HashMap<>();
+        for (ScoreWrite write : changed) {
+            fields.put(field(write.matchId(), write.userId()), String.valueOf(write.score()));
+        }
+        fields.put(OFFSET_FIELD, String.valueOf(offset));
+        redisTemplate.opsForHash().putAll(checkpointKey(state.partition), fields);
+
+        synchronized (state) {
+            changed.forEach(write -> write.board().markCheckpointed(write.id(), write.score()));
+            state.checkpointedOffset = offset;
+        }
+        logger.debug("Checkpointed {} changed scores for {} at offset {}", changed.size(), state.partition, offset);
+    }
+
+    private void publish(PartitionState state, List<ScoreWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (ScoreWrite write : writes) {
+                    String key = LeaderboardKeys.key(write.matchId(), write.userId(), leaderboardShards);
+                    ops.opsForZSet().add(key, write.userId(), write.score());
+                }
+                return null;
+            }
+        });
+        synchronized (state) {
+            writes.forEach(write -> write.board().markPublished(write.id(), write.score()));
+        }
+        publishedCounter.increment(writes.size());
+    }
+
+    private String checkpointKey(TopicPartition partition) {
+        return CHECKPOINT_PREFIX + groupId + ":" + partition.topic() + ":" + partition.partition();
+    }
+
+    private static String field(String matchId, String userId) {
+        return matchId + FIELD_SEPARATOR + userId;
+    }
+
+    private record ScoreWrite(String matchId, MatchScoreboard board, int id, String userId, long score) {
+    }
+
+    private static final class PartitionState {
+        private final TopicPartition partition;
+        private final Map<String, MatchScoreboard> boards = new HashMap<>();
+        private final Map<String, Long> lastDrinkMillis = new HashMap<>();
+        private long appliedOffset = -1;
+        private long checkpointedOffset = -1;
+
+        private PartitionState(TopicPartition partition) {
+            this.partition = partition;
+        }
+
+        private MatchScoreboard board(String matchId) {
+            return boards.computeIfAbsent(matchId, key -> new MatchScoreboard());
+        }
+
+        private synchronized int users() {
+            return boards.values().stream().mapToInt(MatchScoreboard::size).sum();
+        }
+    }
+}
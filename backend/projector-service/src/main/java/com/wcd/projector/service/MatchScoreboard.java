@@ -0,0 +1,227 @@
+package com.wcd.projector.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * One match's scores for the users of one partition, kept in leaderboard order.
+ *
+ * <p>User ids are interned to dense ints and every per-user field lives in a primitive array, so
+ * an update allocates nothing once a user has been seen. Ordering is a treap (updates in
+ * O(log n), top-K in O(log n + k)) that matches ZREVRANGE: higher scores first, ties in reverse
+ * lexicographic order of the user id.
+ *
+ * <p>Alongside the live score it remembers the last score published to the leaderboard ZSET and
+ * the last score written to the checkpoint, so the engine can find what changed without a
+ * separate dirty set. Not thread-safe; {@link LeaderboardEngine} guards it per partition.
+ */
+final class MatchScoreboard {
+
+    private static final int NONE = -1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private String[] userIds = new String[16];
+    private long[] scores = new long[16];
+    private long[] published = new long[16];
+    private long[] checkpointed = new long[16];
+    private int[] priority = new int[16];
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int count;
+    private int root = NONE;
+
+    int size() {
+        return count;
+    }
+
+    boolean contains(String userId) {
+        return ids.containsKey(userId);
+    }
+
+    /**
+     * Adds {@code delta} to the user's score, creating the user at 0 if needed, and returns the
+     * user's id.
+     */
+    int add(String userId, long delta) {
+        Integer existing = ids.get(userId);
+        if (existing == null) {
+            return insertNew(userId, delta, 0);
+        }
+        int id = existing;
+        root = remove(root, id);
+        scores[id] += delta;
+        detach(id);
+        root = insert(root, id);
+        return id;
+    }
+
+    /**
+     * Sets a user's score as already published and checkpointed, as read back from a checkpoint.
+     */
+    void restore(String userId, long score) {
+        Integer existing = ids.get(userId);
+        if (existing != null) {
+            add(userId, score - scores[existing]);
+            published[existing] = score;
+            checkpointed[existing] = score;
+        } else {
+            insertNew(userId, score, score);
+        }
+    }
+
+    String userId(int id) {
+        return userIds[id];
+    }
+
+    long score(int id) {
+        return scores[id];
+    }
+
+    /**
+     * Visits the ids of the first {@code k} users in leaderboard order.
+     */
+    void forEachTop(int k, IntConsumer action) {
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = root;
+        int visited = 0;
+        while (visited < k && (node != NONE || depth > 0)) {
+            while (node != NONE) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = left[node];
+            }
+            node = stack[--depth];
+            action.accept(node);
+            visited++;
+            node = right[node];
+        }
+    }
+
+    void forEach(IntConsumer action) {
+        for (int id = 0; id < count; id++) {
+            action.accept(id);
+        }
+    }
+
+    boolean isPublished(int id) {
+        return published[id] == scores[id];
+    }
+
+    void markPublished(int id, long score) {
+        published[id] = score;
+    }
+
+    boolean isCheckpointed(int id) {
+        return checkpointed[id] == scores[id];
+    }
+
+    void markCheckpointed(int id, long score) {
+        checkpointed[id] = score;
+    }
+
+    private int insertNew(String userId, long score, long persisted) {
+        if (count == userIds.length) {
+            grow();
+        }
+        int id = count++;
+        ids.put(userId, id);
+        userIds[id] = userId;
+        scores[id] = score;
+        published[id] = persisted;
+        checkpointed[id] = persisted;
+        priority[id] = random.nextInt();
+        detach(id);
+        root = insert(root, id);
+        return id;
+    }
+
+    private void grow() {
+        int capacity = userIds.length * 2;
+        userIds = Arrays.copyOf(userIds, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+        published = Arrays.copyOf(published, capacity);
+        checkpointed = Arrays.copyOf(checkpointed, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+    }
+
+    private void detach(int id) {
+        left[id] = NONE;
+        right[id] = NONE;
+    }
+
+    private boolean before(int a, int b) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        return userIds[a].compareTo(userIds[b]) > 0;
+    }
+
+    private int insert(int node, int id) {
+        if (node == NONE) {
+            return id;
+        }
+        if (before(id, node)) {
+            left[node] = insert(left[node], id);
+            if (priority[left[node]] > priority[node]) {
+                node = rotateRight(node);
+            }
+        } else {
+            right[node] = insert(right[node], id);
+            if (priority[right[node]] > priority[node]) {
+                node = rotateLeft(node);
+            }
+        }
+        return node;
+    }
+
+    // Must run before the user's score changes, so the search follows the path it was inserted on.
+    private int remove(int node, int id) {
+        if (node == id) {
+            return merge(left[node], right[node]);
+        }
+        if (before(id, node)) {
+            left[node] = remove(left[node], id);
+        } else {
+            right[node] = remove(right[node], id);
+        }
+        return node;
+    }
+
+    private int merge(int a, int b) {
+        if (a == NONE) {
+            return b;
+        }
+        if (b == NONE) {
+            return a;
+        }
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        return b;
+    }
+
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        return pivot;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        return pivot;
+    }
+}
@@ -1,55 +1,250 @@
 package com.wcd.projector.service;
 
 import com.wcd.common.events.GameActionV1;
+import com.wcd.common.leaderboard.LeaderboardKeys;
+import com.wcd.common.uniques.UniquesKeys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 @Service
 public class ProjectionService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProjectionService.class);
-    private static final DateTimeFormatter MINUTE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmm")
-        .withZone(ZoneId.of("UTC"));
+    private static final String PRESENCE_KEY = "presence:online";
+    // Every region with a presence set, shared by all projector instances so restarts keep trimming them.
+    private static final String PRESENCE_REGIONS_KEY = "presence:regions";
 
     private final RedisTemplate<String, String> redisTemplate;
     private final int presenceTtlSeconds;
+    private final Duration regionPresenceTtl;
+    private final int leaderboardShards;
+    private final Duration uniquesMinuteTtl;
+    private final Duration uniquesHourTtl;
+    private final Duration windowBucketTtl;
+    private final Set<String> presenceRegions = ConcurrentHashMap.newKeySet();
+    private final KeyExpiryTracker expiryTracker = new KeyExpiryTracker();
 
     public ProjectionService(
         RedisTemplate<String, String> redisTemplate,
-        @Value("${wcd.redis.presence-ttl-seconds}") int presenceTtlSeconds
+        @Value("${wcd.redis.presence-ttl-seconds}") int presenceTtlSeconds,
+        @Value("${wcd.leaderboard.shards:1}") int leaderboardShards,
+        @Value("${wcd.redis.uniques-minute-ttl-minutes:180}") long uniquesMinuteTtlMinutes,
+        @Value("${wcd.redis.uniques-hour-ttl-hours:48}") long uniquesHourTtlHours,
+        @Value("${wcd.leaderboard.window.bucket-ttl-minutes:240}") long windowBucketTtlMinutes
     ) {
         this.redisTemplate = redisTemplate;
         this.presenceTtlSeconds = presenceTtlSeconds;
+        // The tracker re-sends EXPIRE once half the TTL has passed, so a region set outlives its
+        // newest member by at least the presence TTL and only expires once nobody in it is online.
+        this.regionPresenceTtl = Duration.ofSeconds(presenceTtlSeconds * 2L);
+        this.leaderboardShards = leaderboardShards;
+        this.uniquesMinuteTtl = Duration.ofMinutes(uniquesMinuteTtlMinutes);
+        this.uniquesHourTtl = Duration.ofHours(uniquesHourTtlHours);
+        this.windowBucketTtl = Duration.ofMinutes(windowBucketTtlMinutes);
     }
 
     public void updatePresence(GameActionV1 event) {
-        String key = "presence:" + event.getUserId();
-        redisTemplate.opsForValue().set(key, event.getRegion(), presenceTtlSeconds, TimeUnit.SECONDS);
+        List<String> expiring = new ArrayList<>();
+        try {
+            writePresence(redisTemplate, event, expiring);
+        } catch (RuntimeException e) {
+            expiryTracker.release(expiring);
+            throw e;
+        }
         logger.debug("Updated presence for user {}: region={}", event.getUserId(), event.getRegion());
     }
 
     public void updateLeaderboard(GameActionV1 event) {
-        String key = "leaderboard:" + event.getMatchId();
-        redisTemplate.opsForZSet().incrementScore(key, event.getUserId(), event.getAmount());
+        writeLeaderboard(redisTemplate, event);
         logger.debug("Updated leaderboard for match {}: user={}, amount={}",
             event.getMatchId(), event.getUserId(), event.getAmount());
     }
 
     public void updateUniques(GameActionV1 event) {
+        pipelineWithExpiries((ops, expiring) -> writeUniques(ops, event, expiring));
+        logger.debug("Updated uniques for user {}", event.getUserId());
+    }
+
+    /**
+     * Leaderboard increment, windowed bucket and every uniques write for one drink, in a single
+     * pipelined round-trip.
+     */
+    public void updateDrink(GameActionV1 event) {
+        pipelineWithExpiries((ops, expiring) -> {
+            writeLeaderboard(ops, event);
+            writeWindowBucket(ops, event, expiring);
+            writeUniques(ops, event, expiring);
+        });
+        logger.debug("Projected drink for match {}: user={}, amount={}",
+            event.getMatchId(), event.getUserId(), event.getAmount());
+    }
+
+    public void projectBatch(List<GameActionV1> events) {
+        projectBatch(events, true);
+    }
+
+    public void projectBatch(List<GameActionV1> events, boolean includeLeaderboard) {
+        pipelineWithExpiries((ops, expiring) -> {
+            for (GameActionV1 event : events) {
+                if ("HEARTBEAT".equals(event.getAction())) {
+                    writePresence(ops, event, expiring);
+                } else if ("DRINK".equals(event.getAction())) {
+                    if (includeLeaderboard) {
+                        writeLeaderboard(ops, event);
+                    }
+                    // Window buckets are written here in every leaderboard mode; they feed "hot right
+                    // now" views, so at-least-once is acceptable even in idempotent mode.
+                    writeWindowBucket(ops, event, expiring);
+                    writeUniques(ops, event, expiring);
+                }
+            }
+        });
+        logger.debug("Projected batch of {} events", events.size());
+    }
+
+    public void incrementLeaderboards(Map<ScoreKey, Long> increments) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                increments.forEach((key, amount) ->
+                    ops.opsForZSet().incrementScore(leaderboardKey(key.matchId(), key.userId()), key.userId(), amount));
+                return null;
+            }
+        });
+        logger.debug("Applied {} leaderboard increments", increments.size());
+    }
+
+    /**
+     * Drops presence entries older than the TTL from the global set and from every indexed region.
+     * Trimming deletes a set it empties, and idle region sets expire, so regions whose set is gone
+     * leave the index. A region that comes back in between is added again by its next heartbeat,
+     * once this instance's trim has dropped it from the local cache too.
+     */
+    @Scheduled(fixedDelayString = "${wcd.redis.presence-trim-interval-ms:10000}")
+    public void trimPresence() {
+        long cutoff = System.currentTimeMillis() - presenceTtlSeconds * 1000L;
+        Set<String> indexed = redisTemplate.opsForSet().members(PRESENCE_REGIONS_KEY);
+        List<String> regions = indexed != null ? new ArrayList<>(indexed) : List.of();
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.opsForZSet().removeRangeByScore(PRESENCE_KEY, Double.NEGATIVE_INFINITY, cutoff);
+                for (String region : regions) {
+                    String key = PRESENCE_KEY + ":" + region;
+                    ops.opsForZSet().removeRangeByScore(key, Double.NEGATIVE_INFINITY, cutoff);
+                    ops.opsForZSet().zCard(key);
+                }
+                return null;
+            }
+        });
+
+        List<String> gone = new ArrayList<>();
+        for (int i = 0; i < regions.size(); i++) {
+            int index = 2 + 2 * i;
+            if (index < results.size() && results.get(index) instanceof Number size && size.longValue() == 0) {
+                gone.add(regions.get(i));
+            }
+        }
+        if (!gone.isEmpty()) {
+            redisTemplate.opsForSet().remove(PRESENCE_REGIONS_KEY, gone.toArray());
+        }
+        presenceRegions.retainAll(regions);
+        gone.forEach(presenceRegions::remove);
+        logger.debug("Trimmed presence entries last seen before {}; {} regions left the index", cutoff, gone.size());
+    }
+
+    @Scheduled(fixedDelayString = "${wcd.redis.expiry-tracker-prune-interval-ms:60000}")
+    public void pruneExpiryTracker() {
+        expiryTracker.prune();
+    }
+
+    private void writePresence(RedisOperations<String, String> operations, GameActionV1 event, List<String> expiring) {
+        long lastSeen = event.getTimestamp() > 0 ? event.getTimestamp() : System.currentTimeMillis();
+        operations.opsForZSet().add(PRESENCE_KEY, event.getUserId(), lastSeen);
+        if (event.getRegion() != null) {
+            String key = PRESENCE_KEY + ":" + event.getRegion();
+            operations.opsForZSet().add(key, event.getUserId(), lastSeen);
+            expireOnce(operations, key, regionPresenceTtl, expiring);
+            if (presenceRegions.add(event.getRegion())) {
+                operations.opsForSet().add(PRESENCE_REGIONS_KEY, event.getRegion());
+            }
+        }
+    }
+
+    private void writeLeaderboard(RedisOperations<String, String> operations, GameActionV1 event) {
+        String key = leaderboardKey(event.getMatchId(), event.getUserId());
+        operations.opsForZSet().incrementScore(key, event.getUserId(), event.getAmount());
+    }
+
+    private String leaderboardKey(String matchId, String userId) {
+        return LeaderboardKeys.key(matchId, userId, leaderboardShards);
+    }
+
+    private void writeWindowBucket(RedisOperations<String, String> operations, GameActionV1 event, List<String> expiring) {
+        if (windowBucketTtl.isZero()) {
+            return;
+        }
+        String key = LeaderboardKeys.windowBucketKey(event.getMatchId(), Instant.ofEpochMilli(event.getTimestamp()));
+        operations.opsForZSet().incrementScore(key, event.getUserId(), event.getAmount());
+        expireOnce(operations, key, windowBucketTtl, expiring);
+    }
+
+    private void writeUniques(RedisOperations<String, String> operations, GameActionV1 event, List<String> expiring) {
         Instant timestamp = Instant.ofEpochMilli(event.getTimestamp());
-        String minuteKey = MINUTE_FORMATTER.format(timestamp);
-        String key = "uniques:" + minuteKey;
+        for (String scope : UniquesKeys.scopesFor(event.getMatchId(), event.getRegion())) {
+            String minuteKey = UniquesKeys.minuteKey(scope, timestamp);
+            String hourKey = UniquesKeys.hourKey(scope, timestamp);
+            operations.opsForHyperLogLog().add(minuteKey, event.getUserId());
+            expireOnce(operations, minuteKey, uniquesMinuteTtl, expiring);
+            operations.opsForHyperLogLog().add(hourKey, event.getUserId());
+            expireOnce(operations, hourKey, uniquesHourTtl, expiring);
+        }
+    }
+
+    private void expireOnce(RedisOperations<String, String> operations, String key, Duration ttl, List<String> expiring) {
+        if (expiryTracker.claim(key, ttl)) {
+            operations.expire(key, ttl);
+            expiring.add(key);
+        }
+    }
 
-        redisTemplate.opsForHyperLogLog().add(key, event.getUserId());
-        redisTemplate.expire(key, 1, TimeUnit.HOURS);
-        logger.debug("Updated uniques for minute {}: user={}", minuteKey, event.getUserId());
+    /**
+     * Runs {@code writes} in one pipeline. Keys whose EXPIRE was queued are handed back to the
+     * tracker if the pipeline fails, so the next write to them sends it again.
+     */
+    private void pipelineWithExpiries(BiConsumer<RedisOperations<String, String>, List<String>> writes) {
+        List<String> expiring = new ArrayList<>();
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    writes.accept((RedisOperations<String, String>) operations, expiring);
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            expiryTracker.release(expiring);
+            throw e;
+        }
     }
 }
@@ -0,0 +1,102 @@
+package com.wcd.projector.service;
+
+import com.wcd.common.events.GameActionV1;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Hands events that failed projection to the retry topic, or straight to the dead-letter topic
+ * when retrying cannot help. Sends are awaited so the caller only acknowledges the original
+ * records once Kafka holds the copies; if that fails the exception reaches the listener container.
+ * Copies keep the consumed record's key, so a user's retries stay together on the retry topic.
+ */
+@Service
+public class RetryPublisher {
+
+    public static final String DLT_REASON_HEADER = "wcd-dlt-reason";
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private final KafkaTemplate<String, GameActionV1> kafkaTemplate;
+    private final String retryTopic;
+    private final String deadLetterTopic;
+    private final Counter forwardedCounter;
+    private final Counter deadLetteredCounter;
+
+    public RetryPublisher(
+        KafkaTemplate<String, GameActionV1> kafkaTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${wcd.topic.game-actions-retry}") String retryTopic
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.retryTopic = retryTopic;
+        this.deadLetterTopic = deadLetterTopic(retryTopic);
+        this.forwardedCounter = Counter.builder("wcd.projector.retry.forwarded")
+            .description("Events forwarded to the retry topic after a failed projection")
+            .register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("wcd.projector.dlt.forwarded")
+            .description("Events sent straight to the dead-letter topic as not retryable")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Name of the dead-letter topic the retry listener's {@code @RetryableTopic} chain ends in.
+     */
+    public static String deadLetterTopic(String retryTopic) {
+        return retryTopic + "-dlt";
+    }
+
+    public void forward(ConsumerRecord<String, GameActionV1> record) {
+        forwardAll(List.of(record));
+    }
+
+    public void forwardAll(List<ConsumerRecord<String, GameActionV1>> records) {
+        List<CompletableFuture<SendResult<String, GameActionV1>>> sends = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, GameActionV1> record : records) {
+            sends.add(kafkaTemplate.send(retryTopic, keyOf(record), record.value()));
+        }
+        await(sends);
+        forwardedCounter.increment(records.size());
+    }
+
+    public void deadLetter(ConsumerRecord<String, GameActionV1> source, String reason) {
+        ProducerRecord<String, GameActionV1> record =
+            new ProducerRecord<>(deadLetterTopic, keyOf(source), source.value());
+        record.headers().add(DLT_REASON_HEADER, reason.getBytes(StandardCharsets.UTF_8));
+        await(List.of(kafkaTemplate.send(record)));
+        deadLetteredCounter.increment();
+    }
+
+    /**
+     * Records from before ingest set keys have none; those fall back to the user, as ingest's
+     * default partitioning does.
+     */
+    private static String keyOf(ConsumerRecord<String, GameActionV1> record) {
+        return record.key() != null ? record.key() : record.value().getUserId();
+    }
+
+    private static void await(List<CompletableFuture<SendResult<String, GameActionV1>>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                .get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while forwarding events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to forward events for retry", e);
+        }
+    }
+}
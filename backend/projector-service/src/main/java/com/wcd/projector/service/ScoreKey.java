@@ -0,0 +1,4 @@
+package com.wcd.projector.service;
+
+public record ScoreKey(String matchId, String userId) {
+}
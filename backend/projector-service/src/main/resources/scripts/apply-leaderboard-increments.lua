@@ -0,0 +1,20 @@
+-- Applies leaderboard increments from one Kafka partition at most once.
+-- KEYS[1]          hash of the last applied offset per partition
+-- KEYS[2..n]       leaderboard sorted set for each increment
+-- ARGV[1]          partition
+-- ARGV[2]          highest offset covered by this call
+-- ARGV[3i..3i+2]   offset, member, amount for KEYS[i + 1]
+-- Returns the number of increments applied; the rest were replays.
+local applied = tonumber(redis.call('HGET', KEYS[1], ARGV[1])) or -1
+local count = 0
+for i = 2, #KEYS do
+    local base = 3 * (i - 1)
+    if tonumber(ARGV[base]) > applied then
+        redis.call('ZINCRBY', KEYS[i], ARGV[base + 2], ARGV[base + 1])
+        count = count + 1
+    end
+end
+if tonumber(ARGV[2]) > applied then
+    redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+end
+return count
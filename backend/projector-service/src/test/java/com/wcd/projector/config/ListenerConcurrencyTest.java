@@ -0,0 +1,28 @@
+package com.wcd.projector.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListenerConcurrencyTest {
+
+    @Test
+    void resolve_NeverExceedsPartitionCount() {
+        assertEquals(6, ListenerConcurrency.resolve(6, 8, 2));
+    }
+
+    @Test
+    void resolve_CapsAtThreadsPerProcessor() {
+        assertEquals(4, ListenerConcurrency.resolve(24, 2, 2));
+    }
+
+    @Test
+    void resolve_UnknownPartitions_UsesProcessorCeiling() {
+        assertEquals(8, ListenerConcurrency.resolve(0, 4, 2));
+    }
+
+    @Test
+    void resolve_AlwaysAtLeastOneThread() {
+        assertEquals(1, ListenerConcurrency.resolve(12, 1, 0));
+    }
+}
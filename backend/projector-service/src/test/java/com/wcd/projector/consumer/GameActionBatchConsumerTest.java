@@ -0,0 +1,229 @@
+package com.wcd.projector.consumer;
+
+import com.wcd.common.events.GameActionV1;
+import com.wcd.projector.service.IdempotentLeaderboardWriter;
+import com.wcd.projector.service.LeaderboardAggregator;
+import com.wcd.projector.service.LeaderboardEngine;
+import com.wcd.projector.service.ProjectionService;
+import com.wcd.projector.service.RetryPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameActionBatchConsumerTest {
+
+    @Mock
+    private ProjectionService projectionService;
+
+    @Mock
+    private RetryPublisher retryPublisher;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private MeterRegistry meterRegistry;
+    private GameActionBatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new GameActionBatchConsumer(projectionService, Optional.empty(), Optional.empty(), Optional.empty(), retryPublisher, meterRegistry);
+    }
+
+    @Test
+    void consumeBatch_ProjectsWholeBatchOnce() {
+        List<GameActionV1> events = List.of(
+            createEvent("user-1", "HEARTBEAT", 0),
+            createEvent("user-2", "DRINK", 2),
+            createEvent("user-3", "DRINK", 1)
+        );
+
+        consumer.consumeBatch(records(events), acknowledgment);
+
+        verify(projectionService, times(1)).projectBatch(events);
+        verify(projectionService, never()).updatePresence(any());
+        verify(projectionService, never()).updateLeaderboard(any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void consumeBatch_IncrementsCountersPerAction() {
+        consumer.consumeBatch(records(List.of(
+            createEvent("user-1", "HEARTBEAT", 0),
+            createEvent("user-2", "DRINK", 2),
+            createEvent("user-3", "UNKNOWN", 0)
+        )), acknowledgment);
+
+        assertEquals(1.0, meterRegistry.find("wcd.projector.heartbeat").counter().count());
+        assertEquals(1.0, meterRegistry.find("wcd.projector.drink").counter().count());
+        assertEquals(1L, meterRegistry.find("wcd.projector.batch.size").summary().count());
+    }
+
+    @Test
+    void consumeBatch_UnknownAction_SendsToDeadLetterTopic() {
+        List<ConsumerRecord<String, GameActionV1>> records =
+            records(List.of(createEvent("user-1", "DRINK", 1), createEvent("user-3", "UNKNOWN", 0)));
+
+        consumer.consumeBatch(records, acknowledgment);
+
+        InOrder inOrder = inOrder(projectionService, retryPublisher, acknowledgment);
+        inOrder.verify(projectionService).projectBatch(anyList());
+        inOrder.verify(retryPublisher).deadLetter(eq(records.get(1)), anyString());
+        inOrder.verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void consumeBatch_RedeliveredBatch_DeadLettersUnknownActionOnlyOnceHandled() {
+        List<ConsumerRecord<String, GameActionV1>> records =
+            records(List.of(createEvent("user-1", "DRINK", 1), createEvent("user-3", "UNKNOWN", 0)));
+        doThrow(new QueryTimeoutException("Command timed out")).when(projectionService).projectBatch(anyList());
+
+        assertThrows(QueryTimeoutException.class, () -> consumer.consumeBatch(records, acknowledgment));
+        verify(retryPublisher, never()).deadLetter(any(), anyString());
+    }
+
+    @Test
+    void consumeBatch_RedisUnreachable_ForwardsToRetryTopicAndAcks() {
+        List<ConsumerRecord<String, GameActionV1>> records =
+            records(List.of(createEvent("user-1", "DRINK", 1), createEvent("user-3", "UNKNOWN", 0)));
+        doThrow(new RedisConnectionFailureException("Connection refused")).when(projectionService).projectBatch(anyList());
+
+        assertDoesNotThrow(() -> consumer.consumeBatch(records, acknowledgment));
+        assertEquals(0.0, meterRegistry.find("wcd.projector.drink").counter().count());
+        verify(retryPublisher).forwardAll(List.of(records.get(0)));
+        verify(retryPublisher).deadLetter(eq(records.get(1)), anyString());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void consumeBatch_PipelineFailsPartway_PropagatesForRedeliveryWithoutForwarding() {
+        List<GameActionV1> events = List.of(createEvent("user-1", "DRINK", 1));
+        doThrow(new QueryTimeoutException("Command timed out")).when(projectionService).projectBatch(anyList());
+
+        assertThrows(QueryTimeoutException.class, () -> consumer.consumeBatch(records(events), acknowledgment));
+        verify(retryPublisher, never()).forwardAll(anyList());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void consumeBatch_RetryForwardFails_PropagatesWithoutAck() {
+        List<ConsumerRecord<String, GameActionV1>> records = records(List.of(createEvent("user-1", "DRINK", 1)));
+        doThrow(new RedisConnectionFailureException("Connection refused")).when(projectionService).projectBatch(anyList());
+        doThrow(new IllegalStateException("Kafka unavailable")).when(retryPublisher).forwardAll(records);
+
+        assertThrows(IllegalStateException.class, () -> consumer.consumeBatch(records, acknowledgment));
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void consumeBatch_WithAggregator_DefersLeaderboardAndAck() {
+        LeaderboardAggregator aggregator = mock(LeaderboardAggregator.class);
+        consumer = new GameActionBatchConsumer(projectionService, Optional.of(aggregator), Optional.empty(), Optional.empty(), retryPublisher, meterRegistry);
+        List<GameActionV1> events = List.of(createEvent("user-1", "DRINK", 2));
+
+        consumer.consumeBatch(records(events), acknowledgment);
+
+        verify(projectionService).projectBatch(events, false);
+        verify(aggregator).add(events);
+        verify(aggregator).acknowledgeAfterFlush(acknowledgment);
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void consumeBatch_WithIdempotentWriter_AppliesRecordsThenAcks() {
+        IdempotentLeaderboardWriter writer = mock(IdempotentLeaderboardWriter.class);
+        consumer = new GameActionBatchConsumer(projectionService, Optional.empty(), Optional.of(writer), Optional.empty(), retryPublisher, meterRegistry);
+        List<GameActionV1> events = List.of(createEvent("user-1", "DRINK", 2));
+        List<ConsumerRecord<String, GameActionV1>> records = records(events);
+
+        consumer.consumeBatch(records, acknowledgment);
+
+        InOrder inOrder = inOrder(projectionService, writer, acknowledgment);
+        inOrder.verify(projectionService).projectBatch(events, false);
+        inOrder.verify(writer).apply(records);
+        inOrder.verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void consumeBatch_WithIdempotentWriter_PropagatesFailuresForRedelivery() {
+        IdempotentLeaderboardWriter writer = mock(IdempotentLeaderboardWriter.class);
+        consumer = new GameActionBatchConsumer(projectionService, Optional.empty(), Optional.of(writer), Optional.empty(), retryPublisher, meterRegistry);
+        List<ConsumerRecord<String, GameActionV1>> records = records(List.of(createEvent("user-1", "DRINK", 2)));
+        doThrow(new RuntimeException("Redis unavailable")).when(writer).apply(records);
+
+        assertThrows(RuntimeException.class, () -> consumer.consumeBatch(records, acknowledgment));
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void consumeBatch_WithEngine_AppliesRecordsThenProjectsRestThenAcks() {
+        LeaderboardEngine engine = mock(LeaderboardEngine.class);
+        consumer = new GameActionBatchConsumer(projectionService, Optional.empty(), Optional.empty(), Optional.of(engine), retryPublisher, meterRegistry);
+        List<GameActionV1> events = List.of(createEvent("user-1", "DRINK", 2));
+        List<ConsumerRecord<String, GameActionV1>> records = records(events);
+
+        consumer.consumeBatch(records, acknowledgment);
+
+        InOrder inOrder = inOrder(projectionService, engine, acknowledgment);
+        inOrder.verify(engine).apply(records);
+        inOrder.verify(projectionService).projectBatch(events, false);
+        inOrder.verify(acknowledgment).acknowledge();
+        verifyNoInteractions(retryPublisher);
+    }
+
+    @Test
+    void consumeBatch_WithEngine_RedisFailureStillAppliesRecords() {
+        LeaderboardEngine engine = mock(LeaderboardEngine.class);
+        consumer = new GameActionBatchConsumer(projectionService, Optional.empty(), Optional.empty(), Optional.of(engine), retryPublisher, meterRegistry);
+        List<GameActionV1> events = List.of(createEvent("user-1", "DRINK", 2));
+        List<ConsumerRecord<String, GameActionV1>> records = records(events);
+        doThrow(new RuntimeException("Redis unavailable")).when(projectionService).projectBatch(events, false);
+
+        assertThrows(RuntimeException.class, () -> consumer.consumeBatch(records, acknowledgment));
+        verify(engine).apply(records);
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void consumeBatch_SkipsNullValues() {
+        GameActionV1 event = createEvent("user-1", "DRINK", 2);
+        List<ConsumerRecord<String, GameActionV1>> records = List.of(
+            new ConsumerRecord<>("game.actions", 0, 0L, "user-0", null),
+            new ConsumerRecord<>("game.actions", 0, 1L, "user-1", event)
+        );
+
+        consumer.consumeBatch(records, acknowledgment);
+
+        verify(projectionService).projectBatch(List.of(event));
+    }
+
+    private List<ConsumerRecord<String, GameActionV1>> records(List<GameActionV1> events) {
+        List<ConsumerRecord<String, GameActionV1>> records = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            records.add(new ConsumerRecord<>("game.actions", 0, i, events.get(i).getUserId(), events.get(i)));
+        }
+        return records;
+    }
+
+    private GameActionV1 createEvent(String userId, String action, int amount) {
+        return new GameActionV1(userId, "EU", "match-1", action, amount, System.currentTimeMillis());
+    }
+}
@@ -2,9 +2,11 @@ package com.wcd.projector.consumer;
 
 import com.wcd.common.events.GameActionV1;
 import com.wcd.projector.service.ProjectionService;
+import com.wcd.projector.service.RetryPublisher;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,24 +22,26 @@ class GameActionConsumerTest {
     @Mock
     private ProjectionService projectionService;
 
+    @Mock
+    private RetryPublisher retryPublisher;
+
     private MeterRegistry meterRegistry;
     private GameActionConsumer consumer;
 
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
-        consumer = new GameActionConsumer(projectionService, meterRegistry);
+        consumer = new GameActionConsumer(projectionService, retryPublisher, meterRegistry);
     }
 
     @Test
     void consume_HeartbeatEvent_UpdatesPresence() {
         GameActionV1 event = createEvent("user-1", "EU", "match-1", "HEARTBEAT", 0);
 
-        consumer.consume(event);
+        consumer.consume(record(event));
 
         verify(projectionService).updatePresence(event);
-        verify(projectionService, never()).updateLeaderboard(any());
-        verify(projectionService, never()).updateUniques(any());
+        verify(projectionService, never()).updateDrink(any());
     }
 
     @Test
@@ -45,7 +49,7 @@ class GameActionConsumerTest {
         GameActionV1 event = createEvent("user-1", "EU", "match-1", "HEARTBEAT", 0);
         double initialCount = getCounterValue("wcd.projector.heartbeat");
 
-        consumer.consume(event);
+        consumer.consume(record(event));
 
         double newCount = getCounterValue("wcd.projector.heartbeat");
         assertEquals(initialCount + 1, newCount);
@@ -55,10 +59,9 @@ class GameActionConsumerTest {
     void consume_DrinkEvent_UpdatesLeaderboardAndUniques() {
         GameActionV1 event = createEvent("user-2", "NA", "match-1", "DRINK", 2);
 
-        consumer.consume(event);
+        consumer.consume(record(event));
 
-        verify(projectionService).updateLeaderboard(event);
-        verify(projectionService).updateUniques(event);
+        verify(projectionService).updateDrink(event);
         verify(projectionService, never()).updatePresence(any());
     }
 
@@ -67,42 +70,60 @@ class GameActionConsumerTest {
         GameActionV1 event = createEvent("user-2", "NA", "match-1", "DRINK", 2);
         double initialCount = getCounterValue("wcd.projector.drink");
 
-        consumer.consume(event);
+        consumer.consume(record(event));
 
         double newCount = getCounterValue("wcd.projector.drink");
         assertEquals(initialCount + 1, newCount);
     }
 
     @Test
-    void consume_UnknownAction_DoesNothing() {
+    void consume_UnknownAction_SendsToDeadLetterTopic() {
         GameActionV1 event = createEvent("user-3", "APAC", "match-1", "UNKNOWN_ACTION", 0);
 
-        consumer.consume(event);
+        ConsumerRecord<String, GameActionV1> record = record(event);
+
+        consumer.consume(record);
 
         verify(projectionService, never()).updatePresence(any());
-        verify(projectionService, never()).updateLeaderboard(any());
-        verify(projectionService, never()).updateUniques(any());
+        verify(projectionService, never()).updateDrink(any());
+        verify(retryPublisher).deadLetter(eq(record), anyString());
+        verify(retryPublisher, never()).forward(any());
     }
 
     @Test
     void consume_NullAction_DoesNothing() {
         GameActionV1 event = createEvent("user-4", "EU", "match-1", null, 0);
 
+        ConsumerRecord<String, GameActionV1> record = record(event);
+
         // Should not throw exception
-        assertDoesNotThrow(() -> consumer.consume(event));
+        assertDoesNotThrow(() -> consumer.consume(record));
 
         verify(projectionService, never()).updatePresence(any());
-        verify(projectionService, never()).updateLeaderboard(any());
-        verify(projectionService, never()).updateUniques(any());
+        verify(projectionService, never()).updateDrink(any());
+        verify(retryPublisher).deadLetter(eq(record), anyString());
     }
 
     @Test
-    void consume_ServiceThrowsException_HandlesGracefully() {
+    void consume_ServiceThrowsException_ForwardsToRetryTopic() {
         GameActionV1 event = createEvent("user-5", "EU", "match-1", "HEARTBEAT", 0);
+        ConsumerRecord<String, GameActionV1> record = record(event);
         doThrow(new RuntimeException("Redis unavailable")).when(projectionService).updatePresence(any());
 
-        // Should not throw exception - it's handled internally
-        assertDoesNotThrow(() -> consumer.consume(event));
+        // Should not throw exception - the event is handed to the retry topic
+        assertDoesNotThrow(() -> consumer.consume(record));
+        verify(retryPublisher).forward(record);
+        assertEquals(0.0, getCounterValue("wcd.projector.heartbeat"));
+    }
+
+    @Test
+    void consume_RetryForwardFails_PropagatesForRedelivery() {
+        GameActionV1 event = createEvent("user-5", "EU", "match-1", "DRINK", 1);
+        ConsumerRecord<String, GameActionV1> record = record(event);
+        doThrow(new RuntimeException("Redis unavailable")).when(projectionService).updateDrink(any());
+        doThrow(new IllegalStateException("Kafka unavailable")).when(retryPublisher).forward(record);
+
+        assertThrows(IllegalStateException.class, () -> consumer.consume(record));
     }
 
     @Test
@@ -111,9 +132,9 @@ class GameActionConsumerTest {
         GameActionV1 event2 = createEvent("user-2", "NA", "match-1", "HEARTBEAT", 0);
         GameActionV1 event3 = createEvent("user-3", "APAC", "match-1", "HEARTBEAT", 0);
 
-        consumer.consume(event1);
-        consumer.consume(event2);
-        consumer.consume(event3);
+        consumer.consume(record(event1));
+        consumer.consume(record(event2));
+        consumer.consume(record(event3));
 
         verify(projectionService, times(3)).updatePresence(any());
     }
@@ -124,12 +145,11 @@ class GameActionConsumerTest {
         GameActionV1 event2 = createEvent("user-1", "EU", "match-1", "DRINK", 2);
         GameActionV1 event3 = createEvent("user-1", "EU", "match-1", "DRINK", 3);
 
-        consumer.consume(event1);
-        consumer.consume(event2);
-        consumer.consume(event3);
+        consumer.consume(record(event1));
+        consumer.consume(record(event2));
+        consumer.consume(record(event3));
 
-        verify(projectionService, times(3)).updateLeaderboard(any());
-        verify(projectionService, times(3)).updateUniques(any());
+        verify(projectionService, times(3)).updateDrink(any());
     }
 
     @Test
@@ -137,12 +157,11 @@ class GameActionConsumerTest {
         GameActionV1 heartbeat = createEvent("user-1", "EU", "match-1", "HEARTBEAT", 0);
         GameActionV1 drink = createEvent("user-2", "NA", "match-1", "DRINK", 1);
 
-        consumer.consume(heartbeat);
-        consumer.consume(drink);
+        consumer.consume(record(heartbeat));
+        consumer.consume(record(drink));
 
         verify(projectionService, times(1)).updatePresence(heartbeat);
-        verify(projectionService, times(1)).updateLeaderboard(drink);
-        verify(projectionService, times(1)).updateUniques(drink);
+        verify(projectionService, times(1)).updateDrink(drink);
     }
 
     @Test
@@ -150,12 +169,16 @@ class GameActionConsumerTest {
         GameActionV1 lowercaseHeartbeat = createEvent("user-1", "EU", "match-1", "heartbeat", 0);
         GameActionV1 mixedCaseDrink = createEvent("user-2", "NA", "match-1", "Drink", 1);
 
-        consumer.consume(lowercaseHeartbeat);
-        consumer.consume(mixedCaseDrink);
+        consumer.consume(record(lowercaseHeartbeat));
+        consumer.consume(record(mixedCaseDrink));
 
         // Should not match - actions are case-sensitive
         verify(projectionService, never()).updatePresence(any());
-        verify(projectionService, never()).updateLeaderboard(any());
+        verify(projectionService, never()).updateDrink(any());
+    }
+
+    private ConsumerRecord<String, GameActionV1> record(GameActionV1 event) {
+        return new ConsumerRecord<>("game.actions", 0, 0L, event.getMatchId(), event);
     }
 
     private GameActionV1 createEvent(String userId, String region, String matchId, String action, int amount) {
@@ -0,0 +1,93 @@
+package com.wcd.projector.consumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedDispatcherTest {
+
+    private final KeyOrderedDispatcher dispatcher = new KeyOrderedDispatcher(new SimpleMeterRegistry(), 4, 100);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_KeepsSubmissionOrderPerKey() throws InterruptedException {
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(400);
+        for (int i = 0; i < 100; i++) {
+            for (String key : List.of("user-1", "user-2", "user-3", "user-4")) {
+                int sequence = i;
+                dispatcher.dispatch(key, () -> {
+                    seen.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(sequence);
+                    done.countDown();
+                });
+            }
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        seen.values().forEach(sequence -> assertEquals(expected, sequence));
+    }
+
+    @Test
+    void dispatch_RunsDifferentLanesConcurrently() throws InterruptedException {
+        String first = "user-1";
+        String second = "user-2";
+        assertNotEquals(KeyOrderedDispatcher.laneOf(first, 4), KeyOrderedDispatcher.laneOf(second, 4));
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+        Runnable task = () -> {
+            bothRunning.countDown();
+            try {
+                if (bothRunning.await(5, TimeUnit.SECONDS)) {
+                    done.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        dispatcher.dispatch(first, task);
+        dispatcher.dispatch(second, task);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void dispatch_FailingTaskDoesNotStopLane() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.dispatch("user-1", () -> {
+            throw new IllegalStateException("boom");
+        });
+        dispatcher.dispatch("user-1", done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void laneOf_IsStableAndInRange() {
+        assertEquals(KeyOrderedDispatcher.laneOf("user-42", 16), KeyOrderedDispatcher.laneOf("user-42", 16));
+        for (int i = 0; i < 1000; i++) {
+            int lane = KeyOrderedDispatcher.laneOf("user-" + i, 16);
+            assertTrue(lane >= 0 && lane < 16);
+        }
+        assertEquals(0, KeyOrderedDispatcher.laneOf(null, 16));
+    }
+}
@@ -0,0 +1,163 @@
+package com.wcd.projector.consumer;
+
+import com.wcd.common.events.GameActionV1;
+import com.wcd.projector.service.ProjectionService;
+import com.wcd.projector.service.RetryPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelGameActionConsumerTest {
+
+    @Mock
+    private ProjectionService projectionService;
+
+    @Mock
+    private RetryPublisher retryPublisher;
+
+    @Mock
+    private KeyOrderedDispatcher dispatcher;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ParallelGameActionConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new ParallelGameActionConsumer(projectionService, retryPublisher, dispatcher, meterRegistry, 1, 1);
+    }
+
+    @Test
+    void consume_DispatchesByUserIdThenAcks() throws InterruptedException {
+        runDispatchedInline();
+        GameActionV1 event = createEvent("user-1", "DRINK", 2);
+
+        consumer.consume(new ConsumerRecord<>("game.actions", 0, 7L, "{match-1}user-1", event), acknowledgment);
+
+        InOrder inOrder = inOrder(dispatcher, projectionService, acknowledgment);
+        inOrder.verify(dispatcher).dispatch(eq("user-1"), any());
+        inOrder.verify(projectionService).updateDrink(event);
+        inOrder.verify(acknowledgment).acknowledge();
+        assertEquals(1.0, meterRegistry.get("wcd.projector.drink").counter().count());
+    }
+
+    @Test
+    void consume_MatchKeyedRecord_DispatchesByUserId() throws InterruptedException {
+        runDispatchedInline();
+        GameActionV1 event = createEvent("user-2", "DRINK", 1);
+
+        consumer.consume(new ConsumerRecord<>("game.actions", 0, 7L, "match-1", event), acknowledgment);
+
+        verify(dispatcher).dispatch(eq("user-2"), any());
+    }
+
+    @Test
+    void consume_WithoutKey_DispatchesByUserId() throws InterruptedException {
+        runDispatchedInline();
+        GameActionV1 event = createEvent("user-1", "HEARTBEAT", 0);
+
+        consumer.consume(new ConsumerRecord<>("game.actions", 0, 7L, null, event), acknowledgment);
+
+        verify(dispatcher).dispatch(eq("user-1"), any());
+        verify(projectionService).updatePresence(event);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void consume_ProjectionFailure_ForwardsToRetryTopicAndAcks() throws InterruptedException {
+        runDispatchedInline();
+        GameActionV1 event = createEvent("user-1", "DRINK", 2);
+        ConsumerRecord<String, GameActionV1> record = new ConsumerRecord<>("game.actions", 0, 7L, "match-1", event);
+        doThrow(new RuntimeException("Redis unavailable")).when(projectionService).updateDrink(event);
+
+        consumer.consume(record, acknowledgment);
+
+        verify(retryPublisher).forward(record);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void consume_ForwardFailure_RetriesForwardBeforeAck() throws InterruptedException {
+        runDispatchedInline();
+        GameActionV1 event = createEvent("user-1", "DRINK", 2);
+        ConsumerRecord<String, GameActionV1> record = new ConsumerRecord<>("game.actions", 0, 7L, "user-1", event);
+        doThrow(new RuntimeException("Redis unavailable")).when(projectionService).updateDrink(event);
+        doThrow(new RuntimeException("Kafka unavailable"))
+            .doThrow(new RuntimeException("Kafka unavailable"))
+            .doNothing()
+            .when(retryPublisher).forward(record);
+
+        consumer.consume(record, acknowledgment);
+
+        InOrder inOrder = inOrder(retryPublisher, acknowledgment);
+        inOrder.verify(retryPublisher, times(3)).forward(record);
+        inOrder.verify(acknowledgment).acknowledge();
+        assertEquals(2.0, meterRegistry.get("wcd.projector.parallel.forward.failures").counter().count());
+    }
+
+    @Test
+    void consume_LaneInterruptedWhileForwardFails_LeavesRecordUnacknowledged() throws InterruptedException {
+        runDispatchedInline();
+        GameActionV1 event = createEvent("user-1", "DRINK", 2);
+        ConsumerRecord<String, GameActionV1> record = new ConsumerRecord<>("game.actions", 0, 7L, "user-1", event);
+        doThrow(new RuntimeException("Redis unavailable")).when(projectionService).updateDrink(event);
+        doThrow(new RuntimeException("Kafka unavailable")).when(retryPublisher).forward(record);
+
+        Thread.currentThread().interrupt();
+        try {
+            consumer.consume(record, acknowledgment);
+        } finally {
+            Thread.interrupted();
+        }
+
+        verify(retryPublisher).forward(record);
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void consume_UnknownAction_SendsToDeadLetterTopic() throws InterruptedException {
+        runDispatchedInline();
+        GameActionV1 event = createEvent("user-1", "UNKNOWN", 0);
+        ConsumerRecord<String, GameActionV1> record = new ConsumerRecord<>("game.actions", 0, 7L, "user-1", event);
+
+        consumer.consume(record, acknowledgment);
+
+        verify(retryPublisher).deadLetter(record, "Unknown action: UNKNOWN");
+        verifyNoInteractions(projectionService);
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void consume_NullValue_AcksWithoutDispatching() throws InterruptedException {
+        consumer.consume(new ConsumerRecord<>("game.actions", 0, 7L, "user-1", null), acknowledgment);
+
+        verify(acknowledgment).acknowledge();
+        verifyNoInteractions(dispatcher);
+    }
+
+    private void runDispatchedInline() throws InterruptedException {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(dispatcher).dispatch(anyString(), any(Runnable.class));
+    }
+
+    private GameActionV1 createEvent(String userId, String action, int amount) {
+        return new GameActionV1(userId, "EU", "match-1", action, amount, System.currentTimeMillis());
+    }
+}
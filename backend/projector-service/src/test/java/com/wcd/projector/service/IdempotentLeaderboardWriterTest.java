@@ -0,0 +1,124 @@
+package com.wcd.projector.service;
+
+import com.wcd.common.events.GameActionV1;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentLeaderboardWriterTest {
+
+    private static final String TOPIC = "game.actions";
+    private static final String GROUP = "projector-group";
+    private static final String OFFSETS_KEY = "projector:offsets:leaderboard:projector-group:game.actions";
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotentLeaderboardWriter writer;
+    private final List<List<String>> scriptKeys = new ArrayList<>();
+    private final List<List<Object>> scriptArgs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new IdempotentLeaderboardWriter(redisTemplate, meterRegistry, "batch", 1, GROUP, 500);
+    }
+
+    @Test
+    void apply_SendsOneScriptCallPerPartitionWithOffsets() {
+        stubScript(1L);
+
+        writer.apply(List.of(
+            record(0, 10, "user-1", "DRINK", 2),
+            record(1, 5, "user-2", "DRINK", 1),
+            record(0, 11, "user-3", "HEARTBEAT", 0)
+        ));
+
+        assertEquals(2, scriptKeys.size());
+        assertEquals(List.of(OFFSETS_KEY, "leaderboard:match-1"), scriptKeys.get(0));
+        assertEquals(List.of("0", "11", "10", "user-1", "2"), scriptArgs.get(0));
+        assertEquals(List.of("1", "5", "5", "user-2", "1"), scriptArgs.get(1));
+    }
+
+    @Test
+    void apply_CountsSkippedReplays() {
+        stubScript(1L);
+
+        writer.apply(List.of(
+            record(0, 10, "user-1", "DRINK", 2),
+            record(0, 11, "user-2", "DRINK", 1)
+        ));
+
+        assertEquals(1.0, meterRegistry.get("wcd.projector.idempotent.applied").counter().count());
+        assertEquals(1.0, meterRegistry.get("wcd.projector.idempotent.skipped").counter().count());
+    }
+
+    @Test
+    void apply_WithoutDrinks_SkipsRedis() {
+        writer.apply(List.of(record(0, 10, "user-1", "HEARTBEAT", 0)));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_ForgetsOffsetFarAheadOfPosition() {
+        HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.get(OFFSETS_KEY, "0")).thenReturn("90000");
+        when(hashOperations.get(OFFSETS_KEY, "1")).thenReturn("1200");
+
+        writer.reconcile(Map.of(new TopicPartition(TOPIC, 0), 0L, new TopicPartition(TOPIC, 1), 1000L));
+
+        verify(hashOperations).delete(OFFSETS_KEY, "0");
+        verify(hashOperations, never()).delete(OFFSETS_KEY, "1");
+        assertEquals(1.0, meterRegistry.get("wcd.projector.idempotent.resets").counter().count());
+    }
+
+    @Test
+    void requiresBatchListener() {
+        assertThrows(IllegalStateException.class,
+            () -> new IdempotentLeaderboardWriter(redisTemplate, meterRegistry, "record", 1, GROUP, 500));
+    }
+
+    @Test
+    void rejectsShardedLeaderboards() {
+        assertThrows(IllegalStateException.class,
+            () -> new IdempotentLeaderboardWriter(redisTemplate, meterRegistry, "batch", 4, GROUP, 500));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubScript(long applied) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] arguments = invocation.getArguments();
+            scriptKeys.add(invocation.getArgument(1));
+            scriptArgs.add(Arrays.asList(Arrays.copyOfRange(arguments, 2, arguments.length)));
+            return applied;
+        });
+    }
+
+    private ConsumerRecord<String, GameActionV1> record(int partition, long offset, String userId, String action, int amount) {
+        GameActionV1 event = new GameActionV1(userId, "EU", "match-1", action, amount, 0L);
+        return new ConsumerRecord<>(TOPIC, partition, offset, userId, event);
+    }
+}
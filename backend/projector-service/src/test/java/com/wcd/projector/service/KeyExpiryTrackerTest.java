@@ -0,0 +1,54 @@
+package com.wcd.projector.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyExpiryTrackerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final KeyExpiryTracker tracker = new KeyExpiryTracker(now::get);
+
+    @Test
+    void claim_OnlyFirstCallerPerKeyWins() {
+        assertTrue(tracker.claim("uniques:202606141805", Duration.ofMinutes(10)));
+        assertFalse(tracker.claim("uniques:202606141805", Duration.ofMinutes(10)));
+        assertTrue(tracker.claim("uniques:202606141806", Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void claim_AfterHalfTheTtl_SendsExpireAgain() {
+        tracker.claim("uniques:202606141805", Duration.ofMinutes(10));
+
+        now.addAndGet(Duration.ofMinutes(4).toMillis());
+        assertFalse(tracker.claim("uniques:202606141805", Duration.ofMinutes(10)));
+
+        now.addAndGet(Duration.ofMinutes(1).toMillis());
+        assertTrue(tracker.claim("uniques:202606141805", Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void release_LetsTheNextWriteClaimAgain() {
+        tracker.claim("uniques:202606141805", Duration.ofMinutes(10));
+
+        tracker.release(List.of("uniques:202606141805"));
+
+        assertTrue(tracker.claim("uniques:202606141805", Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void prune_DropsOnlyLapsedEntries() {
+        tracker.claim("short", Duration.ofMinutes(2));
+        tracker.claim("long", Duration.ofHours(2));
+
+        now.addAndGet(Duration.ofMinutes(5).toMillis());
+        tracker.prune();
+
+        assertEquals(1, tracker.size());
+        assertFalse(tracker.claim("long", Duration.ofHours(2)));
+    }
+}
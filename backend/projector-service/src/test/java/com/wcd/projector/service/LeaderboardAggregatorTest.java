@@ -0,0 +1,117 @@
+package com.wcd.projector.service;
+
+import com.wcd.common.events.GameActionV1;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class LeaderboardAggregatorTest {
+
+    private ProjectionService projectionService;
+    private LeaderboardAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        projectionService = mock(ProjectionService.class);
+        aggregator = new LeaderboardAggregator(projectionService, new SimpleMeterRegistry(), 3, "batch");
+    }
+
+    @Test
+    void flush_SumsAmountsPerMatchAndUser() {
+        aggregator.add(List.of(
+            drink("user-1", "match-1", 2),
+            drink("user-1", "match-1", 3),
+            drink("user-2", "match-1", 1),
+            drink("user-1", "match-2", 4)
+        ));
+
+        aggregator.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<ScoreKey, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(projectionService).incrementLeaderboards(captor.capture());
+        Map<ScoreKey, Long> increments = captor.getValue();
+        assertEquals(3, increments.size());
+        assertEquals(5L, increments.get(new ScoreKey("match-1", "user-1")));
+        assertEquals(1L, increments.get(new ScoreKey("match-1", "user-2")));
+        assertEquals(4L, increments.get(new ScoreKey("match-2", "user-1")));
+    }
+
+    @Test
+    void add_IgnoresHeartbeats() {
+        aggregator.add(List.of(new GameActionV1("user-1", "EU", "match-1", "HEARTBEAT", 0, 0L)));
+
+        aggregator.flush();
+
+        verify(projectionService, never()).incrementLeaderboards(anyMap());
+    }
+
+    @Test
+    void flush_AcknowledgesOnlyAfterSuccessfulWrite() {
+        Acknowledgment ack = mock(Acknowledgment.class);
+        aggregator.add(List.of(drink("user-1", "match-1", 1)));
+        aggregator.acknowledgeAfterFlush(ack);
+        verify(ack, never()).acknowledge();
+
+        aggregator.flush();
+
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void flush_OnFailure_RetainsIncrementsAndAcks() {
+        Acknowledgment ack = mock(Acknowledgment.class);
+        doThrow(new RuntimeException("Redis unavailable"))
+            .doNothing()
+            .when(projectionService).incrementLeaderboards(anyMap());
+
+        aggregator.add(List.of(drink("user-1", "match-1", 2)));
+        aggregator.acknowledgeAfterFlush(ack);
+
+        aggregator.flush();
+        verify(ack, never()).acknowledge();
+
+        aggregator.add(List.of(drink("user-1", "match-1", 3)));
+        aggregator.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<ScoreKey, Long>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(projectionService, times(2)).incrementLeaderboards(captor.capture());
+        assertEquals(5L, captor.getValue().get(new ScoreKey("match-1", "user-1")));
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void acknowledgeAfterFlush_FlushesWhenKeyThresholdReached() {
+        Acknowledgment ack = mock(Acknowledgment.class);
+        aggregator.add(List.of(
+            drink("user-1", "match-1", 1),
+            drink("user-2", "match-1", 1),
+            drink("user-3", "match-1", 1)
+        ));
+
+        aggregator.acknowledgeAfterFlush(ack);
+
+        verify(projectionService).incrementLeaderboards(anyMap());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void constructor_RejectsRecordListenerMode() {
+        assertThrows(IllegalStateException.class,
+            () -> new LeaderboardAggregator(projectionService, new SimpleMeterRegistry(), 3, "record"));
+    }
+
+    private GameActionV1 drink(String userId, String matchId, int amount) {
+        return new GameActionV1(userId, "EU", matchId, "DRINK", amount, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,225 @@
+package com.wcd.projector.service;
+
+import com.wcd.common.events.GameActionV1;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LeaderboardEngineTest {
+
+    private static final String TOPIC = "game.actions";
+    private static final String CHECKPOINT_KEY = "projector:engine:leaderboard:projector-group:game.actions:0";
+
+    private RedisTemplate<String, String> redisTemplate;
+    private ZSetOperations<String, String> zSetOperations;
+    private HashOperations<String, Object, Object> hashOperations;
+    private SimpleMeterRegistry meterRegistry;
+    private final AtomicLong clock = new AtomicLong();
+    private LeaderboardEngine engine;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        zSetOperations = mock(ZSetOperations.class);
+        hashOperations = mock(HashOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return List.of();
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new LeaderboardEngine(redisTemplate, meterRegistry, "projector-group", "batch", 1, 2, 30, clock::get);
+    }
+
+    @Test
+    void publishTopK_WritesAbsoluteScoresOfChangedTopUsersOnly() {
+        engine.apply(List.of(
+            record(0, 1, "user-1", 3),
+            record(0, 2, "user-2", 5),
+            record(0, 3, "user-1", 4),
+            record(0, 4, "user-3", 1)
+        ));
+
+        engine.publishTopK();
+        engine.publishTopK();
+
+        verify(zSetOperations, times(1)).add("leaderboard:match-1", "user-1", 7.0);
+        verify(zSetOperations, times(1)).add("leaderboard:match-1", "user-2", 5.0);
+        verify(zSetOperations, never()).add(eq("leaderboard:match-1"), eq("user-3"), anyDouble());
+        verify(hashOperations, never()).putAll(anyString(), argThat(fields -> fields.containsKey("offset")));
+    }
+
+    @Test
+    void publishSnapshots_WritesRemainingScoresThenCheckpoint() {
+        engine.apply(List.of(record(0, 1, "user-1", 3), record(0, 2, "user-2", 5), record(0, 3, "user-3", 1)));
+        engine.publishTopK();
+
+        engine.publishSnapshots();
+
+        InOrder inOrder = inOrder(zSetOperations, hashOperations);
+        inOrder.verify(zSetOperations).add("leaderboard:match-1", "user-3", 1.0);
+        inOrder.verify(hashOperations).putAll(CHECKPOINT_KEY, Map.of(
+            "match-1\u001fuser-1", "3",
+            "match-1\u001fuser-2", "5",
+            "match-1\u001fuser-3", "1",
+            "offset", "3"
+        ));
+        verify(zSetOperations, times(3)).add(anyString(), anyString(), anyDouble());
+
+        engine.publishSnapshots();
+        verify(hashOperations, times(1)).putAll(anyString(), argThat(fields -> fields.containsKey("offset")));
+    }
+
+    @Test
+    void apply_SkipsRedeliveredOffsets() {
+        engine.apply(List.of(record(0, 1, "user-1", 3), record(0, 2, "user-1", 2)));
+        engine.apply(List.of(record(0, 2, "user-1", 2), record(0, 3, "user-1", 1)));
+
+        engine.publishTopK();
+
+        verify(zSetOperations).add("leaderboard:match-1", "user-1", 6.0);
+        assertEquals(1.0, meterRegistry.get("wcd.projector.engine.skipped").counter().count());
+    }
+
+    @Test
+    void restore_ResumesAfterCheckpointedOffset() {
+        when(hashOperations.entries(CHECKPOINT_KEY)).thenReturn(Map.<Object, Object>of(
+            "match-1\u001fuser-1", "10",
+            "offset", "41"
+        ));
+        TopicPartition partition = new TopicPartition(TOPIC, 0);
+
+        Map<TopicPartition, Long> positions = engine.restore(List.of(partition));
+        engine.apply(List.of(record(0, 41, "user-1", 5), record(0, 42, "user-1", 2)));
+        engine.publishTopK();
+
+        assertEquals(Map.of(partition, 42L), positions);
+        verify(zSetOperations).add("leaderboard:match-1", "user-1", 12.0);
+    }
+
+    @Test
+    void restore_WithoutCheckpoint_LeavesPartitionToBeAdopted() {
+        when(hashOperations.entries(anyString())).thenReturn(Map.of());
+
+        Map<TopicPartition, Long> positions = engine.restore(List.of(new TopicPartition(TOPIC, 1)));
+
+        assertTrue(positions.isEmpty());
+    }
+
+    @Test
+    void adopt_CheckpointsCommittedOffsetAndSkipsEarlierRecords() {
+        engine.adopt(Map.of(new TopicPartition(TOPIC, 0), 100L));
+        engine.apply(List.of(record(0, 99, "user-1", 5), record(0, 100, "user-1", 2)));
+        engine.publishTopK();
+
+        verify(hashOperations).put(CHECKPOINT_KEY, "offset", "99");
+        verify(zSetOperations).add("leaderboard:match-1", "user-1", 2.0);
+    }
+
+    @Test
+    void apply_FirstDrinkOfUser_StartsFromLeaderboardScoreAndCheckpointsIt() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return List.of(40.0);
+        });
+
+        engine.apply(List.of(record(0, 1, "user-1", 3), record(0, 2, "user-1", 2)));
+        engine.publishTopK();
+
+        verify(zSetOperations, times(1)).score("leaderboard:match-1", "user-1");
+        verify(hashOperations).putAll(CHECKPOINT_KEY, Map.of("match-1\u001fuser-1", "40"));
+        verify(zSetOperations).add("leaderboard:match-1", "user-1", 45.0);
+        assertEquals(1.0, meterRegistry.get("wcd.projector.engine.seeded").counter().count());
+    }
+
+    @Test
+    void apply_KnownUser_IsNotSeededAgain() {
+        engine.apply(List.of(record(0, 1, "user-1", 3)));
+        engine.apply(List.of(record(0, 2, "user-1", 2)));
+
+        verify(zSetOperations, times(1)).score(anyString(), anyString());
+    }
+
+    @Test
+    void publishSnapshots_EvictsIdleMatchesAfterCheckpointing() {
+        engine.apply(List.of(record(0, 1, "user-1", 3)));
+        engine.publishSnapshots();
+        clock.addAndGet(Duration.ofMinutes(31).toMillis());
+
+        engine.publishSnapshots();
+
+        verify(hashOperations).delete(CHECKPOINT_KEY, "match-1\u001fuser-1");
+        assertEquals(0.0, meterRegistry.get("wcd.projector.engine.users").gauge().value());
+        assertEquals(1.0, meterRegistry.get("wcd.projector.engine.evicted").counter().count());
+    }
+
+    @Test
+    void publishSnapshots_KeepsMatchesWithRecentDrinks() {
+        engine.apply(List.of(record(0, 1, "user-1", 3)));
+        clock.addAndGet(Duration.ofMinutes(20).toMillis());
+        engine.apply(List.of(record(0, 2, "user-1", 1)));
+        clock.addAndGet(Duration.ofMinutes(20).toMillis());
+
+        engine.publishSnapshots();
+
+        verify(hashOperations, never()).delete(anyString(), any(Object[].class));
+        assertEquals(1.0, meterRegistry.get("wcd.projector.engine.users").gauge().value());
+    }
+
+    @Test
+    void publishTopK_FailureRetriesOnNextTick() {
+        engine.apply(List.of(record(0, 1, "user-1", 3)));
+        clearInvocations(redisTemplate);
+        doThrow(new RuntimeException("Redis unavailable")).doReturn(List.of())
+            .when(redisTemplate).executePipelined(any(SessionCallback.class));
+
+        engine.publishTopK();
+        engine.publishTopK();
+
+        verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+        assertEquals(1.0, meterRegistry.get("wcd.projector.engine.publish.failures").counter().count());
+    }
+
+    @Test
+    void release_CheckpointsAndForgetsPartition() {
+        engine.apply(List.of(record(0, 1, "user-1", 3)));
+
+        engine.release(List.of(new TopicPartition(TOPIC, 0)));
+        engine.publishTopK();
+
+        verify(zSetOperations, times(1)).add("leaderboard:match-1", "user-1", 3.0);
+        verify(hashOperations).putAll(eq(CHECKPOINT_KEY), argThat(fields -> fields.containsKey("offset")));
+        assertEquals(0.0, meterRegistry.get("wcd.projector.engine.users").gauge().value());
+    }
+
+    @Test
+    void requiresBatchListener() {
+        assertThrows(IllegalStateException.class,
+            () -> new LeaderboardEngine(redisTemplate, meterRegistry, "projector-group", "record", 1, 100, 30));
+    }
+
+    private ConsumerRecord<String, GameActionV1> record(int partition, long offset, String userId, int amount) {
+        GameActionV1 event = new GameActionV1(userId, "EU", "match-1", "DRINK", amount, 0L);
+        return new ConsumerRecord<>(TOPIC, partition, offset, userId, event);
+    }
+}
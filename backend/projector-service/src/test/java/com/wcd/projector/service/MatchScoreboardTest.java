@@ -0,0 +1,85 @@
+package com.wcd.projector.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchScoreboardTest {
+
+    private final MatchScoreboard board = new MatchScoreboard();
+
+    @Test
+    void forEachTop_OrdersLikeZrevrange() {
+        board.add("user-a", 5);
+        board.add("user-b", 9);
+        board.add("user-c", 5);
+        board.add("user-d", 1);
+
+        assertEquals(List.of("user-b", "user-c", "user-a"), top(3));
+    }
+
+    @Test
+    void add_MovesUserWhenScoreChanges() {
+        board.add("user-a", 5);
+        board.add("user-b", 3);
+
+        board.add("user-b", 4);
+
+        assertEquals(List.of("user-b", "user-a"), top(10));
+        assertEquals(2, board.size());
+    }
+
+    @Test
+    void add_TracksPublishedAndCheckpointedScores() {
+        int id = board.add("user-a", 5);
+        assertFalse(board.isPublished(id));
+
+        board.markPublished(id, 5);
+        assertTrue(board.isPublished(id));
+        assertFalse(board.isCheckpointed(id));
+
+        board.add("user-a", 1);
+        assertFalse(board.isPublished(id));
+    }
+
+    @Test
+    void restore_StartsPublishedAndCheckpointed() {
+        board.restore("user-a", 12);
+        board.restore("user-b", 3);
+
+        assertEquals(List.of("user-a", "user-b"), top(2));
+        board.forEach(id -> {
+            assertTrue(board.isPublished(id));
+            assertTrue(board.isCheckpointed(id));
+        });
+    }
+
+    @Test
+    void matchesSortedReferenceUnderRandomUpdates() {
+        Random random = new Random(42);
+        Map<String, Long> reference = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            String userId = "user-" + random.nextInt(300);
+            long delta = random.nextInt(5);
+            board.add(userId, delta);
+            reference.merge(userId, delta, Long::sum);
+        }
+
+        List<String> expected = new ArrayList<>(reference.keySet());
+        expected.sort(Comparator.<String>comparingLong(reference::get).reversed().thenComparing(Comparator.reverseOrder()));
+        assertEquals(expected, top(expected.size()));
+    }
+
+    private List<String> top(int k) {
+        List<String> userIds = new ArrayList<>();
+        board.forEachTop(k, id -> userIds.add(board.userId(id)));
+        return userIds;
+    }
+}
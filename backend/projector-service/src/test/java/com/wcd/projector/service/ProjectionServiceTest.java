@@ -1,13 +1,22 @@
 package com.wcd.projector.service;
 
 import com.wcd.common.events.GameActionV1;
+import com.wcd.common.leaderboard.LeaderboardKeys;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.HyperLogLogOperations;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -18,6 +27,7 @@ class ProjectionServiceTest {
     private ValueOperations<String, String> valueOperations;
     private ZSetOperations<String, String> zSetOperations;
     private HyperLogLogOperations<String, String> hllOperations;
+    private SetOperations<String, String> setOperations;
 
     @BeforeEach
     void setUp() {
@@ -25,23 +35,77 @@ class ProjectionServiceTest {
         valueOperations = mock(ValueOperations.class);
         zSetOperations = mock(ZSetOperations.class);
         hllOperations = mock(HyperLogLogOperations.class);
+        setOperations = mock(SetOperations.class);
 
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
         when(redisTemplate.opsForHyperLogLog()).thenReturn(hllOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
 
-        projectionService = new ProjectionService(redisTemplate, 30);
+        projectionService = new ProjectionService(redisTemplate, 30, 1, 180, 48, 240);
     }
 
     @Test
-    void updatePresence_ShouldSetRedisKeyWithTTL() {
+    void updatePresence_ShouldRecordLastSeenGloballyAndPerRegion() {
         GameActionV1 event = new GameActionV1();
         event.setUserId("user-1");
         event.setRegion("EU");
+        event.setTimestamp(1_700_000_000_000L);
+
+        projectionService.updatePresence(event);
+
+        verify(zSetOperations).add("presence:online", "user-1", 1_700_000_000_000d);
+        verify(zSetOperations).add("presence:online:EU", "user-1", 1_700_000_000_000d);
+        verifyNoInteractions(valueOperations);
+    }
+
+    @Test
+    void updatePresence_WithoutRegion_OnlyUpdatesGlobalSet() {
+        GameActionV1 event = new GameActionV1();
+        event.setUserId("user-1");
+        event.setTimestamp(1_700_000_000_000L);
 
         projectionService.updatePresence(event);
 
-        verify(valueOperations).set(eq("presence:user-1"), eq("EU"), eq(30L), any());
+        verify(zSetOperations).add("presence:online", "user-1", 1_700_000_000_000d);
+        verify(zSetOperations, times(1)).add(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void updatePresence_IndexesRegionOnceAndExpiresItsSet() {
+        projectionService.updatePresence(new GameActionV1("user-1", "EU", "match-1", "HEARTBEAT", 0, 1L));
+        projectionService.updatePresence(new GameActionV1("user-2", "EU", "match-1", "HEARTBEAT", 0, 2L));
+
+        verify(setOperations, times(1)).add("presence:regions", "EU");
+        verify(redisTemplate, times(1)).expire("presence:online:EU", Duration.ofSeconds(60));
+    }
+
+    @Test
+    void trimPresence_RemovesEntriesOlderThanTtlForIndexedRegions() {
+        when(setOperations.members("presence:regions")).thenReturn(Set.of("NA"));
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return List.of(0L, 0L, 4L);
+        });
+        long before = System.currentTimeMillis() - 30_000L;
+
+        projectionService.trimPresence();
+
+        verify(zSetOperations).removeRangeByScore(eq("presence:online"), eq(Double.NEGATIVE_INFINITY),
+            doubleThat(cutoff -> cutoff >= before));
+        verify(zSetOperations).removeRangeByScore(eq("presence:online:NA"), eq(Double.NEGATIVE_INFINITY), anyDouble());
+        verify(setOperations, never()).remove(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void trimPresence_DropsEmptiedRegionsFromIndex() {
+        when(setOperations.members("presence:regions")).thenReturn(Set.of("XX"));
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(0L, 2L, 0L));
+
+        projectionService.trimPresence();
+
+        verify(setOperations).remove("presence:regions", "XX");
     }
 
     @Test
@@ -57,14 +121,144 @@ class ProjectionServiceTest {
     }
 
     @Test
-    void updateUniques_ShouldAddToHyperLogLog() {
+    void updateLeaderboard_Sharded_IncrementsUsersShardKey() {
+        projectionService = new ProjectionService(redisTemplate, 30, 4, 180, 48, 240);
         GameActionV1 event = new GameActionV1();
         event.setUserId("user-1");
-        event.setTimestamp(System.currentTimeMillis());
+        event.setMatchId("match-1");
+        event.setAmount(3);
+
+        projectionService.updateLeaderboard(event);
+
+        String shardKey = LeaderboardKeys.key("match-1", "user-1", 4);
+        assertTrue(shardKey.startsWith("leaderboard:match-1:s"));
+        verify(zSetOperations).incrementScore(shardKey, "user-1", 3);
+    }
+
+    @Test
+    void updateUniques_ShouldAddToMinuteAndHourHyperLogLogs() {
+        runPipelinesInline();
+        GameActionV1 event = new GameActionV1();
+        event.setUserId("user-1");
+        event.setTimestamp(Instant.parse("2026-06-14T18:05:42Z").toEpochMilli());
 
         projectionService.updateUniques(event);
 
-        verify(hllOperations).add(anyString(), eq("user-1"));
-        verify(redisTemplate).expire(anyString(), anyLong(), any());
+        verify(hllOperations).add("uniques:202606141805", "user-1");
+        verify(hllOperations).add("uniques:hour:2026061418", "user-1");
+        verify(redisTemplate).expire("uniques:202606141805", Duration.ofMinutes(180));
+        verify(redisTemplate).expire("uniques:hour:2026061418", Duration.ofHours(48));
+    }
+
+    @Test
+    void updateUniques_SameMinute_SetsEachTtlOnce() {
+        runPipelinesInline();
+        long timestamp = Instant.parse("2026-06-14T18:05:42Z").toEpochMilli();
+
+        projectionService.updateUniques(new GameActionV1("user-1", null, null, "DRINK", 1, timestamp));
+        projectionService.updateUniques(new GameActionV1("user-2", null, null, "DRINK", 1, timestamp + 1000));
+
+        verify(hllOperations, times(2)).add(eq("uniques:202606141805"), anyString());
+        verify(redisTemplate, times(1)).expire("uniques:202606141805", Duration.ofMinutes(180));
+        verify(redisTemplate, times(1)).expire("uniques:hour:2026061418", Duration.ofHours(48));
+    }
+
+    @Test
+    void updateUniques_PipelineFails_ResendsTtlOnNextWrite() {
+        GameActionV1 event = new GameActionV1("user-1", null, null, "DRINK", 1,
+            Instant.parse("2026-06-14T18:05:42Z").toEpochMilli());
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenAnswer(invocation -> {
+                SessionCallback<?> callback = invocation.getArgument(0);
+                callback.execute(redisTemplate);
+                throw new RuntimeException("Redis unavailable");
+            })
+            .thenAnswer(invocation -> {
+                SessionCallback<?> callback = invocation.getArgument(0);
+                callback.execute(redisTemplate);
+                return List.of();
+            });
+
+        assertThrows(RuntimeException.class, () -> projectionService.updateUniques(event));
+        projectionService.updateUniques(event);
+
+        verify(redisTemplate, times(2)).expire("uniques:202606141805", Duration.ofMinutes(180));
+    }
+
+    @Test
+    void updateDrink_WritesLeaderboardAndDimensionedUniquesInOnePipeline() {
+        runPipelinesInline();
+        GameActionV1 event = new GameActionV1("user-1", "EU", "match-2", "DRINK", 3,
+            Instant.parse("2026-06-14T18:05:42Z").toEpochMilli());
+
+        projectionService.updateDrink(event);
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(zSetOperations).incrementScore("leaderboard:match-2", "user-1", 3);
+        verify(zSetOperations).incrementScore("leaderboard:window:{match-2}:202606141805", "user-1", 3);
+        verify(redisTemplate).expire("leaderboard:window:{match-2}:202606141805", Duration.ofMinutes(240));
+        verify(hllOperations).add("uniques:202606141805", "user-1");
+        verify(hllOperations).add("uniques:match:match-2:202606141805", "user-1");
+        verify(hllOperations).add("uniques:region:EU:202606141805", "user-1");
+        verify(hllOperations).add("uniques:match-region:match-2:EU:202606141805", "user-1");
+        verify(hllOperations).add("uniques:match-region:match-2:EU:hour:2026061418", "user-1");
+        verify(hllOperations, times(8)).add(anyString(), eq("user-1"));
+    }
+
+    @Test
+    void updateDrink_WindowBucketsDisabled_SkipsWindowWrite() {
+        runPipelinesInline();
+        projectionService = new ProjectionService(redisTemplate, 30, 1, 180, 48, 0);
+        GameActionV1 event = new GameActionV1("user-1", "EU", "match-2", "DRINK", 3,
+            Instant.parse("2026-06-14T18:05:42Z").toEpochMilli());
+
+        projectionService.updateDrink(event);
+
+        verify(zSetOperations).incrementScore("leaderboard:match-2", "user-1", 3);
+        verify(zSetOperations, times(1)).incrementScore(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void projectBatch_WritesAllEventsInOnePipeline() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return List.of();
+        });
+
+        GameActionV1 heartbeat = new GameActionV1("user-1", "EU", "match-1", "HEARTBEAT", 0, System.currentTimeMillis());
+        GameActionV1 drink = new GameActionV1("user-2", "NA", "match-1", "DRINK", 2, System.currentTimeMillis());
+
+        projectionService.projectBatch(List.of(heartbeat, drink));
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verify(zSetOperations).add(eq("presence:online"), eq("user-1"), anyDouble());
+        verify(zSetOperations).incrementScore("leaderboard:match-1", "user-2", 2);
+        verify(zSetOperations).incrementScore(
+            LeaderboardKeys.windowBucketKey("match-1", Instant.ofEpochMilli(drink.getTimestamp())), "user-2", 2);
+        verify(hllOperations, times(8)).add(anyString(), eq("user-2"));
+    }
+
+    @Test
+    void projectBatch_SkipsUnknownActions() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return List.of();
+        });
+
+        projectionService.projectBatch(List.of(
+            new GameActionV1("user-1", "EU", "match-1", "UNKNOWN", 0, System.currentTimeMillis())
+        ));
+
+        verifyNoInteractions(valueOperations, zSetOperations, hllOperations);
+    }
+
+    private void runPipelinesInline() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return List.of();
+        });
     }
 }
@@ -0,0 +1,100 @@
+package com.wcd.projector.service;
+
+import com.wcd.common.events.GameActionV1;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetryPublisherTest {
+
+    @Mock
+    private KafkaTemplate<String, GameActionV1> kafkaTemplate;
+
+    private MeterRegistry meterRegistry;
+    private RetryPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new RetryPublisher(kafkaTemplate, meterRegistry, "game.actions.retry");
+    }
+
+    @Test
+    void forwardAll_SendsEachEventWithItsRecordKey() {
+        GameActionV1 first = createEvent("user-1");
+        GameActionV1 second = createEvent("user-2");
+        when(kafkaTemplate.send(eq("game.actions.retry"), anyString(), any(GameActionV1.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        publisher.forwardAll(List.of(record("match-1", first), record("match-1", second)));
+
+        verify(kafkaTemplate).send("game.actions.retry", "match-1", first);
+        verify(kafkaTemplate).send("game.actions.retry", "match-1", second);
+        assertEquals(2.0, meterRegistry.find("wcd.projector.retry.forwarded").counter().count());
+    }
+
+    @Test
+    void forward_RecordWithoutKey_KeysByUser() {
+        GameActionV1 event = createEvent("user-1");
+        when(kafkaTemplate.send("game.actions.retry", "user-1", event))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        publisher.forward(record(null, event));
+
+        verify(kafkaTemplate).send("game.actions.retry", "user-1", event);
+    }
+
+    @Test
+    void forward_SendFails_Throws() {
+        GameActionV1 event = createEvent("user-1");
+        when(kafkaTemplate.send("game.actions.retry", "{match-1}user-1", event))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        assertThrows(IllegalStateException.class, () -> publisher.forward(record("{match-1}user-1", event)));
+        assertEquals(0.0, meterRegistry.find("wcd.projector.retry.forwarded").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deadLetter_SendsToDeadLetterTopicWithReason() {
+        GameActionV1 event = createEvent("user-1");
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        publisher.deadLetter(record("match-1", event), "Unknown action: JUMP");
+
+        ArgumentCaptor<ProducerRecord<String, GameActionV1>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        ProducerRecord<String, GameActionV1> record = captor.getValue();
+        assertEquals("game.actions.retry-dlt", record.topic());
+        assertEquals("match-1", record.key());
+        assertEquals("Unknown action: JUMP", new String(
+            record.headers().lastHeader(RetryPublisher.DLT_REASON_HEADER).value(), StandardCharsets.UTF_8));
+    }
+
+    private ConsumerRecord<String, GameActionV1> record(String key, GameActionV1 event) {
+        return new ConsumerRecord<>("game.actions", 0, 0L, key, event);
+    }
+
+    private GameActionV1 createEvent(String userId) {
+        return new GameActionV1(userId, "EU", "match-1", "DRINK", 1, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,35 @@
+package com.wcd.query.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * WebFlux setup for the {@code reactive} profile, which serves the leaderboard and presence polls
+ * from Reactor Netty's event loops instead of one servlet thread per in-flight Redis call.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    /**
+     * Tomcat is still on the classpath for the default profile and Spring Boot would otherwise
+     * prefer it for the reactive server too, bridging every request through servlet async I/O.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        registry.addMapping("/**")
+            .allowedOrigins(WebConfig.ALLOWED_ORIGINS)
+            .allowedMethods(WebConfig.ALLOWED_METHODS)
+            .allowedHeaders("*")
+            .allowCredentials(true);
+    }
+}
@@ -0,0 +1,26 @@
+package com.wcd.query.config;
+
+import com.wcd.common.metrics.VirtualThreadPinningMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * With {@code spring.threads.virtual.enabled=true} Tomcat serves requests on virtual threads, so a
+ * request blocked on Redis no longer holds a platform thread.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public VirtualThreadPinningMetrics virtualThreadPinningMetrics(
+        @Value("${wcd.threads.pinning-threshold-ms:20}") long thresholdMs
+    ) {
+        return new VirtualThreadPinningMetrics(Duration.ofMillis(thresholdMs));
+    }
+}
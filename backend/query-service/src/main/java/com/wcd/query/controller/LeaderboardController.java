@@ -1,35 +1,114 @@
 package com.wcd.query.controller;
 
 import com.wcd.query.dto.LeaderboardEntry;
+import com.wcd.query.dto.PlayerRank;
 import com.wcd.query.service.LeaderboardService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/leaderboard")
 public class LeaderboardController {
 
+    // Also bounds the top-N cache: each distinct limit is its own entry
+    static final int MAX_LIMIT = 100;
+    private static final int MAX_WINDOW = 50;
+    private static final int MAX_BULK_USERS = 100;
+    // Must not exceed the projector's wcd.leaderboard.window.bucket-ttl-minutes
+    static final int MAX_WINDOW_MINUTES = 240;
+
     private final LeaderboardService leaderboardService;
 
     public LeaderboardController(LeaderboardService leaderboardService) {
         this.leaderboardService = leaderboardService;
     }
 
+    /**
+     * All-time totals by default. With {@code window} (minutes) only drinks in the window ending
+     * at {@code to} (epoch millis, default now) count, e.g. {@code window=5} for the last five
+     * minutes or {@code window=45&to=<end of first half>} for a per-half board.
+     */
     @GetMapping
     public Map<String, Object> getLeaderboard(
         @RequestParam(defaultValue = "match-1") String matchId,
-        @RequestParam(defaultValue = "10") int limit
+        @RequestParam(defaultValue = "10") int limit,
+        @RequestParam(required = false) Integer window,
+        @RequestParam(required = false) Long to
     ) {
-        List<LeaderboardEntry> entries = leaderboardService.getTopPlayers(matchId, limit);
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (window != null) {
+            int minutes = Math.max(1, Math.min(window, MAX_WINDOW_MINUTES));
+            Instant end = to != null ? Instant.ofEpochMilli(to) : Instant.now();
+            Instant start = end.minus(Duration.ofMinutes(minutes - 1));
+            List<LeaderboardEntry> entries = leaderboardService.getTopPlayers(matchId, boundedLimit, start, end);
+            return Map.of(
+                "matchId", matchId,
+                "window", minutes,
+                "entries", entries,
+                "timestamp", System.currentTimeMillis()
+            );
+        }
+        List<LeaderboardEntry> entries = leaderboardService.getTopPlayers(matchId, boundedLimit);
         return Map.of(
             "matchId", matchId,
             "entries", entries,
             "timestamp", System.currentTimeMillis()
         );
     }
+
+    @GetMapping("/{matchId}/players/{userId}")
+    public ResponseEntity<Map<String, Object>> getPlayerRank(
+        @PathVariable String matchId,
+        @PathVariable String userId,
+        @RequestParam(defaultValue = "5") int window
+    ) {
+        int boundedWindow = Math.max(0, Math.min(window, MAX_WINDOW));
+        PlayerRank player = leaderboardService.getPlayerRank(matchId, userId, boundedWindow);
+        if (!player.isRanked()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "matchId", matchId,
+                "userId", userId,
+                "error", "Player has no score in this match"
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "matchId", matchId,
+            "userId", userId,
+            "rank", player.getRank(),
+            "score", player.getScore(),
+            "neighbours", player.getNeighbours(),
+            "timestamp", System.currentTimeMillis()
+        ));
+    }
+
+    @GetMapping("/{matchId}/players")
+    public ResponseEntity<Map<String, Object>> getPlayerRanks(
+        @PathVariable String matchId,
+        @RequestParam List<String> userIds
+    ) {
+        List<String> distinctUserIds = userIds.stream().distinct().toList();
+        if (distinctUserIds.isEmpty() || distinctUserIds.size() > MAX_BULK_USERS) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "userIds must name between 1 and " + MAX_BULK_USERS + " players"
+            ));
+        }
+        List<PlayerRank> players = leaderboardService.getPlayerRanks(matchId, distinctUserIds);
+        return ResponseEntity.ok(Map.of(
+            "matchId", matchId,
+            "players", players,
+            "timestamp", System.currentTimeMillis()
+        ));
+    }
 }
@@ -1,13 +1,16 @@
 package com.wcd.query.controller;
 
 import com.wcd.query.service.PresenceService;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/presence")
 public class PresenceController {
 
@@ -25,4 +28,14 @@ public class PresenceController {
             "timestamp", System.currentTimeMillis()
         );
     }
+
+    @GetMapping("/regions/{region}/onlineCount")
+    public Map<String, Object> regionOnlineCount(@PathVariable String region) {
+        long count = presenceService.getOnlineCount(region);
+        return Map.of(
+            "region", region,
+            "onlineCount", count,
+            "timestamp", System.currentTimeMillis()
+        );
+    }
 }
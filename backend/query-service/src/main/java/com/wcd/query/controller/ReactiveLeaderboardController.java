@@ -0,0 +1,54 @@
+package com.wcd.query.controller;
+
+import com.wcd.query.service.ReactiveLeaderboardService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Same contract as {@link LeaderboardController#getLeaderboard}, served without blocking.
+ */
+@RestController
+@RequestMapping("/api/leaderboard")
+@Profile("reactive")
+public class ReactiveLeaderboardController {
+
+    private final ReactiveLeaderboardService leaderboardService;
+
+    public ReactiveLeaderboardController(ReactiveLeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    @GetMapping
+    public Mono<Map<String, Object>> getLeaderboard(
+        @RequestParam(defaultValue = "match-1") String matchId,
+        @RequestParam(defaultValue = "10") int limit,
+        @RequestParam(required = false) Integer window,
+        @RequestParam(required = false) Long to
+    ) {
+        int boundedLimit = Math.max(1, Math.min(limit, LeaderboardController.MAX_LIMIT));
+        if (window != null) {
+            int minutes = Math.max(1, Math.min(window, LeaderboardController.MAX_WINDOW_MINUTES));
+            Instant end = to != null ? Instant.ofEpochMilli(to) : Instant.now();
+            Instant start = end.minus(Duration.ofMinutes(minutes - 1));
+            return leaderboardService.getTopPlayers(matchId, boundedLimit, start, end).map(entries -> Map.of(
+                "matchId", matchId,
+                "window", minutes,
+                "entries", entries,
+                "timestamp", System.currentTimeMillis()
+            ));
+        }
+        return leaderboardService.getTopPlayers(matchId, boundedLimit).map(entries -> Map.of(
+            "matchId", matchId,
+            "entries", entries,
+            "timestamp", System.currentTimeMillis()
+        ));
+    }
+}
@@ -0,0 +1,40 @@
+package com.wcd.query.controller;
+
+import com.wcd.query.service.ReactivePresenceService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/presence")
+@Profile("reactive")
+public class ReactivePresenceController {
+
+    private final ReactivePresenceService presenceService;
+
+    public ReactivePresenceController(ReactivePresenceService presenceService) {
+        this.presenceService = presenceService;
+    }
+
+    @GetMapping("/onlineCount")
+    public Mono<Map<String, Object>> onlineCount() {
+        return presenceService.getOnlineCount().map(count -> Map.of(
+            "onlineCount", count,
+            "timestamp", System.currentTimeMillis()
+        ));
+    }
+
+    @GetMapping("/regions/{region}/onlineCount")
+    public Mono<Map<String, Object>> regionOnlineCount(@PathVariable String region) {
+        return presenceService.getOnlineCount(region).map(count -> Map.of(
+            "region", region,
+            "onlineCount", count,
+            "timestamp", System.currentTimeMillis()
+        ));
+    }
+}
@@ -0,0 +1,43 @@
+package com.wcd.query.controller;
+
+import com.wcd.query.service.LiveUpdateService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/stream")
+public class StreamController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final LiveUpdateService liveUpdateService;
+
+    public StreamController(LiveUpdateService liveUpdateService) {
+        this.liveUpdateService = liveUpdateService;
+    }
+
+    @GetMapping(value = "/leaderboard", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> leaderboard(
+        @RequestParam(defaultValue = "match-1") String matchId,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return ResponseEntity.ok()
+            .header("X-Accel-Buffering", "no")
+            .body(liveUpdateService.subscribeLeaderboard(matchId, boundedLimit));
+    }
+
+    @GetMapping(value = "/presence", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> presence() {
+        return ResponseEntity.ok()
+            .header("X-Accel-Buffering", "no")
+            .body(liveUpdateService.subscribePresence());
+    }
+}
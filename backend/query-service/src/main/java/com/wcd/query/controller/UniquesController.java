@@ -0,0 +1,77 @@
+package com.wcd.query.controller;
+
+import com.wcd.query.service.UniquesService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/uniques")
+public class UniquesController {
+
+    private static final int MAX_SCOPES = 50;
+
+    private final UniquesService uniquesService;
+    private final Duration retention;
+
+    public UniquesController(
+        UniquesService uniquesService,
+        @Value("${wcd.redis.uniques-hour-ttl-hours:48}") long uniquesHourTtlHours
+    ) {
+        this.uniquesService = uniquesService;
+        // Older hourly rollups have expired, so a range reaching further back would silently undercount.
+        this.retention = Duration.ofHours(uniquesHourTtlHours);
+    }
+
+    /**
+     * Unique drinkers between {@code from} and {@code to} (epoch millis), or over the last
+     * {@code minutes} when no bounds are given. Optional comma-separated {@code matchId} and
+     * {@code region} filters count the union of the listed matches and regions.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> uniques(
+        @RequestParam(required = false) Long from,
+        @RequestParam(required = false) Long to,
+        @RequestParam(defaultValue = "60") int minutes,
+        @RequestParam(required = false) List<String> matchId,
+        @RequestParam(required = false) List<String> region
+    ) {
+        List<String> matchIds = matchId != null ? matchId : List.of();
+        List<String> regions = region != null ? region : List.of();
+        if (Math.max(1, matchIds.size()) * Math.max(1, regions.size()) > MAX_SCOPES) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "At most " + MAX_SCOPES + " match and region combinations per query"
+            ));
+        }
+
+        Instant end = to != null ? Instant.ofEpochMilli(to) : Instant.now();
+        Instant start = from != null ? Instant.ofEpochMilli(from) : end.minus(Duration.ofMinutes(minutes));
+        if (start.isAfter(end)
+            || start.isBefore(Instant.now().minus(retention))
+            || Duration.between(start, end).compareTo(retention) > 0) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Range must be non-empty and within the last " + retention.toHours() + " hours"
+            ));
+        }
+
+        long count = uniquesService.countUniques(start, end, matchIds, regions);
+        return ResponseEntity.ok(Map.of(
+            "from", start.toEpochMilli(),
+            "to", end.toEpochMilli(),
+            "matchIds", matchIds,
+            "regions", regions,
+            "uniques", count,
+            "timestamp", System.currentTimeMillis()
+        ));
+    }
+}
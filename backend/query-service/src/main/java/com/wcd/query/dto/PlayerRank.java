@@ -0,0 +1,65 @@
+package com.wcd.query.dto;
+
+import java.util.List;
+
+/**
+ * A player's position in one match leaderboard. {@code rank} and {@code score} are null when the
+ * player has no score yet; {@code neighbours} is only filled for single-player lookups.
+ */
+public class PlayerRank {
+
+    private String userId;
+    private Integer rank;
+    private Double score;
+    private List<LeaderboardEntry> neighbours;
+
+    public PlayerRank() {
+    }
+
+    public PlayerRank(String userId, Integer rank, Double score, List<LeaderboardEntry> neighbours) {
+        this.userId = userId;
+        this.rank = rank;
+        this.score = score;
+        this.neighbours = neighbours;
+    }
+
+    public static PlayerRank unranked(String userId) {
+        return new PlayerRank(userId, null, null, List.of());
+    }
+
+    public boolean isRanked() {
+        return rank != null;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Integer getRank() {
+        return rank;
+    }
+
+    public void setRank(Integer rank) {
+        this.rank = rank;
+    }
+
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public List<LeaderboardEntry> getNeighbours() {
+        return neighbours;
+    }
+
+    public void setNeighbours(List<LeaderboardEntry> neighbours) {
+        this.neighbours = neighbours;
+    }
+}
@@ -1,41 +1,317 @@
 package com.wcd.query.service;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.wcd.common.leaderboard.LeaderboardKeys;
 import com.wcd.query.dto.LeaderboardEntry;
+import com.wcd.query.dto.PlayerRank;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
+@Profile("!reactive")
 public class LeaderboardService {
 
+    // Matches ZREVRANGE: higher scores first, ties in reverse lexicographic order of the member.
+    static final Comparator<ZSetOperations.TypedTuple<String>> BY_SCORE_DESC =
+        Comparator.<ZSetOperations.TypedTuple<String>>comparingDouble(LeaderboardService::scoreOf).reversed()
+            .thenComparing(ZSetOperations.TypedTuple::getValue, Comparator.reverseOrder());
+
+    // The union is only read back in the same pipeline; the TTL just cleans it up.
+    static final Duration WINDOW_UNION_TTL = Duration.ofSeconds(10);
+
     private final RedisTemplate<String, String> redisTemplate;
+    private final int leaderboardShards;
+    private final LoadingCache<TopPlayersKey, List<LeaderboardEntry>> topPlayersCache;
 
-    public LeaderboardService(RedisTemplate<String, String> redisTemplate) {
+    public LeaderboardService(
+        RedisTemplate<String, String> redisTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${wcd.cache.leaderboard.ttl-ms:500}") long cacheTtlMs,
+        @Value("${wcd.cache.leaderboard.max-size:1000}") long cacheMaxSize,
+        @Value("${wcd.leaderboard.shards:1}") int leaderboardShards
+    ) {
         this.redisTemplate = redisTemplate;
+        this.leaderboardShards = leaderboardShards;
+        // LoadingCache.get blocks concurrent callers for the same key on a single load,
+        // so a burst of pollers for one match costs one Redis round-trip per TTL.
+        this.topPlayersCache = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+            .recordStats()
+            .build(this::loadTopPlayers);
+        CaffeineCacheMetrics.monitor(meterRegistry, topPlayersCache, "leaderboard.top");
     }
 
     public List<LeaderboardEntry> getTopPlayers(String matchId, int limit) {
-        String key = "leaderboard:" + matchId;
+        return topPlayersCache.get(new TopPlayersKey(matchId, limit, null, null));
+    }
+
+    /**
+     * Top players by drinks in the minute buckets from {@code from} to {@code to}, both inclusive.
+     * Bounds are truncated to the minute, so every caller asking for the same window within a
+     * minute shares one cache entry and one ZUNIONSTORE per TTL.
+     */
+    public List<LeaderboardEntry> getTopPlayers(String matchId, int limit, Instant from, Instant to) {
+        return topPlayersCache.get(new TopPlayersKey(matchId, limit,
+            from.truncatedTo(ChronoUnit.MINUTES), to.truncatedTo(ChronoUnit.MINUTES)));
+    }
+
+    /**
+     * Rank and score of one player plus up to {@code window} players on either side. Not cached:
+     * each caller asks about a different player.
+     */
+    public PlayerRank getPlayerRank(String matchId, String userId, int window) {
+        return leaderboardShards > 1
+            ? shardedPlayerRank(matchId, userId, window)
+            : singlePlayerRank(matchId, userId, window);
+    }
+
+    /**
+     * Rank and score for each of {@code userIds}, without neighbours. Unsharded this is a single
+     * pipelined round-trip; sharded it takes two and players with equal scores share a rank.
+     */
+    public List<PlayerRank> getPlayerRanks(String matchId, List<String> userIds) {
+        return leaderboardShards > 1
+            ? shardedPlayerRanks(matchId, userIds)
+            : singlePlayerRanks(matchId, userIds);
+    }
+
+    private List<LeaderboardEntry> loadTopPlayers(TopPlayersKey query) {
+        if (query.from() != null) {
+            return loadWindowedTopPlayers(query);
+        }
+        if (leaderboardShards > 1) {
+            return loadShardedTopPlayers(query);
+        }
+        String key = LeaderboardKeys.PREFIX + query.matchId();
         Set<ZSetOperations.TypedTuple<String>> topScores =
-            redisTemplate.opsForZSet().reverseRangeWithScores(key, 0, limit - 1);
+            redisTemplate.opsForZSet().reverseRangeWithScores(key, 0, query.limit() - 1);
+        return toEntries(topScores != null ? topScores : List.of(), 1, query.limit());
+    }
+
+    /**
+     * Every user lives in exactly one shard, so the global top N is the top N of the shards' own
+     * top N lists. All shards are read in one pipeline; the merged list is what the cache holds.
+     */
+    private List<LeaderboardEntry> loadShardedTopPlayers(TopPlayersKey query) {
+        List<String> keys = LeaderboardKeys.keys(query.matchId(), leaderboardShards);
+        List<Object> results = pipelined(ops -> {
+            for (String key : keys) {
+                ops.opsForZSet().reverseRangeWithScores(key, 0, query.limit() - 1);
+            }
+        });
 
-        List<LeaderboardEntry> entries = new ArrayList<>();
-        if (topScores != null) {
-            int rank = 1;
-            for (ZSetOperations.TypedTuple<String> tuple : topScores) {
-                LeaderboardEntry entry = new LeaderboardEntry(
-                    tuple.getValue(),
-                    tuple.getScore() != null ? tuple.getScore() : 0.0,
-                    rank++
-                );
-                entries.add(entry);
+        List<ZSetOperations.TypedTuple<String>> merged = new ArrayList<>();
+        for (Object result : results) {
+            merged.addAll(tuples(result));
+        }
+        merged.sort(BY_SCORE_DESC);
+        return toEntries(merged, 1, query.limit());
+    }
+
+    /**
+     * Window buckets are not sharded and share the match's hash tag, so the union, its expiry and
+     * the read back all go out in one pipeline even on Redis Cluster.
+     */
+    private List<LeaderboardEntry> loadWindowedTopPlayers(TopPlayersKey query) {
+        List<String> buckets = LeaderboardKeys.windowBucketKeys(query.matchId(), query.from(), query.to());
+        if (buckets.isEmpty()) {
+            return List.of();
+        }
+        String unionKey = LeaderboardKeys.windowUnionKey(query.matchId(), query.from(), query.to());
+        List<Object> results = pipelined(ops -> {
+            ops.opsForZSet().unionAndStore(buckets.get(0), buckets.subList(1, buckets.size()), unionKey);
+            ops.expire(unionKey, WINDOW_UNION_TTL);
+            ops.opsForZSet().reverseRangeWithScores(unionKey, 0, query.limit() - 1);
+        });
+        return toEntries(tuples(results.get(2)), 1, query.limit());
+    }
+
+    private PlayerRank singlePlayerRank(String matchId, String userId, int window) {
+        String key = LeaderboardKeys.PREFIX + matchId;
+        List<Object> position = pipelined(ops -> {
+            ops.opsForZSet().reverseRank(key, userId);
+            ops.opsForZSet().score(key, userId);
+        });
+        if (!(position.get(0) instanceof Long rank) || !(position.get(1) instanceof Double score)) {
+            return PlayerRank.unranked(userId);
+        }
+
+        long start = Math.max(0, rank - window);
+        Set<ZSetOperations.TypedTuple<String>> around =
+            redisTemplate.opsForZSet().reverseRangeWithScores(key, start, rank + window);
+        List<LeaderboardEntry> neighbours = toEntries(around != null ? around : List.of(), (int) start + 1, 2 * window + 1);
+        return new PlayerRank(userId, (int) (rank + 1), score, neighbours);
+    }
+
+    /**
+     * Counts the players above the player's score in every shard and reads the nearest
+     * {@code window + 1} scores above and below it from each, which always contains the global
+     * neighbours. Ties are ordered exactly as long as no shard holds more than
+     * {@code window + 1} players with the player's score.
+     */
+    private PlayerRank shardedPlayerRank(String matchId, String userId, int window) {
+        Double score = redisTemplate.opsForZSet().score(LeaderboardKeys.key(matchId, userId, leaderboardShards), userId);
+        if (score == null) {
+            return PlayerRank.unranked(userId);
+        }
+
+        List<String> keys = LeaderboardKeys.keys(matchId, leaderboardShards);
+        List<Object> results = pipelined(ops -> {
+            for (String key : keys) {
+                ops.opsForZSet().count(key, Math.nextUp(score), Double.POSITIVE_INFINITY);
+                ops.opsForZSet().rangeByScoreWithScores(key, score, Double.POSITIVE_INFINITY, 0, window + 1);
+                ops.opsForZSet().reverseRangeByScoreWithScores(key, Double.NEGATIVE_INFINITY, score, 0, window + 1);
             }
+        });
+
+        long higher = 0;
+        Map<String, ZSetOperations.TypedTuple<String>> nearby = new HashMap<>();
+        for (int i = 0; i < results.size(); i += 3) {
+            higher += results.get(i) instanceof Long count ? count : 0;
+            tuples(results.get(i + 1)).forEach(tuple -> nearby.put(tuple.getValue(), tuple));
+            tuples(results.get(i + 2)).forEach(tuple -> nearby.put(tuple.getValue(), tuple));
         }
+        List<ZSetOperations.TypedTuple<String>> merged = new ArrayList<>(nearby.values());
+        merged.sort(BY_SCORE_DESC);
+
+        int position = -1;
+        int tiesAhead = 0;
+        for (int i = 0; i < merged.size() && position < 0; i++) {
+            ZSetOperations.TypedTuple<String> tuple = merged.get(i);
+            if (userId.equals(tuple.getValue())) {
+                position = i;
+            } else if (scoreOf(tuple) == score) {
+                tiesAhead++;
+            }
+        }
+        int rank = (int) (higher + tiesAhead + 1);
+        if (position < 0) {
+            // The player's score changed between the two reads; report the rank without neighbours.
+            return new PlayerRank(userId, rank, score, List.of());
+        }
+
+        int from = Math.max(0, position - window);
+        int to = Math.min(merged.size(), position + window + 1);
+        List<LeaderboardEntry> neighbours = toEntries(merged.subList(from, to), rank - (position - from), to - from);
+        return new PlayerRank(userId, rank, score, neighbours);
+    }
+
+    private List<PlayerRank> singlePlayerRanks(String matchId, List<String> userIds) {
+        String key = LeaderboardKeys.PREFIX + matchId;
+        List<Object> results = pipelined(ops -> {
+            for (String userId : userIds) {
+                ops.opsForZSet().reverseRank(key, userId);
+                ops.opsForZSet().score(key, userId);
+            }
+        });
+
+        List<PlayerRank> ranks = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            String userId = userIds.get(i);
+            if (results.get(2 * i) instanceof Long rank && results.get(2 * i + 1) instanceof Double score) {
+                ranks.add(new PlayerRank(userId, (int) (rank + 1), score, List.of()));
+            } else {
+                ranks.add(PlayerRank.unranked(userId));
+            }
+        }
+        return ranks;
+    }
+
+    private List<PlayerRank> shardedPlayerRanks(String matchId, List<String> userIds) {
+        List<Object> scores = pipelined(ops -> {
+            for (String userId : userIds) {
+                ops.opsForZSet().score(LeaderboardKeys.key(matchId, userId, leaderboardShards), userId);
+            }
+        });
+        List<String> keys = LeaderboardKeys.keys(matchId, leaderboardShards);
+        List<Object> counts = pipelined(ops -> {
+            for (Object score : scores) {
+                if (score instanceof Double value) {
+                    for (String key : keys) {
+                        ops.opsForZSet().count(key, Math.nextUp(value), Double.POSITIVE_INFINITY);
+                    }
+                }
+            }
+        });
+
+        List<PlayerRank> ranks = new ArrayList<>(userIds.size());
+        int next = 0;
+        for (int i = 0; i < userIds.size(); i++) {
+            if (!(scores.get(i) instanceof Double score)) {
+                ranks.add(PlayerRank.unranked(userIds.get(i)));
+                continue;
+            }
+            long higher = 0;
+            for (int shard = 0; shard < keys.size(); shard++) {
+                higher += counts.get(next++) instanceof Long count ? count : 0;
+            }
+            ranks.add(new PlayerRank(userIds.get(i), (int) (higher + 1), score, List.of()));
+        }
+        return ranks;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> pipelined(Consumer<RedisOperations<String, String>> commands) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                commands.accept((RedisOperations<String, String>) operations);
+                return null;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<ZSetOperations.TypedTuple<String>> tuples(Object result) {
+        return result instanceof Collection<?> tuples
+            ? (Collection<ZSetOperations.TypedTuple<String>>) tuples
+            : List.of();
+    }
+
+    static List<LeaderboardEntry> toEntries(
+        Collection<ZSetOperations.TypedTuple<String>> tuples,
+        int firstRank,
+        int limit
+    ) {
+        List<LeaderboardEntry> entries = new ArrayList<>(Math.min(tuples.size(), limit));
+        int rank = firstRank;
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            if (entries.size() == limit) {
+                break;
+            }
+            entries.add(new LeaderboardEntry(tuple.getValue(), scoreOf(tuple), rank++));
+        }
+        return List.copyOf(entries);
+    }
+
+    private static double scoreOf(ZSetOperations.TypedTuple<String> tuple) {
+        return tuple.getScore() != null ? tuple.getScore() : 0.0;
+    }
 
-        return entries;
+    /**
+     * {@code from} and {@code to} are null for the all-time leaderboard.
+     */
+    record TopPlayersKey(String matchId, int limit, Instant from, Instant to) {
     }
 }
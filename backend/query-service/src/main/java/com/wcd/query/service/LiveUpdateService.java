@@ -0,0 +1,207 @@
+package com.wcd.query.service;
+
+import com.wcd.query.dto.LeaderboardEntry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fans out leaderboard and presence changes to SSE subscribers. Redis is polled once per
+ * subscribed (match, limit) channel per tick, no matter how many viewers share the channel.
+ */
+@Service
+@Profile("!reactive")
+public class LiveUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveUpdateService.class);
+
+    private final LeaderboardService leaderboardService;
+    private final PresenceService presenceService;
+    private final long emitterTimeoutMs;
+    private final ConcurrentHashMap<String, LeaderboardChannel> leaderboardChannels = new ConcurrentHashMap<>();
+    private final List<SseEmitter> presenceSubscribers = new CopyOnWriteArrayList<>();
+    private volatile Long lastOnlineCount;
+
+    public LiveUpdateService(
+        LeaderboardService leaderboardService,
+        PresenceService presenceService,
+        MeterRegistry meterRegistry,
+        @Value("${wcd.stream.emitter-timeout-ms:1800000}") long emitterTimeoutMs
+    ) {
+        this.leaderboardService = leaderboardService;
+        this.presenceService = presenceService;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        Gauge.builder("wcd.stream.subscribers", leaderboardChannels,
+                channels -> channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum())
+            .tag("stream", "leaderboard")
+            .description("Open leaderboard SSE connections")
+            .register(meterRegistry);
+        Gauge.builder("wcd.stream.subscribers", presenceSubscribers, List::size)
+            .tag("stream", "presence")
+            .description("Open presence SSE connections")
+            .register(meterRegistry);
+        Gauge.builder("wcd.stream.channels", leaderboardChannels, Map::size)
+            .description("Leaderboard channels polled per tick")
+            .register(meterRegistry);
+    }
+
+    public SseEmitter subscribeLeaderboard(String matchId, int limit) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        String channelKey = matchId + ":" + limit;
+        LeaderboardChannel channel = leaderboardChannels.compute(channelKey, (key, existing) -> {
+            LeaderboardChannel target = existing != null ? existing : new LeaderboardChannel(matchId, limit);
+            target.subscribers.add(emitter);
+            return target;
+        });
+        registerCleanup(emitter, channel.subscribers);
+
+        // New subscribers start from the channel's last broadcast state so later diffs apply cleanly.
+        List<LeaderboardEntry> snapshot = channel.lastEntries;
+        if (snapshot == null) {
+            snapshot = leaderboardService.getTopPlayers(matchId, limit);
+            channel.lastEntries = snapshot;
+        }
+        send(emitter, channel.subscribers, "snapshot", Map.of(
+            "matchId", matchId,
+            "entries", snapshot,
+            "timestamp", System.currentTimeMillis()
+        ));
+        return emitter;
+    }
+
+    public SseEmitter subscribePresence() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        presenceSubscribers.add(emitter);
+        registerCleanup(emitter, presenceSubscribers);
+
+        Long count = lastOnlineCount;
+        if (count == null) {
+            count = presenceService.getOnlineCount();
+            lastOnlineCount = count;
+        }
+        send(emitter, presenceSubscribers, "presence", Map.of(
+            "onlineCount", count,
+            "timestamp", System.currentTimeMillis()
+        ));
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${wcd.stream.poll-interval-ms:1000}")
+    public void publishUpdates() {
+        for (Map.Entry<String, LeaderboardChannel> entry : leaderboardChannels.entrySet()) {
+            LeaderboardChannel channel = entry.getValue();
+            if (channel.subscribers.isEmpty()) {
+                leaderboardChannels.computeIfPresent(entry.getKey(),
+                    (key, existing) -> existing.subscribers.isEmpty() ? null : existing);
+                continue;
+            }
+            try {
+                List<LeaderboardEntry> current = leaderboardService.getTopPlayers(channel.matchId, channel.limit);
+                Map<String, Object> diff = leaderboardDiff(channel.matchId, channel.lastEntries, current);
+                channel.lastEntries = current;
+                if (diff != null) {
+                    broadcast(channel.subscribers, "leaderboard", diff);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to refresh leaderboard stream for match {}", channel.matchId, e);
+            }
+        }
+
+        if (!presenceSubscribers.isEmpty()) {
+            try {
+                long count = presenceService.getOnlineCount();
+                Long previous = lastOnlineCount;
+                lastOnlineCount = count;
+                if (previous == null || previous != count) {
+                    broadcast(presenceSubscribers, "presence", Map.of(
+                        "onlineCount", count,
+                        "timestamp", System.currentTimeMillis()
+                    ));
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to refresh presence stream", e);
+            }
+        }
+    }
+
+    static Map<String, Object> leaderboardDiff(
+        String matchId,
+        List<LeaderboardEntry> previous,
+        List<LeaderboardEntry> current
+    ) {
+        Map<String, LeaderboardEntry> previousByUser = new HashMap<>();
+        if (previous != null) {
+            for (LeaderboardEntry entry : previous) {
+                previousByUser.put(entry.getUserId(), entry);
+            }
+        }
+
+        List<LeaderboardEntry> changed = new ArrayList<>();
+        for (LeaderboardEntry entry : current) {
+            LeaderboardEntry before = previousByUser.remove(entry.getUserId());
+            if (before == null || before.getRank() != entry.getRank() || before.getScore() != entry.getScore()) {
+                changed.add(entry);
+            }
+        }
+        List<String> removed = new ArrayList<>(previousByUser.keySet());
+
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return null;
+        }
+        return Map.of(
+            "matchId", matchId,
+            "changed", changed,
+            "removed", removed,
+            "timestamp", System.currentTimeMillis()
+        );
+    }
+
+    private void broadcast(List<SseEmitter> subscribers, String eventName, Map<String, Object> payload) {
+        for (SseEmitter emitter : subscribers) {
+            send(emitter, subscribers, eventName, payload);
+        }
+    }
+
+    private void send(SseEmitter emitter, List<SseEmitter> subscribers, String eventName, Object payload) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(payload, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(emitter);
+            logger.debug("Dropped {} stream subscriber: {}", eventName, e.getMessage());
+        }
+    }
+
+    private void registerCleanup(SseEmitter emitter, List<SseEmitter> subscribers) {
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(error -> subscribers.remove(emitter));
+    }
+
+    private static final class LeaderboardChannel {
+        private final String matchId;
+        private final int limit;
+        private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+        private volatile List<LeaderboardEntry> lastEntries;
+
+        private LeaderboardChannel(String matchId, int limit) {
+            this.matchId = Objects.requireNonNull(matchId);
+            this.limit = limit;
+        }
+    }
+}
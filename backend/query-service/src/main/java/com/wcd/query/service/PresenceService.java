@@ -1,21 +1,38 @@
 package com.wcd.query.service;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.Set;
-
 @Service
+@Profile("!reactive")
 public class PresenceService {
 
+    static final String PRESENCE_KEY = "presence:online";
+
     private final RedisTemplate<String, String> redisTemplate;
+    private final int presenceTtlSeconds;
 
-    public PresenceService(RedisTemplate<String, String> redisTemplate) {
+    public PresenceService(
+        RedisTemplate<String, String> redisTemplate,
+        @Value("${wcd.redis.presence-ttl-seconds:30}") int presenceTtlSeconds
+    ) {
         this.redisTemplate = redisTemplate;
+        this.presenceTtlSeconds = presenceTtlSeconds;
     }
 
     public long getOnlineCount() {
-        Set<String> keys = redisTemplate.keys("presence:*");
-        return keys.size();
+        return countSeenSince(PRESENCE_KEY);
+    }
+
+    public long getOnlineCount(String region) {
+        return countSeenSince(PRESENCE_KEY + ":" + region);
+    }
+
+    private long countSeenSince(String key) {
+        long cutoff = System.currentTimeMillis() - presenceTtlSeconds * 1000L;
+        Long count = redisTemplate.opsForZSet().count(key, cutoff, Double.POSITIVE_INFINITY);
+        return count != null ? count : 0;
     }
 }
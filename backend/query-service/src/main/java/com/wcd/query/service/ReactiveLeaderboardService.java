@@ -0,0 +1,101 @@
+package com.wcd.query.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wcd.common.leaderboard.LeaderboardKeys;
+import com.wcd.query.dto.LeaderboardEntry;
+import com.wcd.query.service.LeaderboardService.TopPlayersKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link LeaderboardService#getTopPlayers} for the {@code reactive}
+ * profile. Reads the same keys with the same sharding and window layout and returns the same
+ * entries; only the top-N reads are served here.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveLeaderboardService {
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final int leaderboardShards;
+    private final AsyncLoadingCache<TopPlayersKey, List<LeaderboardEntry>> topPlayersCache;
+
+    public ReactiveLeaderboardService(
+        ReactiveRedisTemplate<String, String> redisTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${wcd.cache.leaderboard.ttl-ms:500}") long cacheTtlMs,
+        @Value("${wcd.cache.leaderboard.max-size:1000}") long cacheMaxSize,
+        @Value("${wcd.leaderboard.shards:1}") int leaderboardShards
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.leaderboardShards = leaderboardShards;
+        // Concurrent misses for one key share the pending future, so a burst of pollers still
+        // costs one Redis read per TTL without parking an event-loop thread while it runs.
+        this.topPlayersCache = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+            .recordStats()
+            .buildAsync((query, executor) -> loadTopPlayers(query).toFuture());
+        CaffeineCacheMetrics.monitor(meterRegistry, topPlayersCache.synchronous(), "leaderboard.top");
+    }
+
+    public Mono<List<LeaderboardEntry>> getTopPlayers(String matchId, int limit) {
+        return cached(new TopPlayersKey(matchId, limit, null, null));
+    }
+
+    /**
+     * See {@link LeaderboardService#getTopPlayers(String, int, Instant, Instant)}.
+     */
+    public Mono<List<LeaderboardEntry>> getTopPlayers(String matchId, int limit, Instant from, Instant to) {
+        return cached(new TopPlayersKey(matchId, limit,
+            from.truncatedTo(ChronoUnit.MINUTES), to.truncatedTo(ChronoUnit.MINUTES)));
+    }
+
+    // A viewer disconnecting cancels its own subscription only, never the load other viewers wait on.
+    private Mono<List<LeaderboardEntry>> cached(TopPlayersKey query) {
+        return Mono.fromFuture(() -> topPlayersCache.get(query), true);
+    }
+
+    private Mono<List<LeaderboardEntry>> loadTopPlayers(TopPlayersKey query) {
+        if (query.from() != null) {
+            return loadWindowedTopPlayers(query);
+        }
+        Range<Long> top = Range.closed(0L, query.limit() - 1L);
+        if (leaderboardShards > 1) {
+            // Every shard read is in flight at once on the shared connection, like the blocking pipeline.
+            return Flux.fromIterable(LeaderboardKeys.keys(query.matchId(), leaderboardShards))
+                .flatMap(key -> redisTemplate.opsForZSet().reverseRangeWithScores(key, top))
+                .collectSortedList(LeaderboardService.BY_SCORE_DESC)
+                .map(merged -> LeaderboardService.toEntries(merged, 1, query.limit()));
+        }
+        return redisTemplate.opsForZSet().reverseRangeWithScores(LeaderboardKeys.PREFIX + query.matchId(), top)
+            .collectList()
+            .map(tuples -> LeaderboardService.toEntries(tuples, 1, query.limit()));
+    }
+
+    private Mono<List<LeaderboardEntry>> loadWindowedTopPlayers(TopPlayersKey query) {
+        List<String> buckets = LeaderboardKeys.windowBucketKeys(query.matchId(), query.from(), query.to());
+        if (buckets.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        String unionKey = LeaderboardKeys.windowUnionKey(query.matchId(), query.from(), query.to());
+        return redisTemplate.opsForZSet().unionAndStore(buckets.get(0), buckets.subList(1, buckets.size()), unionKey)
+            .then(redisTemplate.expire(unionKey, LeaderboardService.WINDOW_UNION_TTL))
+            .thenMany(redisTemplate.opsForZSet().reverseRangeWithScores(unionKey, Range.closed(0L, query.limit() - 1L)))
+            .collectList()
+            .map(tuples -> LeaderboardService.toEntries(tuples, 1, query.limit()));
+    }
+}
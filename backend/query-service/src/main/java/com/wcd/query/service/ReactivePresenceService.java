@@ -0,0 +1,43 @@
+package com.wcd.query.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link PresenceService} for the {@code reactive} profile.
+ */
+@Service
+@Profile("reactive")
+public class ReactivePresenceService {
+
+    private final ReactiveRedisTemplate<String, String> redisTemplate;
+    private final int presenceTtlSeconds;
+
+    public ReactivePresenceService(
+        ReactiveRedisTemplate<String, String> redisTemplate,
+        @Value("${wcd.redis.presence-ttl-seconds:30}") int presenceTtlSeconds
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.presenceTtlSeconds = presenceTtlSeconds;
+    }
+
+    public Mono<Long> getOnlineCount() {
+        return countSeenSince(PresenceService.PRESENCE_KEY);
+    }
+
+    public Mono<Long> getOnlineCount(String region) {
+        return countSeenSince(PresenceService.PRESENCE_KEY + ":" + region);
+    }
+
+    // Deferred so the cutoff is taken when the request subscribes, not when the Mono is built.
+    private Mono<Long> countSeenSince(String key) {
+        return Mono.defer(() -> {
+            double cutoff = System.currentTimeMillis() - presenceTtlSeconds * 1000L;
+            return redisTemplate.opsForZSet().count(key, Range.closed(cutoff, Double.POSITIVE_INFINITY));
+        }).defaultIfEmpty(0L);
+    }
+}
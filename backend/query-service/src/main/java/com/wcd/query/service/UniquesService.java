@@ -0,0 +1,113 @@
+package com.wcd.query.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.wcd.common.uniques.UniquesKeys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Unique drinkers over a time range, counted with one multi-key PFCOUNT over the hourly rollups
+ * and minute buckets that cover it. Filtering by several matches or regions adds each scope's keys
+ * to the same PFCOUNT, which returns the size of their union. Ranges are aligned to whole minutes
+ * before caching, so dashboards refreshing the same window share one Redis call per TTL. Edge
+ * minutes older than the minute-bucket TTL are read from their hourly rollup instead. The keys of
+ * one PFCOUNT live in different slots, so this needs a single-node Redis, not Redis Cluster.
+ */
+@Service
+@Profile("!reactive")
+public class UniquesService {
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration minuteTtl;
+    private final LongSupplier clock;
+    private final LoadingCache<UniquesRange, Long> uniquesCache;
+
+    @Autowired
+    public UniquesService(
+        RedisTemplate<String, String> redisTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${wcd.cache.uniques.ttl-ms:5000}") long cacheTtlMs,
+        @Value("${wcd.cache.uniques.max-size:1000}") long cacheMaxSize,
+        @Value("${wcd.redis.uniques-minute-ttl-minutes:180}") long uniquesMinuteTtlMinutes
+    ) {
+        this(redisTemplate, meterRegistry, cacheTtlMs, cacheMaxSize, uniquesMinuteTtlMinutes, System::currentTimeMillis);
+    }
+
+    UniquesService(
+        RedisTemplate<String, String> redisTemplate,
+        MeterRegistry meterRegistry,
+        long cacheTtlMs,
+        long cacheMaxSize,
+        long uniquesMinuteTtlMinutes,
+        LongSupplier clock
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.minuteTtl = Duration.ofMinutes(uniquesMinuteTtlMinutes);
+        this.clock = clock;
+        this.uniquesCache = Caffeine.newBuilder()
+            .maximumSize(cacheMaxSize)
+            .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+            .recordStats()
+            .build(this::loadUniques);
+        CaffeineCacheMetrics.monitor(meterRegistry, uniquesCache, "uniques.range");
+    }
+
+    public long countUniques(Instant from, Instant to) {
+        return countUniques(from, to, List.of(), List.of());
+    }
+
+    /**
+     * Empty {@code matchIds} or {@code regions} leave that dimension unfiltered.
+     */
+    public long countUniques(Instant from, Instant to, List<String> matchIds, List<String> regions) {
+        return uniquesCache.get(new UniquesRange(
+            from.truncatedTo(ChronoUnit.MINUTES),
+            to.truncatedTo(ChronoUnit.MINUTES),
+            List.copyOf(new TreeSet<>(matchIds)),
+            List.copyOf(new TreeSet<>(regions))
+        ));
+    }
+
+    private long loadUniques(UniquesRange range) {
+        Instant minuteHorizon = Instant.ofEpochMilli(clock.getAsLong()).minus(minuteTtl);
+        List<String> keys = new ArrayList<>();
+        for (String scope : scopes(range.matchIds(), range.regions())) {
+            keys.addAll(UniquesKeys.rangeKeys(scope, range.from(), range.to(), minuteHorizon));
+        }
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long count = redisTemplate.opsForHyperLogLog().size(keys.toArray(String[]::new));
+        return count != null ? count : 0;
+    }
+
+    private static List<String> scopes(List<String> matchIds, List<String> regions) {
+        List<String> matches = matchIds.isEmpty() ? Collections.singletonList(null) : matchIds;
+        List<String> inRegions = regions.isEmpty() ? Collections.singletonList(null) : regions;
+        List<String> scopes = new ArrayList<>(matches.size() * inRegions.size());
+        for (String matchId : matches) {
+            for (String region : inRegions) {
+                scopes.add(UniquesKeys.scope(matchId, region));
+            }
+        }
+        return scopes;
+    }
+
+    private record UniquesRange(Instant from, Instant to, List<String> matchIds, List<String> regions) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.wcd.query.controller;
 
 import com.wcd.query.dto.LeaderboardEntry;
+import com.wcd.query.dto.PlayerRank;
 import com.wcd.query.service.LeaderboardService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +17,8 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -138,4 +141,65 @@ class LeaderboardControllerIntegrationTest {
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.matchId").value("world-cup"));
     }
+
+    @Test
+    void getPlayerRank_ReturnsRankScoreAndNeighbours() throws Exception {
+        when(leaderboardService.getPlayerRank("match-1", "user-2", 1)).thenReturn(new PlayerRank("user-2", 2, 400.0, List.of(
+            new LeaderboardEntry("user-1", 500.0, 1),
+            new LeaderboardEntry("user-2", 400.0, 2),
+            new LeaderboardEntry("user-3", 300.0, 3)
+        )));
+
+        mockMvc.perform(get("/api/leaderboard/match-1/players/user-2").param("window", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rank").value(2))
+            .andExpect(jsonPath("$.score").value(400.0))
+            .andExpect(jsonPath("$.neighbours.length()").value(3))
+            .andExpect(jsonPath("$.neighbours[0].userId").value("user-1"));
+    }
+
+    @Test
+    void getPlayerRank_UnrankedPlayer_Returns404() throws Exception {
+        when(leaderboardService.getPlayerRank(anyString(), anyString(), anyInt()))
+            .thenReturn(PlayerRank.unranked("ghost"));
+
+        mockMvc.perform(get("/api/leaderboard/match-1/players/ghost"))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.userId").value("ghost"));
+    }
+
+    @Test
+    void getPlayerRank_LargeWindow_IsCapped() throws Exception {
+        when(leaderboardService.getPlayerRank("match-1", "user-1", 50))
+            .thenReturn(new PlayerRank("user-1", 1, 10.0, List.of()));
+
+        mockMvc.perform(get("/api/leaderboard/match-1/players/user-1").param("window", "1000"))
+            .andExpect(status().isOk());
+
+        verify(leaderboardService).getPlayerRank("match-1", "user-1", 50);
+    }
+
+    @Test
+    void getPlayerRanks_ReturnsOneEntryPerDistinctUser() throws Exception {
+        when(leaderboardService.getPlayerRanks("match-1", List.of("user-1", "ghost"))).thenReturn(List.of(
+            new PlayerRank("user-1", 1, 500.0, List.of()),
+            PlayerRank.unranked("ghost")
+        ));
+
+        mockMvc.perform(get("/api/leaderboard/match-1/players").param("userIds", "user-1,ghost,user-1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.players.length()").value(2))
+            .andExpect(jsonPath("$.players[0].rank").value(1))
+            .andExpect(jsonPath("$.players[1].rank").doesNotExist());
+    }
+
+    @Test
+    void getPlayerRanks_TooManyUsers_Returns400() throws Exception {
+        String userIds = String.join(",", java.util.stream.IntStream.range(0, 101).mapToObj(i -> "user-" + i).toList());
+
+        mockMvc.perform(get("/api/leaderboard/match-1/players").param("userIds", userIds))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(leaderboardService);
+    }
 }
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -33,7 +35,7 @@ class LeaderboardControllerTest {
     void getLeaderboard_WithDefaultParams_UsesDefaultMatchIdAndLimit() {
         when(leaderboardService.getTopPlayers("match-1", 10)).thenReturn(Collections.emptyList());
 
-        controller.getLeaderboard("match-1", 10);
+        controller.getLeaderboard("match-1", 10, null, null);
 
         verify(leaderboardService).getTopPlayers("match-1", 10);
     }
@@ -43,7 +45,7 @@ class LeaderboardControllerTest {
         String matchId = "world-cup-finals";
         when(leaderboardService.getTopPlayers(matchId, 10)).thenReturn(Collections.emptyList());
 
-        Map<String, Object> response = controller.getLeaderboard(matchId, 10);
+        Map<String, Object> response = controller.getLeaderboard(matchId, 10, null, null);
 
         assertEquals(matchId, response.get("matchId"));
     }
@@ -56,7 +58,7 @@ class LeaderboardControllerTest {
         entries.add(new LeaderboardEntry("user-3", 80.0, 3));
         when(leaderboardService.getTopPlayers("match-1", 10)).thenReturn(entries);
 
-        Map<String, Object> response = controller.getLeaderboard("match-1", 10);
+        Map<String, Object> response = controller.getLeaderboard("match-1", 10, null, null);
 
         @SuppressWarnings("unchecked")
         List<LeaderboardEntry> returnedEntries = (List<LeaderboardEntry>) response.get("entries");
@@ -70,7 +72,7 @@ class LeaderboardControllerTest {
         when(leaderboardService.getTopPlayers("match-1", 10)).thenReturn(Collections.emptyList());
         long beforeCall = System.currentTimeMillis();
 
-        Map<String, Object> response = controller.getLeaderboard("match-1", 10);
+        Map<String, Object> response = controller.getLeaderboard("match-1", 10, null, null);
 
         long afterCall = System.currentTimeMillis();
         long timestamp = (Long) response.get("timestamp");
@@ -82,7 +84,7 @@ class LeaderboardControllerTest {
     void getLeaderboard_ReturnsMapWithThreeEntries() {
         when(leaderboardService.getTopPlayers("match-1", 10)).thenReturn(Collections.emptyList());
 
-        Map<String, Object> response = controller.getLeaderboard("match-1", 10);
+        Map<String, Object> response = controller.getLeaderboard("match-1", 10, null, null);
 
         assertEquals(3, response.size());
         assertTrue(response.containsKey("matchId"));
@@ -94,7 +96,7 @@ class LeaderboardControllerTest {
     void getLeaderboard_WithCustomLimit_PassesLimitToService() {
         when(leaderboardService.getTopPlayers("match-1", 50)).thenReturn(Collections.emptyList());
 
-        controller.getLeaderboard("match-1", 50);
+        controller.getLeaderboard("match-1", 50, null, null);
 
         verify(leaderboardService).getTopPlayers("match-1", 50);
     }
@@ -103,7 +105,7 @@ class LeaderboardControllerTest {
     void getLeaderboard_WithEmptyResult_ReturnsEmptyList() {
         when(leaderboardService.getTopPlayers("match-1", 10)).thenReturn(Collections.emptyList());
 
-        Map<String, Object> response = controller.getLeaderboard("match-1", 10);
+        Map<String, Object> response = controller.getLeaderboard("match-1", 10, null, null);
 
         @SuppressWarnings("unchecked")
         List<LeaderboardEntry> entries = (List<LeaderboardEntry>) response.get("entries");
@@ -115,16 +117,16 @@ class LeaderboardControllerTest {
         when(leaderboardService.getTopPlayers(anyString(), anyInt()))
             .thenThrow(new RuntimeException("Redis unavailable"));
 
-        assertThrows(RuntimeException.class, () -> controller.getLeaderboard("match-1", 10));
+        assertThrows(RuntimeException.class, () -> controller.getLeaderboard("match-1", 10, null, null));
     }
 
     @Test
     void getLeaderboard_DifferentMatchIds_CallsServiceWithCorrectId() {
         when(leaderboardService.getTopPlayers(anyString(), anyInt())).thenReturn(Collections.emptyList());
 
-        controller.getLeaderboard("match-A", 10);
-        controller.getLeaderboard("match-B", 10);
-        controller.getLeaderboard("match-C", 10);
+        controller.getLeaderboard("match-A", 10, null, null);
+        controller.getLeaderboard("match-B", 10, null, null);
+        controller.getLeaderboard("match-C", 10, null, null);
 
         verify(leaderboardService).getTopPlayers("match-A", 10);
         verify(leaderboardService).getTopPlayers("match-B", 10);
@@ -137,7 +139,7 @@ class LeaderboardControllerTest {
         entries.add(new LeaderboardEntry("champion", 500.0, 1));
         when(leaderboardService.getTopPlayers("finals", 1)).thenReturn(entries);
 
-        Map<String, Object> response = controller.getLeaderboard("finals", 1);
+        Map<String, Object> response = controller.getLeaderboard("finals", 1, null, null);
 
         @SuppressWarnings("unchecked")
         List<LeaderboardEntry> returnedEntries = (List<LeaderboardEntry>) response.get("entries");
@@ -153,7 +155,7 @@ class LeaderboardControllerTest {
         entries.add(new LeaderboardEntry("third", 100.0, 3));
         when(leaderboardService.getTopPlayers("match-1", 10)).thenReturn(entries);
 
-        Map<String, Object> response = controller.getLeaderboard("match-1", 10);
+        Map<String, Object> response = controller.getLeaderboard("match-1", 10, null, null);
 
         @SuppressWarnings("unchecked")
         List<LeaderboardEntry> returnedEntries = (List<LeaderboardEntry>) response.get("entries");
@@ -161,4 +163,43 @@ class LeaderboardControllerTest {
         assertEquals("second", returnedEntries.get(1).getUserId());
         assertEquals("third", returnedEntries.get(2).getUserId());
     }
+
+    @Test
+    void getLeaderboard_WithWindow_QueriesMinutesEndingAtTo() {
+        Instant end = Instant.parse("2026-06-14T18:45:00Z");
+        Instant start = end.minus(Duration.ofMinutes(4));
+        when(leaderboardService.getTopPlayers("match-1", 10, start, end))
+            .thenReturn(List.of(new LeaderboardEntry("hot", 12.0, 1)));
+
+        Map<String, Object> response = controller.getLeaderboard("match-1", 10, 5, end.toEpochMilli());
+
+        assertEquals(5, response.get("window"));
+        @SuppressWarnings("unchecked")
+        List<LeaderboardEntry> entries = (List<LeaderboardEntry>) response.get("entries");
+        assertEquals("hot", entries.get(0).getUserId());
+        verify(leaderboardService, never()).getTopPlayers(anyString(), anyInt());
+    }
+
+    @Test
+    void getLeaderboard_WithOversizedWindow_ClampsToBucketRetention() {
+        Instant end = Instant.parse("2026-06-14T18:45:00Z");
+        when(leaderboardService.getTopPlayers(eq("match-1"), eq(10), any(Instant.class), eq(end)))
+            .thenReturn(Collections.emptyList());
+
+        Map<String, Object> response = controller.getLeaderboard("match-1", 10, 10_000, end.toEpochMilli());
+
+        assertEquals(240, response.get("window"));
+        verify(leaderboardService).getTopPlayers("match-1", 10, end.minus(Duration.ofMinutes(239)), end);
+    }
+
+    @Test
+    void getLeaderboard_LimitIsClampedToOneThroughMax() {
+        when(leaderboardService.getTopPlayers(anyString(), anyInt())).thenReturn(Collections.emptyList());
+
+        controller.getLeaderboard("match-1", -5, null, null);
+        controller.getLeaderboard("match-1", 100_000, null, null);
+
+        verify(leaderboardService).getTopPlayers("match-1", 1);
+        verify(leaderboardService).getTopPlayers("match-1", LeaderboardController.MAX_LIMIT);
+    }
 }
@@ -97,4 +97,15 @@ class PresenceControllerTest {
         assertEquals(30L, response3.get("onlineCount"));
         verify(presenceService, times(3)).getOnlineCount();
     }
+
+    @Test
+    void regionOnlineCount_ReturnsRegionAndCount() {
+        when(presenceService.getOnlineCount("EU")).thenReturn(12L);
+
+        Map<String, Object> response = controller.regionOnlineCount("EU");
+
+        assertEquals("EU", response.get("region"));
+        assertEquals(12L, response.get("onlineCount"));
+        assertTrue(response.containsKey("timestamp"));
+    }
 }
@@ -0,0 +1,66 @@
+package com.wcd.query.controller;
+
+import com.wcd.query.dto.LeaderboardEntry;
+import com.wcd.query.service.ReactiveLeaderboardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveLeaderboardControllerTest {
+
+    @Mock
+    private ReactiveLeaderboardService leaderboardService;
+
+    private ReactiveLeaderboardController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new ReactiveLeaderboardController(leaderboardService);
+    }
+
+    @Test
+    void getLeaderboard_ReturnsSameShapeAsServletController() {
+        List<LeaderboardEntry> entries = List.of(new LeaderboardEntry("user-1", 100.0, 1));
+        when(leaderboardService.getTopPlayers("match-1", 10)).thenReturn(Mono.just(entries));
+
+        Map<String, Object> response = controller.getLeaderboard("match-1", 10, null, null).block();
+
+        assertEquals("match-1", response.get("matchId"));
+        assertEquals(entries, response.get("entries"));
+        assertTrue(response.containsKey("timestamp"));
+        assertEquals(3, response.size());
+    }
+
+    @Test
+    void getLeaderboard_WithWindow_QueriesWindowEndingAtTo() {
+        Instant to = Instant.parse("2026-06-14T18:45:00Z");
+        Instant from = to.minus(Duration.ofMinutes(4));
+        when(leaderboardService.getTopPlayers("match-1", 10, from, to)).thenReturn(Mono.just(List.of()));
+
+        Map<String, Object> response = controller.getLeaderboard("match-1", 10, 5, to.toEpochMilli()).block();
+
+        assertEquals(5, response.get("window"));
+    }
+
+    @Test
+    void getLeaderboard_WindowIsCappedToBucketRetention() {
+        Instant to = Instant.parse("2026-06-14T18:45:00Z");
+        when(leaderboardService.getTopPlayers(eq("match-1"), eq(10), any(), eq(to))).thenReturn(Mono.just(List.of()));
+
+        Map<String, Object> response = controller.getLeaderboard("match-1", 10, 10_000, to.toEpochMilli()).block();
+
+        assertEquals(LeaderboardController.MAX_WINDOW_MINUTES, response.get("window"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.wcd.query.controller;
+
+import com.wcd.query.service.LiveUpdateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StreamControllerTest {
+
+    @Mock
+    private LiveUpdateService liveUpdateService;
+
+    private StreamController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new StreamController(liveUpdateService);
+    }
+
+    @Test
+    void leaderboard_ReturnsEmitterWithBufferingDisabled() {
+        SseEmitter emitter = new SseEmitter();
+        when(liveUpdateService.subscribeLeaderboard("match-1", 10)).thenReturn(emitter);
+
+        ResponseEntity<SseEmitter> response = controller.leaderboard("match-1", 10);
+
+        assertSame(emitter, response.getBody());
+        assertEquals("no", response.getHeaders().getFirst("X-Accel-Buffering"));
+    }
+
+    @Test
+    void leaderboard_ClampsLimit() {
+        when(liveUpdateService.subscribeLeaderboard(anyString(), anyInt())).thenReturn(new SseEmitter());
+
+        controller.leaderboard("match-1", 10_000);
+        controller.leaderboard("match-1", 0);
+
+        verify(liveUpdateService).subscribeLeaderboard("match-1", 100);
+        verify(liveUpdateService).subscribeLeaderboard("match-1", 1);
+    }
+
+    @Test
+    void presence_ReturnsEmitter() {
+        SseEmitter emitter = new SseEmitter();
+        when(liveUpdateService.subscribePresence()).thenReturn(emitter);
+
+        ResponseEntity<SseEmitter> response = controller.presence();
+
+        assertSame(emitter, response.getBody());
+    }
+}
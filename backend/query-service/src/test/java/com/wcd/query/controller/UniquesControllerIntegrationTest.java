@@ -0,0 +1,92 @@
+package com.wcd.query.controller;
+
+import com.wcd.query.service.UniquesService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(UniquesController.class)
+class UniquesControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UniquesService uniquesService;
+
+    @Test
+    void uniques_WithBounds_CountsThatRange() throws Exception {
+        Instant to = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+        Instant from = to.minus(Duration.ofMinutes(90));
+        when(uniquesService.countUniques(from, to, List.of(), List.of())).thenReturn(4200L);
+
+        mockMvc.perform(get("/api/uniques")
+                .param("from", String.valueOf(from.toEpochMilli()))
+                .param("to", String.valueOf(to.toEpochMilli())))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.uniques").value(4200))
+            .andExpect(jsonPath("$.from").value(from.toEpochMilli()));
+    }
+
+    @Test
+    void uniques_Default_CountsLastHour() throws Exception {
+        when(uniquesService.countUniques(any(), any(), any(), any())).thenReturn(10L);
+
+        mockMvc.perform(get("/api/uniques"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.uniques").value(10));
+
+        verify(uniquesService).countUniques(any(), any(), eq(List.of()), eq(List.of()));
+    }
+
+    @Test
+    void uniques_RangeBeyondRetention_Returns400() throws Exception {
+        Instant to = Instant.now();
+
+        mockMvc.perform(get("/api/uniques")
+                .param("from", String.valueOf(to.minus(Duration.ofHours(49)).toEpochMilli()))
+                .param("to", String.valueOf(to.toEpochMilli())))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(uniquesService);
+    }
+
+    @Test
+    void uniques_RangeStartingBeforeRetention_Returns400() throws Exception {
+        mockMvc.perform(get("/api/uniques").param("from", "0").param("to", "3600000"))
+            .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(uniquesService);
+    }
+
+    @Test
+    void uniques_FromAfterTo_Returns400() throws Exception {
+        mockMvc.perform(get("/api/uniques").param("from", "2000").param("to", "1000"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void uniques_WithDimensions_PassesFilters() throws Exception {
+        when(uniquesService.countUniques(any(), any(), eq(List.of("match-2")), eq(List.of("EU", "NA")))).thenReturn(55L);
+
+        mockMvc.perform(get("/api/uniques").param("matchId", "match-2").param("region", "EU,NA"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.uniques").value(55))
+            .andExpect(jsonPath("$.regions.length()").value(2));
+    }
+}
@@ -1,14 +1,23 @@
 package com.wcd.query.service;
 
 import com.wcd.query.dto.LeaderboardEntry;
+import com.wcd.query.dto.PlayerRank;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.core.DefaultTypedTuple;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ZSetOperations;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -19,6 +28,7 @@ class LeaderboardServiceTest {
     private LeaderboardService leaderboardService;
     private RedisTemplate<String, String> redisTemplate;
     private ZSetOperations<String, String> zSetOperations;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
@@ -27,7 +37,8 @@ class LeaderboardServiceTest {
 
         when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
 
-        leaderboardService = new LeaderboardService(redisTemplate);
+        meterRegistry = new SimpleMeterRegistry();
+        leaderboardService = new LeaderboardService(redisTemplate, meterRegistry, 60_000, 100, 1);
     }
 
     @Test
@@ -57,4 +68,201 @@ class LeaderboardServiceTest {
         assertNotNull(entries);
         assertTrue(entries.isEmpty());
     }
+
+    @Test
+    void getTopPlayers_RepeatedCalls_HitRedisOnce() {
+        when(zSetOperations.reverseRangeWithScores(anyString(), anyLong(), anyLong()))
+            .thenReturn(Set.of(new DefaultTypedTuple<>("user-1", 100.0)));
+
+        leaderboardService.getTopPlayers("match-1", 10);
+        leaderboardService.getTopPlayers("match-1", 10);
+        leaderboardService.getTopPlayers("match-1", 10);
+
+        verify(zSetOperations, times(1)).reverseRangeWithScores("leaderboard:match-1", 0L, 9L);
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "leaderboard.top").tag("result", "hit")
+            .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "leaderboard.top").tag("result", "miss")
+            .functionCounter().count());
+    }
+
+    @Test
+    void getTopPlayers_DifferentLimits_AreCachedSeparately() {
+        when(zSetOperations.reverseRangeWithScores(anyString(), anyLong(), anyLong()))
+            .thenReturn(Set.of());
+
+        leaderboardService.getTopPlayers("match-1", 10);
+        leaderboardService.getTopPlayers("match-1", 5);
+
+        verify(zSetOperations).reverseRangeWithScores("leaderboard:match-1", 0L, 9L);
+        verify(zSetOperations).reverseRangeWithScores("leaderboard:match-1", 0L, 4L);
+    }
+
+    @Test
+    void getTopPlayers_ExpiredEntry_ReloadsFromRedis() throws InterruptedException {
+        leaderboardService = new LeaderboardService(redisTemplate, meterRegistry, 10, 100, 1);
+        when(zSetOperations.reverseRangeWithScores(anyString(), anyLong(), anyLong()))
+            .thenReturn(Set.of());
+
+        leaderboardService.getTopPlayers("match-1", 10);
+        Thread.sleep(30);
+        leaderboardService.getTopPlayers("match-1", 10);
+
+        verify(zSetOperations, times(2)).reverseRangeWithScores("leaderboard:match-1", 0L, 9L);
+    }
+
+    @Test
+    void getTopPlayers_ConcurrentMisses_CoalesceIntoOneRedisCall() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(zSetOperations.reverseRangeWithScores(anyString(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            release.await(1, TimeUnit.SECONDS);
+            return Set.of();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<LeaderboardEntry>>> futures = new java.util.ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> leaderboardService.getTopPlayers("match-1", 10)));
+            }
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<List<LeaderboardEntry>> future : futures) {
+                assertNotNull(future.get(2, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(zSetOperations, times(1)).reverseRangeWithScores("leaderboard:match-1", 0L, 9L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getTopPlayers_Sharded_MergesShardsInOnePipeline() {
+        leaderboardService = new LeaderboardService(redisTemplate, meterRegistry, 60_000, 100, 3);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(
+            Set.of(new DefaultTypedTuple<>("user-1", 90.0), new DefaultTypedTuple<>("user-4", 10.0)),
+            Set.of(new DefaultTypedTuple<>("user-2", 120.0)),
+            Set.of(new DefaultTypedTuple<>("user-3", 90.0), new DefaultTypedTuple<>("user-5", 80.0))
+        ));
+
+        List<LeaderboardEntry> entries = leaderboardService.getTopPlayers("match-1", 3);
+        leaderboardService.getTopPlayers("match-1", 3);
+
+        assertEquals(List.of("user-2", "user-3", "user-1"), entries.stream().map(LeaderboardEntry::getUserId).toList());
+        assertEquals(List.of(1, 2, 3), entries.stream().map(LeaderboardEntry::getRank).toList());
+        assertEquals(120.0, entries.get(0).getScore());
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        verifyNoInteractions(zSetOperations);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getTopPlayers_Windowed_UnionsMinuteBucketsInOnePipeline() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            callback.execute(redisTemplate);
+            return java.util.Arrays.asList(2L, true,
+                Set.of(new DefaultTypedTuple<>("user-2", 7.0), new DefaultTypedTuple<>("user-1", 4.0)));
+        });
+        Instant from = Instant.parse("2026-06-14T18:03:10Z");
+        Instant to = Instant.parse("2026-06-14T18:05:59Z");
+
+        List<LeaderboardEntry> entries = leaderboardService.getTopPlayers("match-1", 10, from, to);
+        leaderboardService.getTopPlayers("match-1", 10, from.plusSeconds(20), to.minusSeconds(30));
+
+        String unionKey = "leaderboard:window:{match-1}:union:202606141803-202606141805";
+        verify(zSetOperations).unionAndStore("leaderboard:window:{match-1}:202606141803",
+            List.of("leaderboard:window:{match-1}:202606141804", "leaderboard:window:{match-1}:202606141805"), unionKey);
+        verify(redisTemplate).expire(eq(unionKey), any(java.time.Duration.class));
+        verify(zSetOperations).reverseRangeWithScores(unionKey, 0L, 9L);
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        assertEquals(List.of("user-2", "user-1"), entries.stream().map(LeaderboardEntry::getUserId).toList());
+        assertEquals(7.0, entries.get(0).getScore());
+    }
+
+    @Test
+    void getTopPlayers_WindowedAndAllTime_AreCachedSeparately() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenReturn(java.util.Arrays.asList(0L, true, Set.of()));
+        when(zSetOperations.reverseRangeWithScores("leaderboard:match-1", 0L, 9L))
+            .thenReturn(Set.of(new DefaultTypedTuple<>("user-1", 100.0)));
+        Instant now = Instant.parse("2026-06-14T18:05:00Z");
+
+        List<LeaderboardEntry> windowed = leaderboardService.getTopPlayers("match-1", 10, now.minusSeconds(240), now);
+        List<LeaderboardEntry> allTime = leaderboardService.getTopPlayers("match-1", 10);
+
+        assertTrue(windowed.isEmpty());
+        assertEquals(1, allTime.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getPlayerRank_ReadsPositionThenWindow() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(java.util.Arrays.asList(4L, 70.0));
+        Set<ZSetOperations.TypedTuple<String>> window = new java.util.LinkedHashSet<>(List.of(
+            new DefaultTypedTuple<>("user-a", 90.0),
+            new DefaultTypedTuple<>("user-b", 80.0),
+            new DefaultTypedTuple<>("user-c", 70.0),
+            new DefaultTypedTuple<>("user-d", 60.0),
+            new DefaultTypedTuple<>("user-e", 50.0)
+        ));
+        when(zSetOperations.reverseRangeWithScores("leaderboard:match-1", 2L, 6L)).thenReturn(window);
+
+        PlayerRank player = leaderboardService.getPlayerRank("match-1", "user-c", 2);
+
+        assertEquals(5, player.getRank());
+        assertEquals(70.0, player.getScore());
+        assertEquals(List.of(3, 4, 5, 6, 7), player.getNeighbours().stream().map(LeaderboardEntry::getRank).toList());
+        assertEquals("user-c", player.getNeighbours().get(2).getUserId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getPlayerRank_UnknownPlayer_IsUnranked() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(java.util.Arrays.asList(null, null));
+
+        PlayerRank player = leaderboardService.getPlayerRank("match-1", "ghost", 2);
+
+        assertFalse(player.isRanked());
+        verify(zSetOperations, never()).reverseRangeWithScores(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getPlayerRanks_ReadsAllPlayersInOnePipeline() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+            .thenReturn(java.util.Arrays.asList(0L, 120.0, null, null, 9L, 15.0));
+
+        List<PlayerRank> players = leaderboardService.getPlayerRanks("match-1", List.of("user-1", "ghost", "user-9"));
+
+        assertEquals(1, players.get(0).getRank());
+        assertFalse(players.get(1).isRanked());
+        assertEquals(10, players.get(2).getRank());
+        assertEquals(15.0, players.get(2).getScore());
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getPlayerRank_Sharded_CountsHigherScoresAcrossShards() {
+        leaderboardService = new LeaderboardService(redisTemplate, meterRegistry, 60_000, 100, 2);
+        when(zSetOperations.score(anyString(), eq("user-c"))).thenReturn(70.0);
+        // Per shard: players above the score, nearest scores at or above, nearest at or below.
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(
+            3L,
+            Set.of(new DefaultTypedTuple<>("user-c", 70.0), new DefaultTypedTuple<>("user-b", 80.0)),
+            Set.of(new DefaultTypedTuple<>("user-c", 70.0), new DefaultTypedTuple<>("user-e", 50.0)),
+            1L,
+            Set.of(new DefaultTypedTuple<>("user-a", 90.0)),
+            Set.of(new DefaultTypedTuple<>("user-d", 60.0))
+        ));
+
+        PlayerRank player = leaderboardService.getPlayerRank("match-1", "user-c", 1);
+
+        assertEquals(5, player.getRank());
+        assertEquals(List.of("user-b", "user-c", "user-d"),
+            player.getNeighbours().stream().map(LeaderboardEntry::getUserId).toList());
+        assertEquals(List.of(4, 5, 6), player.getNeighbours().stream().map(LeaderboardEntry::getRank).toList());
+    }
 }
@@ -0,0 +1,113 @@
+package com.wcd.query.service;
+
+import com.wcd.query.dto.LeaderboardEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LiveUpdateServiceTest {
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private PresenceService presenceService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LiveUpdateService liveUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        liveUpdateService = new LiveUpdateService(leaderboardService, presenceService, meterRegistry, 60_000);
+    }
+
+    @Test
+    void subscribeLeaderboard_ReturnsEmitterAndLoadsSnapshotOnce() {
+        when(leaderboardService.getTopPlayers("match-1", 10)).thenReturn(List.of());
+
+        SseEmitter first = liveUpdateService.subscribeLeaderboard("match-1", 10);
+        SseEmitter second = liveUpdateService.subscribeLeaderboard("match-1", 10);
+
+        assertNotNull(first);
+        assertNotNull(second);
+        verify(leaderboardService, times(1)).getTopPlayers("match-1", 10);
+        assertEquals(2.0, meterRegistry.get("wcd.stream.subscribers").tag("stream", "leaderboard").gauge().value());
+    }
+
+    @Test
+    void publishUpdates_PollsOncePerChannelRegardlessOfSubscribers() {
+        when(leaderboardService.getTopPlayers("match-1", 10)).thenReturn(List.of());
+
+        for (int i = 0; i < 5; i++) {
+            liveUpdateService.subscribeLeaderboard("match-1", 10);
+        }
+        liveUpdateService.publishUpdates();
+
+        // one snapshot load plus one refresh for the shared channel
+        verify(leaderboardService, times(2)).getTopPlayers("match-1", 10);
+        verifyNoInteractions(presenceService);
+    }
+
+    @Test
+    void publishUpdates_WithPresenceSubscribers_QueriesPresenceOnce() {
+        when(presenceService.getOnlineCount()).thenReturn(3L, 4L);
+
+        liveUpdateService.subscribePresence();
+        liveUpdateService.subscribePresence();
+        liveUpdateService.publishUpdates();
+
+        verify(presenceService, times(2)).getOnlineCount();
+    }
+
+    @Test
+    void leaderboardDiff_NoChanges_ReturnsNull() {
+        List<LeaderboardEntry> entries = List.of(new LeaderboardEntry("user-1", 10.0, 1));
+
+        assertNull(LiveUpdateService.leaderboardDiff("match-1", entries, entries));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void leaderboardDiff_ReportsChangedAndRemovedEntries() {
+        List<LeaderboardEntry> previous = List.of(
+            new LeaderboardEntry("user-1", 10.0, 1),
+            new LeaderboardEntry("user-2", 8.0, 2),
+            new LeaderboardEntry("user-3", 5.0, 3)
+        );
+        List<LeaderboardEntry> current = List.of(
+            new LeaderboardEntry("user-2", 12.0, 1),
+            new LeaderboardEntry("user-1", 10.0, 2),
+            new LeaderboardEntry("user-4", 6.0, 3)
+        );
+
+        Map<String, Object> diff = LiveUpdateService.leaderboardDiff("match-1", previous, current);
+
+        assertNotNull(diff);
+        List<LeaderboardEntry> changed = (List<LeaderboardEntry>) diff.get("changed");
+        assertEquals(List.of("user-2", "user-1", "user-4"), changed.stream().map(LeaderboardEntry::getUserId).toList());
+        assertEquals(List.of("user-3"), diff.get("removed"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void leaderboardDiff_FromNothing_ReportsAllEntries() {
+        List<LeaderboardEntry> current = List.of(new LeaderboardEntry("user-1", 1.0, 1));
+
+        Map<String, Object> diff = LiveUpdateService.leaderboardDiff("match-1", null, current);
+
+        assertEquals(1, ((List<LeaderboardEntry>) diff.get("changed")).size());
+        assertTrue(((List<String>) diff.get("removed")).isEmpty());
+    }
+}
@@ -6,12 +6,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
-
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import org.springframework.data.redis.core.ZSetOperations;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,100 +18,84 @@ class PresenceServiceTest {
     @Mock
     private RedisTemplate<String, String> redisTemplate;
 
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
     private PresenceService presenceService;
 
     @BeforeEach
     void setUp() {
-        presenceService = new PresenceService(redisTemplate);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        presenceService = new PresenceService(redisTemplate, 30);
     }
 
     @Test
     void getOnlineCount_WithNoUsers_ReturnsZero() {
-        when(redisTemplate.keys("presence:*")).thenReturn(Collections.emptySet());
+        when(zSetOperations.count(eq("presence:online"), anyDouble(), anyDouble())).thenReturn(0L);
 
         long count = presenceService.getOnlineCount();
 
         assertEquals(0, count);
-        verify(redisTemplate).keys("presence:*");
     }
 
     @Test
-    void getOnlineCount_WithOneUser_ReturnsOne() {
-        Set<String> keys = new HashSet<>();
-        keys.add("presence:user-1");
-        when(redisTemplate.keys("presence:*")).thenReturn(keys);
+    void getOnlineCount_WithMultipleUsers_ReturnsCorrectCount() {
+        when(zSetOperations.count(eq("presence:online"), anyDouble(), anyDouble())).thenReturn(5L);
 
         long count = presenceService.getOnlineCount();
 
-        assertEquals(1, count);
+        assertEquals(5, count);
     }
 
     @Test
-    void getOnlineCount_WithMultipleUsers_ReturnsCorrectCount() {
-        Set<String> keys = new HashSet<>();
-        keys.add("presence:user-1");
-        keys.add("presence:user-2");
-        keys.add("presence:user-3");
-        keys.add("presence:user-4");
-        keys.add("presence:user-5");
-        when(redisTemplate.keys("presence:*")).thenReturn(keys);
-
-        long count = presenceService.getOnlineCount();
+    void getOnlineCount_NullCount_ReturnsZero() {
+        when(zSetOperations.count(eq("presence:online"), anyDouble(), anyDouble())).thenReturn(null);
 
-        assertEquals(5, count);
+        assertEquals(0, presenceService.getOnlineCount());
     }
 
     @Test
-    void getOnlineCount_WithLargeNumberOfUsers_ReturnsCorrectCount() {
-        Set<String> keys = new HashSet<>();
-        for (int i = 0; i < 1000; i++) {
-            keys.add("presence:user-" + i);
-        }
-        when(redisTemplate.keys("presence:*")).thenReturn(keys);
+    void getOnlineCount_CountsOnlyUsersSeenWithinTtl() {
+        when(zSetOperations.count(eq("presence:online"), anyDouble(), anyDouble())).thenReturn(1L);
+        long before = System.currentTimeMillis() - 30_000L;
 
-        long count = presenceService.getOnlineCount();
+        presenceService.getOnlineCount();
 
-        assertEquals(1000, count);
+        long after = System.currentTimeMillis() - 30_000L;
+        verify(zSetOperations).count(eq("presence:online"),
+            doubleThat(cutoff -> cutoff >= before && cutoff <= after),
+            eq(Double.POSITIVE_INFINITY));
     }
 
     @Test
-    void getOnlineCount_NullKeys_ReturnsZero() {
-        when(redisTemplate.keys("presence:*")).thenReturn(null);
+    void getOnlineCount_NeverScansKeyspace() {
+        when(zSetOperations.count(anyString(), anyDouble(), anyDouble())).thenReturn(3L);
+
+        presenceService.getOnlineCount();
 
-        // This will throw NPE with current implementation
-        // Documenting expected behavior
-        assertThrows(NullPointerException.class, () -> presenceService.getOnlineCount());
+        verify(redisTemplate, never()).keys(anyString());
     }
 
     @Test
-    void getOnlineCount_UsesCorrectKeyPattern() {
-        when(redisTemplate.keys("presence:*")).thenReturn(Collections.emptySet());
+    void getOnlineCount_ForRegion_UsesRegionSet() {
+        when(zSetOperations.count(eq("presence:online:EU"), anyDouble(), anyDouble())).thenReturn(7L);
 
-        presenceService.getOnlineCount();
+        long count = presenceService.getOnlineCount("EU");
 
-        verify(redisTemplate).keys("presence:*");
-        verify(redisTemplate, never()).keys("leaderboard:*");
-        verify(redisTemplate, never()).keys("uniques:*");
+        assertEquals(7, count);
     }
 
     @Test
     void getOnlineCount_CalledMultipleTimes_QueriesRedisEachTime() {
-        Set<String> keys1 = new HashSet<>();
-        keys1.add("presence:user-1");
-
-        Set<String> keys2 = new HashSet<>();
-        keys2.add("presence:user-1");
-        keys2.add("presence:user-2");
-
-        when(redisTemplate.keys("presence:*"))
-            .thenReturn(keys1)
-            .thenReturn(keys2);
+        when(zSetOperations.count(eq("presence:online"), anyDouble(), anyDouble()))
+            .thenReturn(1L)
+            .thenReturn(2L);
 
         long count1 = presenceService.getOnlineCount();
         long count2 = presenceService.getOnlineCount();
 
         assertEquals(1, count1);
         assertEquals(2, count2);
-        verify(redisTemplate, times(2)).keys("presence:*");
+        verify(zSetOperations, times(2)).count(eq("presence:online"), anyDouble(), anyDouble());
     }
 }
@@ -0,0 +1,111 @@
+package com.wcd.query.service;
+
+import com.wcd.query.dto.LeaderboardEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveLeaderboardServiceTest {
+
+    private ReactiveRedisTemplate<String, String> redisTemplate;
+    private ReactiveZSetOperations<String, String> zSetOperations;
+    private SimpleMeterRegistry meterRegistry;
+    private ReactiveLeaderboardService leaderboardService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(ReactiveRedisTemplate.class);
+        zSetOperations = mock(ReactiveZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        leaderboardService = new ReactiveLeaderboardService(redisTemplate, meterRegistry, 60_000, 100, 1);
+    }
+
+    @Test
+    void getTopPlayers_ReturnsRankedEntries() {
+        when(zSetOperations.reverseRangeWithScores("leaderboard:match-1", Range.closed(0L, 9L)))
+            .thenReturn(Flux.just(tuple("user-1", 100.0), tuple("user-2", 50.0)));
+
+        List<LeaderboardEntry> entries = leaderboardService.getTopPlayers("match-1", 10).block();
+
+        assertEquals(List.of("user-1", "user-2"), entries.stream().map(LeaderboardEntry::getUserId).toList());
+        assertEquals(2, entries.get(1).getRank());
+    }
+
+    @Test
+    void getTopPlayers_RepeatedCalls_HitRedisOnce() {
+        when(zSetOperations.reverseRangeWithScores(anyString(), any()))
+            .thenReturn(Flux.just(tuple("user-1", 100.0)));
+
+        leaderboardService.getTopPlayers("match-1", 10).block();
+        leaderboardService.getTopPlayers("match-1", 10).block();
+
+        verify(zSetOperations, times(1)).reverseRangeWithScores("leaderboard:match-1", Range.closed(0L, 9L));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "leaderboard.top").tag("result", "hit")
+            .functionCounter().count());
+    }
+
+    @Test
+    void getTopPlayers_CancelledSubscriber_DoesNotCancelSharedLoad() {
+        Sinks.Many<ZSetOperations.TypedTuple<String>> pending = Sinks.many().unicast().onBackpressureBuffer();
+        when(zSetOperations.reverseRangeWithScores(anyString(), any())).thenReturn(pending.asFlux());
+
+        leaderboardService.getTopPlayers("match-1", 10).subscribe().dispose();
+        pending.tryEmitNext(tuple("user-1", 100.0));
+        pending.tryEmitComplete();
+
+        assertEquals(1, leaderboardService.getTopPlayers("match-1", 10).block().size());
+        verify(zSetOperations, times(1)).reverseRangeWithScores(anyString(), any());
+    }
+
+    @Test
+    void getTopPlayers_Sharded_MergesShardTopLists() {
+        leaderboardService = new ReactiveLeaderboardService(redisTemplate, meterRegistry, 60_000, 100, 2);
+        when(zSetOperations.reverseRangeWithScores(eq("leaderboard:match-1:s0"), any()))
+            .thenReturn(Flux.just(tuple("user-1", 9.0), tuple("user-3", 2.0)));
+        when(zSetOperations.reverseRangeWithScores(eq("leaderboard:match-1:s1"), any()))
+            .thenReturn(Flux.just(tuple("user-2", 5.0)));
+
+        List<LeaderboardEntry> entries = leaderboardService.getTopPlayers("match-1", 2).block();
+
+        assertEquals(List.of("user-1", "user-2"), entries.stream().map(LeaderboardEntry::getUserId).toList());
+    }
+
+    @Test
+    void getTopPlayers_Windowed_UnionsMinuteBucketsThenReadsUnion() {
+        String unionKey = "leaderboard:window:{match-1}:union:202606141803-202606141805";
+        when(zSetOperations.unionAndStore(anyString(), anyList(), eq(unionKey))).thenReturn(Mono.just(2L));
+        when(redisTemplate.expire(eq(unionKey), any(Duration.class))).thenReturn(Mono.just(true));
+        when(zSetOperations.reverseRangeWithScores(unionKey, Range.closed(0L, 9L)))
+            .thenReturn(Flux.just(tuple("user-2", 7.0), tuple("user-1", 4.0)));
+        Instant from = Instant.parse("2026-06-14T18:03:10Z");
+        Instant to = Instant.parse("2026-06-14T18:05:59Z");
+
+        List<LeaderboardEntry> entries = leaderboardService.getTopPlayers("match-1", 10, from, to).block();
+
+        verify(zSetOperations).unionAndStore("leaderboard:window:{match-1}:202606141803",
+            List.of("leaderboard:window:{match-1}:202606141804", "leaderboard:window:{match-1}:202606141805"), unionKey);
+        assertEquals(List.of("user-2", "user-1"), entries.stream().map(LeaderboardEntry::getUserId).toList());
+    }
+
+    private static ZSetOperations.TypedTuple<String> tuple(String userId, double score) {
+        return new DefaultTypedTuple<>(userId, score);
+    }
+}
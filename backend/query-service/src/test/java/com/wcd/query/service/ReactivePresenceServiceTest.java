@@ -0,0 +1,61 @@
+package com.wcd.query.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReactivePresenceServiceTest {
+
+    private ReactiveZSetOperations<String, String> zSetOperations;
+    private ReactivePresenceService presenceService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReactiveRedisTemplate<String, String> redisTemplate = mock(ReactiveRedisTemplate.class);
+        zSetOperations = mock(ReactiveZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        presenceService = new ReactivePresenceService(redisTemplate, 30);
+    }
+
+    @Test
+    void getOnlineCount_CountsOnlyUsersSeenWithinTtl() {
+        when(zSetOperations.count(eq("presence:online"), any())).thenReturn(Mono.just(5L));
+        long before = System.currentTimeMillis() - 30_000L;
+
+        assertEquals(5L, presenceService.getOnlineCount().block());
+
+        long after = System.currentTimeMillis() - 30_000L;
+        verify(zSetOperations).count(eq("presence:online"), argThat((Range<Double> range) ->
+            range.getLowerBound().getValue().filter(cutoff -> cutoff >= before && cutoff <= after).isPresent()
+                && range.getUpperBound().getValue().filter(max -> max == Double.POSITIVE_INFINITY).isPresent()));
+    }
+
+    @Test
+    void getOnlineCount_EmptyReply_ReturnsZero() {
+        when(zSetOperations.count(anyString(), any())).thenReturn(Mono.empty());
+
+        assertEquals(0L, presenceService.getOnlineCount().block());
+    }
+
+    @Test
+    void getOnlineCount_ForRegion_UsesRegionSet() {
+        when(zSetOperations.count(eq("presence:online:EU"), any())).thenReturn(Mono.just(7L));
+
+        assertEquals(7L, presenceService.getOnlineCount("EU").block());
+    }
+
+    @Test
+    void getOnlineCount_IsLazyUntilSubscribed() {
+        presenceService.getOnlineCount();
+
+        verifyNoInteractions(zSetOperations);
+    }
+}
@@ -0,0 +1,93 @@
+package com.wcd.query.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.HyperLogLogOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UniquesServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-06-14T20:00:00Z");
+
+    private UniquesService uniquesService;
+    private RedisTemplate<String, String> redisTemplate;
+    private HyperLogLogOperations<String, String> hllOperations;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        hllOperations = mock(HyperLogLogOperations.class);
+        when(redisTemplate.opsForHyperLogLog()).thenReturn(hllOperations);
+        uniquesService = new UniquesService(redisTemplate, new SimpleMeterRegistry(), 60_000, 100, 180, NOW::toEpochMilli);
+    }
+
+    @Test
+    void countUniques_CountsHourlyRollupsAndEdgeMinutesInOneCall() {
+        when(hllOperations.size(any(String[].class))).thenReturn(1234L);
+
+        long count = uniquesService.countUniques(
+            Instant.parse("2026-06-14T17:59:10Z"), Instant.parse("2026-06-14T19:00:30Z"));
+
+        assertEquals(1234L, count);
+        verify(hllOperations).size(
+            "uniques:202606141759", "uniques:hour:2026061418", "uniques:202606141900");
+    }
+
+    @Test
+    void countUniques_SameMinuteAlignedRange_HitsRedisOnce() {
+        when(hllOperations.size(any(String[].class))).thenReturn(7L);
+
+        uniquesService.countUniques(Instant.parse("2026-06-14T18:00:01Z"), Instant.parse("2026-06-14T18:10:01Z"));
+        uniquesService.countUniques(Instant.parse("2026-06-14T18:00:45Z"), Instant.parse("2026-06-14T18:10:59Z"));
+
+        verify(hllOperations, times(1)).size(any(String[].class));
+    }
+
+    @Test
+    void countUniques_NoData_ReturnsZero() {
+        when(hllOperations.size(any(String[].class))).thenReturn(null);
+
+        assertEquals(0L, uniquesService.countUniques(
+            Instant.parse("2026-06-14T18:00:00Z"), Instant.parse("2026-06-14T18:05:00Z")));
+    }
+
+    @Test
+    void countUniques_AcrossDimensions_UnionsScopesInOneCall() {
+        when(hllOperations.size(any(String[].class))).thenReturn(42L);
+
+        long count = uniquesService.countUniques(
+            Instant.parse("2026-06-14T18:00:00Z"), Instant.parse("2026-06-14T18:59:00Z"),
+            List.of("match-2"), List.of("NA", "EU"));
+
+        assertEquals(42L, count);
+        verify(hllOperations).size(
+            "uniques:match-region:match-2:EU:hour:2026061418", "uniques:match-region:match-2:NA:hour:2026061418");
+    }
+
+    @Test
+    void countUniques_RegionOnly_UsesRegionScope() {
+        when(hllOperations.size(any(String[].class))).thenReturn(3L);
+
+        uniquesService.countUniques(
+            Instant.parse("2026-06-14T18:00:00Z"), Instant.parse("2026-06-14T18:00:00Z"), List.of(), List.of("EU"));
+
+        verify(hllOperations).size("uniques:region:EU:202606141800");
+    }
+
+    @Test
+    void countUniques_EdgeOlderThanMinuteTtl_UsesItsHourlyRollup() {
+        when(hllOperations.size(any(String[].class))).thenReturn(9L);
+
+        uniquesService.countUniques(Instant.parse("2026-06-14T16:50:00Z"), Instant.parse("2026-06-14T18:00:00Z"));
+
+        verify(hllOperations).size("uniques:hour:2026061416", "uniques:hour:2026061417", "uniques:202606141800");
+    }
+}
@@ -4,5 +4,6 @@ include(
     "common",
     "ingest-service",
     "projector-service",
-    "query-service"
+    "query-service",
+    "benchmarks"
 )
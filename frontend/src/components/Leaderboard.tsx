@@ -1,5 +1,5 @@
 import { useState, useEffect } from 'react'
-import { api, LeaderboardEntry } from '../lib/api'
+import { api, applyLeaderboardDiff, LeaderboardDiff, LeaderboardEntry, streamsSupported } from '../lib/api'
 
 export default function Leaderboard() {
   const [entries, setEntries] = useState<LeaderboardEntry[]>([])
@@ -7,6 +7,20 @@ export default function Leaderboard() {
   const [loading, setLoading] = useState(true)
 
   useEffect(() => {
+    if (streamsSupported()) {
+      const source = new EventSource(api.leaderboardStreamUrl(matchId, 10))
+      source.addEventListener('snapshot', (event) => {
+        setEntries(JSON.parse((event as MessageEvent).data).entries)
+        setLoading(false)
+      })
+      source.addEventListener('leaderboard', (event) => {
+        const diff: LeaderboardDiff = JSON.parse((event as MessageEvent).data)
+        setEntries((current) => applyLeaderboardDiff(current, diff))
+      })
+      source.onerror = () => setLoading(false)
+      return () => source.close()
+    }
+
     const fetchLeaderboard = async () => {
       try {
         const response = await api.getLeaderboard(matchId, 10)
@@ -1,11 +1,21 @@
 import { useState, useEffect } from 'react'
-import { api } from '../lib/api'
+import { api, streamsSupported } from '../lib/api'
 
 export default function PresenceCard() {
   const [onlineCount, setOnlineCount] = useState(0)
   const [loading, setLoading] = useState(true)
 
   useEffect(() => {
+    if (streamsSupported()) {
+      const source = new EventSource(api.presenceStreamUrl())
+      source.addEventListener('presence', (event) => {
+        setOnlineCount(JSON.parse((event as MessageEvent).data).onlineCount)
+        setLoading(false)
+      })
+      source.onerror = () => setLoading(false)
+      return () => source.close()
+    }
+
     const fetchPresence = async () => {
       try {
         const response = await api.getOnlineCount()
@@ -13,7 +13,7 @@ vi.stubGlobal('import', {
 })
 
 // Import api after mocking
-import { api, GameAction, LeaderboardEntry } from './api'
+import { api, applyLeaderboardDiff, GameAction, LeaderboardEntry } from './api'
 
 beforeAll(() => server.listen())
 afterEach(() => server.resetHandlers())
@@ -273,3 +273,49 @@ describe('types', () => {
     expect(entry.rank).toBe(1)
   })
 })
+
+describe('applyLeaderboardDiff', () => {
+  const entries: LeaderboardEntry[] = [
+    { userId: 'user-1', score: 10, rank: 1 },
+    { userId: 'user-2', score: 8, rank: 2 },
+    { userId: 'user-3', score: 5, rank: 3 }
+  ]
+
+  it('upserts changed entries and drops removed ones', () => {
+    const result = applyLeaderboardDiff(entries, {
+      matchId: 'match-1',
+      changed: [
+        { userId: 'user-2', score: 12, rank: 1 },
+        { userId: 'user-1', score: 10, rank: 2 },
+        { userId: 'user-4', score: 6, rank: 3 }
+      ],
+      removed: ['user-3'],
+      timestamp: 1
+    })
+
+    expect(result.map((entry) => entry.userId)).toEqual(['user-2', 'user-1', 'user-4'])
+    expect(result[0].score).toBe(12)
+  })
+
+  it('returns the same ordering when the diff is empty', () => {
+    const result = applyLeaderboardDiff(entries, {
+      matchId: 'match-1',
+      changed: [],
+      removed: [],
+      timestamp: 1
+    })
+
+    expect(result).toEqual(entries)
+  })
+})
+
+describe('stream urls', () => {
+  it('builds the leaderboard stream url', () => {
+    expect(api.leaderboardStreamUrl('match-2', 5))
+      .toBe('http://localhost:8083/api/stream/leaderboard?matchId=match-2&limit=5')
+  })
+
+  it('builds the presence stream url', () => {
+    expect(api.presenceStreamUrl()).toBe('http://localhost:8083/api/stream/presence')
+  })
+})
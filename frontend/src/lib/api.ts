@@ -13,8 +13,10 @@ const ingestClient = axios.create({
   }
 })
 
+const QUERY_BASE_URL = isProduction ? '/query' : 'http://localhost:8083'
+
 const queryClient = axios.create({
-  baseURL: isProduction ? '/query' : 'http://localhost:8083',
+  baseURL: QUERY_BASE_URL,
   headers: {
     'Content-Type': 'application/json'
   }
@@ -35,6 +37,31 @@ export interface LeaderboardEntry {
   rank: number
 }
 
+export interface LeaderboardDiff {
+  matchId: string
+  changed: LeaderboardEntry[]
+  removed: string[]
+  timestamp: number
+}
+
+// Applies a server-pushed diff from /api/stream/leaderboard to the current top-N
+export const applyLeaderboardDiff = (
+  entries: LeaderboardEntry[],
+  diff: LeaderboardDiff
+): LeaderboardEntry[] => {
+  const removed = new Set(diff.removed)
+  const byUser = new Map<string, LeaderboardEntry>()
+  entries.forEach((entry) => {
+    if (!removed.has(entry.userId)) {
+      byUser.set(entry.userId, entry)
+    }
+  })
+  diff.changed.forEach((entry) => byUser.set(entry.userId, entry))
+  return Array.from(byUser.values()).sort((a, b) => a.rank - b.rank)
+}
+
+export const streamsSupported = () => typeof EventSource !== 'undefined'
+
 export const api = {
   // Ingest endpoints
   sendHeartbeat: (data: GameAction) =>
@@ -51,5 +78,12 @@ export const api = {
     queryClient.get('/api/presence/onlineCount'),
 
   getLeaderboard: (matchId: string = 'match-1', limit: number = 10) =>
-    queryClient.get(`/api/leaderboard?matchId=${matchId}&limit=${limit}`)
+    queryClient.get(`/api/leaderboard?matchId=${matchId}&limit=${limit}`),
+
+  // Streaming endpoints (Server-Sent Events)
+  leaderboardStreamUrl: (matchId: string = 'match-1', limit: number = 10) =>
+    `${QUERY_BASE_URL}/api/stream/leaderboard?matchId=${matchId}&limit=${limit}`,
+
+  presenceStreamUrl: () =>
+    `${QUERY_BASE_URL}/api/stream/presence`
 }